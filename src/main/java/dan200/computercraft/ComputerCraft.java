@@ -41,8 +41,12 @@ public final class ComputerCraft
     public static boolean commandRequireCreative = true;
 
     public static int computerThreads = 1;
+    public static boolean computerThreadWorkStealing = false;
     public static long maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos( 10 );
     public static long maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos( 5 );
+    public static long maxTaskAllocation = 0;
+    public static boolean coroutineVirtualThreads = true;
+    public static int maxBootsPerTick = 8;
 
     public static boolean httpEnabled = true;
     public static boolean httpWebsocketEnabled = true;
@@ -69,6 +73,7 @@ public final class ComputerCraft
     public static int advancedTurtleFuelLimit = 100000;
     public static boolean turtlesObeyBlockProtection = true;
     public static boolean turtlesCanPush = true;
+    public static int turtleMaxCommandsPerTick = 1;
     public static EnumSet<TurtleAction> turtleDisabledActions = EnumSet.noneOf( TurtleAction.class );
 
     public static int computerTermWidth = 51;
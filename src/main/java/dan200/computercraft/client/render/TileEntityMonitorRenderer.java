@@ -11,11 +11,9 @@ import com.mojang.blaze3d.vertex.IVertexBuilder;
 import dan200.computercraft.client.FrameInfo;
 import dan200.computercraft.client.gui.FixedWidthFontRenderer;
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.core.terminal.TextBuffer;
 import dan200.computercraft.shared.peripheral.monitor.ClientMonitor;
 import dan200.computercraft.shared.peripheral.monitor.MonitorRenderer;
 import dan200.computercraft.shared.peripheral.monitor.TileMonitor;
-import dan200.computercraft.shared.util.Colour;
 import dan200.computercraft.shared.util.DirectionUtil;
 import net.minecraft.client.renderer.*;
 import net.minecraft.client.renderer.tileentity.TileEntityRenderer;
@@ -180,12 +178,11 @@ public class TileEntityMonitorRenderer extends TileEntityRenderer<TileMonitor>
                     monitorBuffer.clear();
                     for( int y = 0; y < height; y++ )
                     {
-                        TextBuffer text = terminal.getLine( y ), textColour = terminal.getTextColourLine( y ), background = terminal.getBackgroundColourLine( y );
                         for( int x = 0; x < width; x++ )
                         {
-                            monitorBuffer.put( (byte) (text.charAt( x ) & 0xFF) );
-                            monitorBuffer.put( (byte) getColour( textColour.charAt( x ), Colour.WHITE ) );
-                            monitorBuffer.put( (byte) getColour( background.charAt( x ), Colour.BLACK ) );
+                            monitorBuffer.put( (byte) terminal.getCellChar( x, y ) );
+                            monitorBuffer.put( (byte) (15 - terminal.getCellTextColour( x, y )) );
+                            monitorBuffer.put( (byte) (15 - terminal.getCellBackgroundColour( x, y )) );
                         }
                     }
                     monitorBuffer.flip();
@@ -32,7 +32,12 @@ public class OSAPI implements ILuaAPI
 {
     private final IAPIEnvironment apiEnvironment;
 
+    /**
+     * All active alarms, indexed by their ID. These are also stored in {@link #pendingAlarms}, ordered by when they
+     * will fire, so {@link #update()} only needs to look at alarms which are due.
+     */
     private final Int2ObjectMap<Alarm> alarms = new Int2ObjectOpenHashMap<>();
+    private final PriorityQueue<Alarm> pendingAlarms = new PriorityQueue<>();
     private int clock;
     private double time;
     private int day;
@@ -41,21 +46,27 @@ public class OSAPI implements ILuaAPI
 
     private static class Alarm implements Comparable<Alarm>
     {
+        final int id;
         final double time;
         final int day;
 
-        Alarm( double time, int day )
+        Alarm( int id, double time, int day )
         {
+            this.id = id;
             this.time = time;
             this.day = day;
         }
 
+        double getTime()
+        {
+            return day * 24.0 + time;
+        }
+
         @Override
         public int compareTo( @Nonnull Alarm o )
         {
-            double t = day * 24.0 + time;
-            double ot = day * 24.0 + time;
-            return Double.compare( t, ot );
+            int compare = Double.compare( getTime(), o.getTime() );
+            return compare != 0 ? compare : Integer.compare( id, o.id );
         }
     }
 
@@ -80,6 +91,7 @@ public class OSAPI implements ILuaAPI
         synchronized( alarms )
         {
             alarms.clear();
+            pendingAlarms.clear();
         }
     }
 
@@ -99,17 +111,12 @@ public class OSAPI implements ILuaAPI
             if( time > previousTime || day > previousDay )
             {
                 double now = this.day * 24.0 + this.time;
-                Iterator<Int2ObjectMap.Entry<Alarm>> it = alarms.int2ObjectEntrySet().iterator();
-                while( it.hasNext() )
+                Alarm alarm;
+                while( (alarm = pendingAlarms.peek()) != null && now >= alarm.getTime() )
                 {
-                    Int2ObjectMap.Entry<Alarm> entry = it.next();
-                    Alarm alarm = entry.getValue();
-                    double t = alarm.day * 24.0 + alarm.time;
-                    if( now >= t )
-                    {
-                        apiEnvironment.queueEvent( "alarm", entry.getIntKey() );
-                        it.remove();
-                    }
+                    pendingAlarms.remove();
+                    alarms.remove( alarm.id );
+                    apiEnvironment.queueEvent( "alarm", alarm.id );
                 }
             }
 
@@ -124,6 +131,7 @@ public class OSAPI implements ILuaAPI
         synchronized( alarms )
         {
             alarms.clear();
+            pendingAlarms.clear();
         }
     }
 
@@ -222,8 +230,10 @@ public class OSAPI implements ILuaAPI
         synchronized( alarms )
         {
             int day = time > this.time ? this.day : this.day + 1;
-            alarms.put( nextAlarmToken, new Alarm( time, day ) );
-            return nextAlarmToken++;
+            Alarm alarm = new Alarm( nextAlarmToken++, time, day );
+            alarms.put( alarm.id, alarm );
+            pendingAlarms.add( alarm );
+            return alarm.id;
         }
     }
 
@@ -239,7 +249,8 @@ public class OSAPI implements ILuaAPI
     {
         synchronized( alarms )
         {
-            alarms.remove( token );
+            Alarm alarm = alarms.remove( token );
+            if( alarm != null ) pendingAlarms.remove( alarm );
         }
     }
 
@@ -0,0 +1,54 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.asm;
+
+import dan200.computercraft.api.lua.IArguments;
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.lua.MethodResult;
+import org.squiddev.cobalt.Constants;
+import org.squiddev.cobalt.ValueFactory;
+import org.squiddev.cobalt.Varargs;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link LuaMethod} which never yields, and returns nothing, a primitive or a string.
+ *
+ * As the return value is known ahead of time, the generated method converts it to a Lua value directly, rather than
+ * boxing it and wrapping it in a {@link MethodResult}.
+ *
+ * @see Generator
+ */
+public interface DirectLuaMethod extends LuaMethod
+{
+    @Nonnull
+    Varargs applyDirect( @Nonnull Object target, @Nonnull ILuaContext context, @Nonnull IArguments args ) throws LuaException;
+
+    // The conversion functions called by generated code. These follow the same rules as
+    // CobaltLuaMachine.toValue, with all numbers being converted to doubles.
+
+    static Varargs none()
+    {
+        return Constants.NONE;
+    }
+
+    static Varargs valueOf( boolean value )
+    {
+        return ValueFactory.valueOf( value );
+    }
+
+    static Varargs valueOf( double value )
+    {
+        return ValueFactory.valueOf( value );
+    }
+
+    static Varargs valueOf( @Nullable String value )
+    {
+        return value == null ? Constants.NIL : ValueFactory.valueOf( value );
+    }
+}
@@ -15,6 +15,7 @@ import dan200.computercraft.api.lua.*;
 import org.objectweb.asm.ClassWriter;
 import org.objectweb.asm.MethodVisitor;
 import org.objectweb.asm.Type;
+import org.squiddev.cobalt.Varargs;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -43,12 +44,27 @@ public final class Generator<T>
     private static final String INTERNAL_ARGUMENTS = Type.getInternalName( IArguments.class );
     private static final String DESC_ARGUMENTS = Type.getDescriptor( IArguments.class );
 
+    private static final String DIRECT_METHOD_NAME = "applyDirect";
+    private static final String INTERNAL_DIRECT = Type.getInternalName( DirectLuaMethod.class );
+    private static final String DESC_VARARGS = Type.getDescriptor( Varargs.class );
+
     private final Class<T> base;
     private final List<Class<?>> context;
 
     private final String[] interfaces;
     private final String methodDesc;
 
+    /**
+     * The interface to implement for methods which can return their value directly, or {@code null} if not supported.
+     * This should extend {@link #base}, and have a single {@link #DIRECT_METHOD_NAME} method with the same arguments.
+     *
+     * @see DirectLuaMethod
+     */
+    @Nullable
+    private final Class<? extends T> direct;
+    private final String[] directInterfaces;
+    private final String directMethodDesc;
+
     private final Function<T, T> wrap;
 
     private final LoadingCache<Class<?>, List<NamedMethod<T>>> classCache = CacheBuilder
@@ -60,16 +76,26 @@ public final class Generator<T>
         .build( CacheLoader.from( catching( this::build, Optional.empty() ) ) );
 
     Generator( Class<T> base, List<Class<?>> context, Function<T, T> wrap )
+    {
+        this( base, null, context, wrap );
+    }
+
+    Generator( Class<T> base, @Nullable Class<? extends T> direct, List<Class<?>> context, Function<T, T> wrap )
     {
         this.base = base;
+        this.direct = direct;
         this.context = context;
         this.interfaces = new String[] { Type.getInternalName( base ) };
+        this.directInterfaces = direct == null ? null : new String[] { Type.getInternalName( direct ) };
         this.wrap = wrap;
 
         StringBuilder methodDesc = new StringBuilder().append( "(Ljava/lang/Object;" );
         for( Class<?> klass : context ) methodDesc.append( Type.getDescriptor( klass ) );
-        methodDesc.append( DESC_ARGUMENTS ).append( ")" ).append( DESC_METHOD_RESULT );
-        this.methodDesc = methodDesc.toString();
+        methodDesc.append( DESC_ARGUMENTS ).append( ")" );
+        String arguments = methodDesc.toString();
+
+        this.methodDesc = arguments + DESC_METHOD_RESULT;
+        this.directMethodDesc = arguments + DESC_VARARGS;
     }
 
     @Nonnull
@@ -204,10 +230,11 @@ public final class Generator<T>
     private byte[] generate( String className, Class<?> target, Method method )
     {
         String internalName = className.replace( ".", "/" );
+        boolean isDirect = direct != null && isDirect( method );
 
         // Construct a public final class which extends Object and implements MethodInstance.Delegate
         ClassWriter cw = new ClassWriter( ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS );
-        cw.visit( V1_8, ACC_PUBLIC | ACC_FINAL, internalName, null, "java/lang/Object", interfaces );
+        cw.visit( V1_8, ACC_PUBLIC | ACC_FINAL, internalName, null, "java/lang/Object", isDirect ? directInterfaces : interfaces );
         cw.visitSource( "CC generated method", null );
 
         { // Constructor just invokes super.
@@ -224,26 +251,7 @@ public final class Generator<T>
             MethodVisitor mw = cw.visitMethod( ACC_PUBLIC, METHOD_NAME, methodDesc, null, EXCEPTIONS );
             mw.visitCode();
 
-            // If we're an instance method, load the this parameter.
-            if( !Modifier.isStatic( method.getModifiers() ) )
-            {
-                mw.visitVarInsn( ALOAD, 1 );
-                mw.visitTypeInsn( CHECKCAST, Type.getInternalName( target ) );
-            }
-
-            int argIndex = 0;
-            for( java.lang.reflect.Type genericArg : method.getGenericParameterTypes() )
-            {
-                Boolean loadedArg = loadArg( mw, target, method, genericArg, argIndex );
-                if( loadedArg == null ) return null;
-                if( loadedArg ) argIndex++;
-            }
-
-            mw.visitMethodInsn(
-                Modifier.isStatic( method.getModifiers() ) ? INVOKESTATIC : INVOKEVIRTUAL,
-                Type.getInternalName( method.getDeclaringClass() ), method.getName(),
-                Type.getMethodDescriptor( method ), false
-            );
+            if( !invoke( mw, target, method ) ) return null;
 
             // We allow a reasonable amount of flexibility on the return value's type. Alongside the obvious MethodResult,
             // we convert basic types into an immediate result.
@@ -276,11 +284,109 @@ public final class Generator<T>
             mw.visitEnd();
         }
 
+        if( isDirect )
+        {
+            MethodVisitor mw = cw.visitMethod( ACC_PUBLIC, DIRECT_METHOD_NAME, directMethodDesc, null, EXCEPTIONS );
+            mw.visitCode();
+
+            if( !invoke( mw, target, method ) ) return null;
+
+            // Convert the result straight to a Lua value. All numbers are converted to doubles, as in
+            // CobaltLuaMachine.toValue.
+            Class<?> ret = method.getReturnType();
+            if( ret == void.class )
+            {
+                mw.visitMethodInsn( INVOKESTATIC, INTERNAL_DIRECT, "none", "()" + DESC_VARARGS, true );
+            }
+            else if( ret == boolean.class )
+            {
+                mw.visitMethodInsn( INVOKESTATIC, INTERNAL_DIRECT, "valueOf", "(Z)" + DESC_VARARGS, true );
+            }
+            else if( ret == String.class )
+            {
+                mw.visitMethodInsn( INVOKESTATIC, INTERNAL_DIRECT, "valueOf", "(Ljava/lang/String;)" + DESC_VARARGS, true );
+            }
+            else
+            {
+                if( ret == long.class )
+                {
+                    mw.visitInsn( L2D );
+                }
+                else if( ret == float.class )
+                {
+                    mw.visitInsn( F2D );
+                }
+                else if( ret != double.class )
+                {
+                    mw.visitInsn( I2D );
+                }
+                mw.visitMethodInsn( INVOKESTATIC, INTERNAL_DIRECT, "valueOf", "(D)" + DESC_VARARGS, true );
+            }
+
+            mw.visitInsn( ARETURN );
+
+            mw.visitMaxs( 0, 0 );
+            mw.visitEnd();
+        }
+
         cw.visitEnd();
 
         return cw.toByteArray();
     }
 
+    /**
+     * Load the target and arguments for a method, and then invoke it.
+     *
+     * @param mw     The method we are generating.
+     * @param target The type of the method's target.
+     * @param method The method to invoke.
+     * @return Whether all arguments could be loaded.
+     */
+    private boolean invoke( MethodVisitor mw, Class<?> target, Method method )
+    {
+        // If we're an instance method, load the this parameter.
+        if( !Modifier.isStatic( method.getModifiers() ) )
+        {
+            mw.visitVarInsn( ALOAD, 1 );
+            mw.visitTypeInsn( CHECKCAST, Type.getInternalName( target ) );
+        }
+
+        int argIndex = 0;
+        for( java.lang.reflect.Type genericArg : method.getGenericParameterTypes() )
+        {
+            Boolean loadedArg = loadArg( mw, target, method, genericArg, argIndex );
+            if( loadedArg == null ) return false;
+            if( loadedArg ) argIndex++;
+        }
+
+        mw.visitMethodInsn(
+            Modifier.isStatic( method.getModifiers() ) ? INVOKESTATIC : INVOKEVIRTUAL,
+            Type.getInternalName( method.getDeclaringClass() ), method.getName(),
+            Type.getMethodDescriptor( method ), false
+        );
+        return true;
+    }
+
+    /**
+     * Determine whether a method's result can be converted directly, rather than going through {@link MethodResult}.
+     *
+     * Methods returning {@code Object[]} (such as {@code term.getCursorPos}) are not supported. Their values may be
+     * tables, functions or other objects, which can only be converted by the {@link dan200.computercraft.core.lua.ILuaMachine}
+     * (which tracks cycles and wraps Lua objects). The array and any boxed values are allocated by the method itself,
+     * so the only saving would be the {@link MethodResult}, which is not worth a second conversion path.
+     *
+     * @param method The method to check.
+     * @return If this method can be implemented with {@link #direct}.
+     */
+    private static boolean isDirect( Method method )
+    {
+        LuaFunction annotation = method.getAnnotation( LuaFunction.class );
+        if( annotation == null || annotation.mainThread() ) return false;
+
+        Class<?> ret = method.getReturnType();
+        return ret == void.class || ret == String.class || (ret.isPrimitive() && ret != char.class);
+    }
+
     private Boolean loadArg( MethodVisitor mw, Class<?> target, Method method, java.lang.reflect.Type genericArg, int argIndex )
     {
         if( genericArg == target )
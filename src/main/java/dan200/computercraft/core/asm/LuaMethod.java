@@ -12,7 +12,7 @@ import java.util.Collections;
 
 public interface LuaMethod
 {
-    Generator<LuaMethod> GENERATOR = new Generator<>( LuaMethod.class, Collections.singletonList( ILuaContext.class ),
+    Generator<LuaMethod> GENERATOR = new Generator<>( LuaMethod.class, DirectLuaMethod.class, Collections.singletonList( ILuaContext.class ),
         m -> ( target, context, args ) -> TaskCallback.make( context, () -> TaskCallback.checkUnwrap( m.apply( target, context, args ) ) )
     );
 
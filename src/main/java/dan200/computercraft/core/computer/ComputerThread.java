@@ -13,6 +13,8 @@ import javax.annotation.Nullable;
 import java.util.TreeSet;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.LockSupport;
@@ -43,6 +45,11 @@ import static dan200.computercraft.core.computer.TimeoutState.TIMEOUT;
  * In reality, it's unlikely that more than a few computers are waiting to execute at once, so this will not have much
  * effect unless you have a computer hogging execution time. However, it is pretty effective in those situations.
  *
+ * By default, all runners share a single queue guarded by {@link #computerLock}. On servers with many runners this lock
+ * becomes heavily contended, and so one may instead enable {@link ComputerCraft#computerThreadWorkStealing}. In this
+ * mode each runner owns a {@link RunQueue}: computers are queued onto a single runner, and idle runners steal from the
+ * others. Virtual runtimes are still tracked globally, so the scheduler remains (approximately) fair.
+ *
  * @see TimeoutState For how hard timeouts are handled.
  * @see ComputerExecutor For how computers actually do execution.
  */
@@ -99,6 +106,28 @@ public final class ComputerThread
     private static long latency;
     private static long minPeriod;
 
+    /**
+     * Whether each runner has its own {@link RunQueue}, rather than sharing {@link #computerQueue}. This is fixed when
+     * the runners are first created.
+     */
+    private static boolean workStealing;
+
+    /**
+     * The per-runner queues, when {@link #workStealing} is enabled. Queues belong to a runner's slot rather than
+     * the runner itself, so any work survives a runner being restarted.
+     */
+    private static RunQueue[] runQueues;
+
+    /**
+     * The total number of executors across all {@link #runQueues}.
+     */
+    private static final AtomicInteger runQueueSize = new AtomicInteger();
+
+    /**
+     * The runner the next externally queued computer will be pushed to.
+     */
+    private static final AtomicInteger nextRunner = new AtomicInteger();
+
     private static final ReentrantLock computerLock = new ReentrantLock();
 
     private static final Condition hasWork = computerLock.newCondition();
@@ -106,18 +135,12 @@ public final class ComputerThread
     /**
      * Active queues to execute.
      */
-    private static final TreeSet<ComputerExecutor> computerQueue = new TreeSet<>( ( a, b ) -> {
-        if( a == b ) return 0; // Should never happen, but let's be consistent here
-
-        long at = a.virtualRuntime, bt = b.virtualRuntime;
-        if( at == bt ) return Integer.compare( a.hashCode(), b.hashCode() );
-        return at < bt ? -1 : 1;
-    } );
+    private static final TreeSet<ComputerExecutor> computerQueue = new TreeSet<>( RunQueue.ORDER );
 
     /**
      * The minimum {@link ComputerExecutor#virtualRuntime} time on the tree.
      */
-    private static long minimumVirtualRuntime = 0;
+    private static final AtomicLong minimumVirtualRuntime = new AtomicLong();
 
     private static final ThreadFactory monitorFactory = ThreadUtils.factory( "Computer-Monitor" );
     private static final ThreadFactory runnerFactory = ThreadUtils.factory( "Computer-Runner" );
@@ -143,6 +166,13 @@ public final class ComputerThread
                 long factor = 64 - Long.numberOfLeadingZeros( runners.length );
                 latency = DEFAULT_LATENCY * factor;
                 minPeriod = DEFAULT_MIN_PERIOD * factor;
+
+                workStealing = ComputerCraft.computerThreadWorkStealing;
+                if( workStealing )
+                {
+                    runQueues = new RunQueue[runners.length];
+                    for( int i = 0; i < runQueues.length; i++ ) runQueues[i] = new RunQueue();
+                }
             }
 
             for( int i = 0; i < runners.length; i++ )
@@ -153,7 +183,7 @@ public final class ComputerThread
                     // Mark the old runner as dead, just in case.
                     if( runner != null ) runner.running = false;
                     // And start a new runner
-                    runnerFactory.newThread( runners[i] = new TaskRunner() ).start();
+                    runnerFactory.newThread( runners[i] = new TaskRunner( i ) ).start();
                 }
             }
 
@@ -190,6 +220,13 @@ public final class ComputerThread
         {
             computerLock.unlock();
         }
+
+        RunQueue[] queues = runQueues;
+        if( queues != null )
+        {
+            for( RunQueue queue : queues ) queue.clear();
+            runQueueSize.set( 0 );
+        }
     }
 
     /**
@@ -202,6 +239,12 @@ public final class ComputerThread
      */
     static void queue( @Nonnull ComputerExecutor executor )
     {
+        if( workStealing )
+        {
+            queueStealing( executor );
+            return;
+        }
+
         computerLock.lock();
         try
         {
@@ -209,23 +252,7 @@ public final class ComputerThread
             executor.onComputerQueue = true;
 
             updateRuntimes( null );
-
-            // We're not currently on the queue, so update its current execution time to
-            // ensure its at least as high as the minimum.
-            long newRuntime = minimumVirtualRuntime;
-
-            if( executor.virtualRuntime == 0 )
-            {
-                // Slow down new computers a little bit.
-                newRuntime += scaledPeriod();
-            }
-            else
-            {
-                // Give a small boost to computers which have slept a little.
-                newRuntime -= latency / 2;
-            }
-
-            executor.virtualRuntime = Math.max( newRuntime, executor.virtualRuntime );
+            resetRuntime( executor );
 
             // Add to the queue, and signal the workers.
             computerQueue.add( executor );
@@ -238,6 +265,83 @@ public final class ComputerThread
     }
 
 
+    /**
+     * Queue an executor onto one of the runners' {@link RunQueue}s.
+     *
+     * @param executor The computer to execute work on.
+     * @see #queue(ComputerExecutor)
+     */
+    private static void queueStealing( @Nonnull ComputerExecutor executor )
+    {
+        if( executor.onComputerQueue ) throw new IllegalStateException( "Cannot queue already queued executor" );
+        executor.onComputerQueue = true;
+
+        updateRuntimesStealing( null );
+        resetRuntime( executor );
+
+        // Spread new work across the runners. If the chosen runner is busy, an idle one will steal it.
+        int index = Math.floorMod( nextRunner.getAndIncrement(), runQueues.length );
+        pushStealing( index, executor );
+    }
+
+    /**
+     * Update the runtime of an executor which is being added to the queue, ensuring it is at least as high as the
+     * minimum.
+     *
+     * @param executor The executor we are queuing.
+     */
+    private static void resetRuntime( @Nonnull ComputerExecutor executor )
+    {
+        // We're not currently on the queue, so update its current execution time to
+        // ensure its at least as high as the minimum.
+        long newRuntime = minimumVirtualRuntime.get();
+
+        if( executor.virtualRuntime == 0 )
+        {
+            // Slow down new computers a little bit.
+            newRuntime += scaledPeriod();
+        }
+        else
+        {
+            // Give a small boost to computers which have slept a little.
+            newRuntime -= latency / 2;
+        }
+
+        executor.virtualRuntime = Math.max( newRuntime, executor.virtualRuntime );
+    }
+
+    /**
+     * Push an executor onto a runner's queue, and wake up a runner to handle it.
+     *
+     * @param index    The index of the runner whose queue we should push to.
+     * @param executor The executor to push.
+     */
+    private static void pushStealing( int index, @Nonnull ComputerExecutor executor )
+    {
+        runQueueSize.incrementAndGet();
+        runQueues[index].offer( executor );
+
+        TaskRunner[] currentRunners = runners;
+        if( currentRunners == null ) return;
+
+        // Wake up the owning runner if it is idle, otherwise any other idle runner so it can steal this work.
+        TaskRunner owner = currentRunners[index];
+        if( owner != null && owner.idle )
+        {
+            owner.wake();
+            return;
+        }
+
+        for( TaskRunner runner : currentRunners )
+        {
+            if( runner != null && runner.idle )
+            {
+                runner.wake();
+                return;
+            }
+        }
+    }
+
     /**
      * Update the {@link ComputerExecutor#virtualRuntime}s of all running tasks, and then update the
      * {@link #minimumVirtualRuntime} based on the current tasks.
@@ -278,10 +382,48 @@ public final class ComputerThread
             minRuntime = Math.min( minRuntime, current.virtualRuntime += (now - current.vRuntimeStart) / tasks );
         }
 
-        if( minRuntime > minimumVirtualRuntime && minRuntime < Long.MAX_VALUE )
+        if( minRuntime > minimumVirtualRuntime.get() && minRuntime < Long.MAX_VALUE )
+        {
+            minimumVirtualRuntime.set( minRuntime );
+        }
+    }
+
+    /**
+     * The equivalent of {@link #updateRuntimes(ComputerExecutor)} when using {@link RunQueue}s.
+     *
+     * As we do not hold a global lock, we cannot update the runtimes of executors on other runners. Instead, we
+     * estimate what their runtime would be, and leave the actual update to the runner which owns them.
+     *
+     * @param current The machine which we updating runtimes from.
+     */
+    private static void updateRuntimesStealing( @Nullable ComputerExecutor current )
+    {
+        long minRuntime = Long.MAX_VALUE;
+
+        // Use the first task on each queue as our base time.
+        for( RunQueue queue : runQueues ) minRuntime = Math.min( minRuntime, queue.headRuntime() );
+
+        long now = System.nanoTime();
+        int tasks = 1 + runQueueSize.get();
+        TaskRunner[] currentRunners = runners;
+        if( currentRunners != null )
+        {
+            for( TaskRunner runner : currentRunners )
+            {
+                if( runner == null ) continue;
+                ComputerExecutor executor = runner.currentExecutor.get();
+                if( executor == null || executor == current ) continue;
+
+                minRuntime = Math.min( minRuntime, executor.virtualRuntime + (now - executor.vRuntimeStart) / tasks );
+            }
+        }
+
+        if( current != null )
         {
-            minimumVirtualRuntime = minRuntime;
+            minRuntime = Math.min( minRuntime, current.virtualRuntime += (now - current.vRuntimeStart) / tasks );
         }
+
+        if( minRuntime < Long.MAX_VALUE ) minimumVirtualRuntime.accumulateAndGet( minRuntime, Math::max );
     }
 
     /**
@@ -303,6 +445,16 @@ public final class ComputerThread
             );
         }
 
+        if( workStealing )
+        {
+            updateRuntimesStealing( executor );
+
+            // If we've more work to do, add it back to this runner's queue. We may end up running it again
+            // immediately, but that's better than bouncing it between runners.
+            if( executor.afterWork() ) pushStealing( runner.index, executor );
+            return;
+        }
+
         computerLock.lock();
         try
         {
@@ -332,7 +484,7 @@ public final class ComputerThread
     static long scaledPeriod()
     {
         // +1 to include the current task
-        int count = 1 + computerQueue.size();
+        int count = 1 + (workStealing ? runQueueSize.get() : computerQueue.size());
         return count < LATENCY_MAX_TASKS ? latency / count : minPeriod;
     }
 
@@ -343,7 +495,7 @@ public final class ComputerThread
      */
     static boolean hasPendingWork()
     {
-        return !computerQueue.isEmpty();
+        return workStealing ? runQueueSize.get() > 0 : !computerQueue.isEmpty();
     }
 
     /**
@@ -378,7 +530,7 @@ public final class ComputerThread
                                 ComputerCraft.log.warn( "Previous runner ({}) has crashed, restarting!",
                                     runner != null && runner.owner != null ? runner.owner.getName() : runner );
                                 if( runner != null ) runner.running = false;
-                                runnerFactory.newThread( runners[i] = new TaskRunner() ).start();
+                                runnerFactory.newThread( runners[i] = new TaskRunner( i ) ).start();
                             }
 
                             // If the runner has no work, skip
@@ -410,7 +562,7 @@ public final class ComputerThread
                                 {
                                     if( running && runners.length > i && runners[i] == runner )
                                     {
-                                        runnerFactory.newThread( currentRunners[i] = new TaskRunner() ).start();
+                                        runnerFactory.newThread( currentRunners[i] = new TaskRunner( i ) ).start();
                                     }
                                 }
                             }
@@ -432,7 +584,7 @@ public final class ComputerThread
     }
 
     /**
-     * Pulls tasks from the {@link #computerQueue} queue and runs them.
+     * Pulls tasks from the {@link #computerQueue} queue (or the {@link #runQueues} when work stealing) and runs them.
      *
      * This is responsible for running the {@link ComputerExecutor#work()}, {@link ComputerExecutor#beforeWork()} and
      * {@link ComputerExecutor#afterWork()} functions. Everything else is either handled by the executor, timeout
@@ -440,11 +592,28 @@ public final class ComputerThread
      */
     private static final class TaskRunner implements Runnable
     {
-        Thread owner;
+        final int index;
+        volatile Thread owner;
         volatile boolean running = true;
 
+        /**
+         * Whether this runner is waiting for work to appear on any {@link RunQueue}.
+         */
+        volatile boolean idle = false;
+
         final AtomicReference<ComputerExecutor> currentExecutor = new AtomicReference<>();
 
+        TaskRunner( int index )
+        {
+            this.index = index;
+        }
+
+        void wake()
+        {
+            Thread thread = owner;
+            if( thread != null ) LockSupport.unpark( thread );
+        }
+
         @Override
         public void run()
         {
@@ -455,26 +624,34 @@ public final class ComputerThread
             {
                 // Wait for an active queue to execute
                 ComputerExecutor executor;
-                try
+                if( workStealing )
+                {
+                    executor = takeStealing();
+                    if( executor == null ) continue;
+                }
+                else
                 {
-                    computerLock.lockInterruptibly();
                     try
                     {
-                        while( computerQueue.isEmpty() ) hasWork.await();
-                        executor = computerQueue.pollFirst();
-                        assert executor != null : "hasWork should ensure we never receive null work";
+                        computerLock.lockInterruptibly();
+                        try
+                        {
+                            while( computerQueue.isEmpty() ) hasWork.await();
+                            executor = computerQueue.pollFirst();
+                            assert executor != null : "hasWork should ensure we never receive null work";
+                        }
+                        finally
+                        {
+                            computerLock.unlock();
+                        }
                     }
-                    finally
+                    catch( InterruptedException ignored )
                     {
-                        computerLock.unlock();
+                        // If we've been interrupted, our running flag has probably been reset, so we'll
+                        // just jump into the next iteration.
+                        continue;
                     }
                 }
-                catch( InterruptedException ignored )
-                {
-                    // If we've been interrupted, our running flag has probably been reset, so we'll
-                    // just jump into the next iteration.
-                    continue;
-                }
 
                 // If we're trying to executing some task on this computer while someone else is doing work, something
                 // is seriously wrong.
@@ -514,6 +691,33 @@ public final class ComputerThread
                 }
             }
         }
+
+        /**
+         * Take an executor from our own queue, or steal one from another runner, waiting until one is available.
+         *
+         * @return The executor to run, or {@code null} if we were woken up without finding any work.
+         */
+        @Nullable
+        private ComputerExecutor takeStealing()
+        {
+            ComputerExecutor executor = RunQueue.next( runQueues, index, minPeriod );
+            if( executor == null )
+            {
+                // Mark ourselves as idle and check again. Anyone pushing work after this point will see we are idle and
+                // unpark us, so we cannot miss a wakeup.
+                idle = true;
+                executor = RunQueue.next( runQueues, index, minPeriod );
+                if( executor == null ) LockSupport.parkNanos( this, TimeUnit.MILLISECONDS.toNanos( MONITOR_WAKEUP ) );
+                idle = false;
+
+                // Clear the interrupt flag - we'll pick up any changes to our running flag on the next iteration.
+                Thread.interrupted();
+                if( executor == null ) return null;
+            }
+
+            runQueueSize.decrementAndGet();
+            return executor;
+        }
     }
 
     private static void timeoutTask( ComputerExecutor executor, Thread thread, long time )
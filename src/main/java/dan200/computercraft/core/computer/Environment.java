@@ -18,7 +18,6 @@ import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 
 import javax.annotation.Nonnull;
 import java.util.Arrays;
-import java.util.Iterator;
 
 /**
  * Represents the "environment" that a {@link Computer} exists in.
@@ -57,9 +56,26 @@ public final class Environment implements IAPIEnvironment
     private final IPeripheral[] peripherals = new IPeripheral[ComputerSide.COUNT];
     private IPeripheralChangeListener peripheralListener = null;
 
+    /**
+     * The number of buckets in {@link #timerWheel}. This must be a power of 2.
+     */
+    private static final int TIMER_BUCKETS = 64;
+
+    /**
+     * All active timers, indexed by their ID. The timers themselves are stored in a hashed timing wheel
+     * ({@link #timerWheel}), where each timer is in the bucket for the tick it expires on. This means each tick only
+     * needs to look at one bucket, rather than every timer.
+     */
     private final Int2ObjectMap<Timer> timers = new Int2ObjectOpenHashMap<>();
+    private final Timer[] timerWheel = new Timer[TIMER_BUCKETS];
     private int nextTimerToken = 0;
 
+    /**
+     * The number of times {@link #tick()} has been called. Timers expire relative to this, rather than the server's
+     * tick count, so they only count down while the computer is being ticked.
+     */
+    private long currentTick;
+
     Environment( Computer computer )
     {
         this.computer = computer;
@@ -215,6 +231,7 @@ public final class Environment implements IAPIEnvironment
         synchronized( timers )
         {
             timers.clear();
+            Arrays.fill( timerWheel, null );
         }
     }
 
@@ -231,19 +248,22 @@ public final class Environment implements IAPIEnvironment
 
         synchronized( timers )
         {
-            // Countdown all of our active timers
-            Iterator<Int2ObjectMap.Entry<Timer>> it = timers.int2ObjectEntrySet().iterator();
-            while( it.hasNext() )
+            long now = ++currentTick;
+            if( timers.isEmpty() ) return;
+
+            // Fire any timers in this tick's bucket which have expired. Other timers in this bucket are for a later
+            // rotation of the wheel.
+            Timer timer = timerWheel[(int) (now & (TIMER_BUCKETS - 1))];
+            while( timer != null )
             {
-                Int2ObjectMap.Entry<Timer> entry = it.next();
-                Timer timer = entry.getValue();
-                timer.ticksLeft--;
-                if( timer.ticksLeft <= 0 )
+                Timer next = timer.next;
+                if( timer.expiry <= now )
                 {
-                    // Queue the "timer" event
-                    queueEvent( TIMER_EVENT, entry.getIntKey() );
-                    it.remove();
+                    unlinkTimer( timer );
+                    timers.remove( timer.id );
+                    queueEvent( TIMER_EVENT, timer.id );
                 }
+                timer = next;
             }
         }
     }
@@ -345,8 +365,18 @@ public final class Environment implements IAPIEnvironment
     {
         synchronized( timers )
         {
-            timers.put( nextTimerToken, new Timer( ticks ) );
-            return nextTimerToken++;
+            // Timers always fire on a later tick, even if they have a delay of 0.
+            int id = nextTimerToken++;
+            Timer timer = new Timer( id, currentTick + Math.max( Math.min( ticks, Long.MAX_VALUE / 2 ), 1 ) );
+            timers.put( id, timer );
+
+            int bucket = (int) (timer.expiry & (TIMER_BUCKETS - 1));
+            Timer head = timerWheel[bucket];
+            timer.next = head;
+            if( head != null ) head.previous = timer;
+            timerWheel[bucket] = timer;
+
+            return id;
         }
     }
 
@@ -355,10 +385,26 @@ public final class Environment implements IAPIEnvironment
     {
         synchronized( timers )
         {
-            timers.remove( id );
+            Timer timer = timers.remove( id );
+            if( timer != null ) unlinkTimer( timer );
         }
     }
 
+    private void unlinkTimer( Timer timer )
+    {
+        if( timer.previous == null )
+        {
+            timerWheel[(int) (timer.expiry & (TIMER_BUCKETS - 1))] = timer.next;
+        }
+        else
+        {
+            timer.previous.next = timer.next;
+        }
+
+        if( timer.next != null ) timer.next.previous = timer.previous;
+        timer.previous = timer.next = null;
+    }
+
     @Override
     public void addTrackingChange( @Nonnull TrackingField field, long change )
     {
@@ -367,11 +413,18 @@ public final class Environment implements IAPIEnvironment
 
     private static class Timer
     {
-        long ticksLeft;
+        final int id;
+        final long expiry;
+
+        /**
+         * The neighbouring timers in this timer's bucket of {@link #timerWheel}.
+         */
+        Timer previous, next;
 
-        Timer( long ticksLeft )
+        Timer( int id, long expiry )
         {
-            this.ticksLeft = ticksLeft;
+            this.id = id;
+            this.expiry = expiry;
         }
     }
 }
@@ -120,6 +120,16 @@ public final class MainThread
         return canExecute;
     }
 
+    /**
+     * Whether there is any time left in this tick's budget.
+     *
+     * @return If the budget has not been exhausted.
+     */
+    static boolean hasBudget()
+    {
+        return budget > 0;
+    }
+
     static int currentTick()
     {
         return currentTick;
@@ -176,7 +176,7 @@ final class MainThreadExecutor implements IWorkMonitor
     @Override
     public boolean shouldWork()
     {
-        return state == State.COOL && MainThread.canExecute();
+        return state == State.COOL && MainThread.canExecute() && MainThread.hasBudget();
     }
 
     @Override
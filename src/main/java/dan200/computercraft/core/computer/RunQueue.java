@@ -0,0 +1,151 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.Comparator;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A queue of {@link ComputerExecutor}s, ordered by their {@link ComputerExecutor#virtualRuntime}.
+ *
+ * When the {@link ComputerThread} is running in work-stealing mode, each runner owns one of these queues. Runners push
+ * executors onto their own queue, and only touch other queues when those have fallen further behind. As each queue has
+ * its own lock, runners rarely contend with each other.
+ *
+ * @see ComputerThread
+ */
+final class RunQueue
+{
+    /**
+     * Orders executors by their virtual runtime, falling back to their hash code when two executors have the same
+     * runtime.
+     */
+    static final Comparator<ComputerExecutor> ORDER = ( a, b ) -> {
+        if( a == b ) return 0; // Should never happen, but let's be consistent here
+
+        long at = a.virtualRuntime, bt = b.virtualRuntime;
+        if( at == bt ) return Integer.compare( a.hashCode(), b.hashCode() );
+        return at < bt ? -1 : 1;
+    };
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final TreeSet<ComputerExecutor> queue = new TreeSet<>( ORDER );
+
+    /**
+     * The virtual runtime of the first executor in this queue, or {@link Long#MAX_VALUE} if the queue is empty.
+     *
+     * This may be read without holding the lock, and so should only be treated as an estimate.
+     */
+    private volatile long headRuntime = Long.MAX_VALUE;
+
+    void offer( @Nonnull ComputerExecutor executor )
+    {
+        lock.lock();
+        try
+        {
+            queue.add( executor );
+            headRuntime = queue.first().virtualRuntime;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    ComputerExecutor poll()
+    {
+        lock.lock();
+        try
+        {
+            ComputerExecutor executor = queue.pollFirst();
+            headRuntime = queue.isEmpty() ? Long.MAX_VALUE : queue.first().virtualRuntime;
+            return executor;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    void clear()
+    {
+        lock.lock();
+        try
+        {
+            queue.clear();
+            headRuntime = Long.MAX_VALUE;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    long headRuntime()
+    {
+        return headRuntime;
+    }
+
+    /**
+     * Find the next executor which the runner owning {@code queues[self]} should execute.
+     *
+     * We prefer to take from our own queue, but will steal the head of another runner's queue if it is further behind
+     * than our own by more than {@code slack}. This keeps the global ordering approximately the same as a single
+     * shared queue, while keeping computers on the same runner in the common case.
+     *
+     * @param queues All runner queues.
+     * @param self   The index of the current runner's queue.
+     * @param slack  How far behind another queue must be before we steal from it, in nanoseconds.
+     * @return The executor to run, or {@code null} if every queue is empty.
+     */
+    @Nullable
+    static ComputerExecutor next( @Nonnull RunQueue[] queues, int self, long slack )
+    {
+        RunQueue own = queues[self];
+
+        // Find the queue whose head is furthest behind.
+        long ownRuntime = own.headRuntime;
+        RunQueue victim = null;
+        long victimRuntime = ownRuntime == Long.MAX_VALUE ? Long.MAX_VALUE : ownRuntime - slack;
+        for( RunQueue queue : queues )
+        {
+            if( queue == own ) continue;
+
+            long runtime = queue.headRuntime;
+            if( runtime < victimRuntime )
+            {
+                victim = queue;
+                victimRuntime = runtime;
+            }
+        }
+
+        if( victim != null )
+        {
+            ComputerExecutor executor = victim.poll();
+            if( executor != null ) return executor;
+        }
+
+        ComputerExecutor executor = own.headRuntime == Long.MAX_VALUE ? null : own.poll();
+        if( executor != null ) return executor;
+
+        // Another runner may have emptied the queue we tried to steal from, so sweep everyone else's queues. We skip
+        // empty queues without taking their lock, as an idle runner will be woken when work is next pushed.
+        for( int i = 1; i < queues.length; i++ )
+        {
+            RunQueue queue = queues[(self + i) % queues.length];
+            if( queue.headRuntime == Long.MAX_VALUE ) continue;
+
+            executor = queue.poll();
+            if( executor != null ) return executor;
+        }
+
+        return null;
+    }
+}
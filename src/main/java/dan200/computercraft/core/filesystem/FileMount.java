@@ -22,9 +22,24 @@ import java.util.List;
 import java.util.OptionalLong;
 import java.util.Set;
 
+/**
+ * A writable mount backed by a directory on disk.
+ *
+ * Measuring how much space a mount uses requires walking the whole directory, which can be slow for mounts containing
+ * many files. Instead, we store the used space in an index file alongside the mount's directory (for instance,
+ * {@code computer/0.size} for {@code computer/0}), and update it as files are written and deleted.
+ *
+ * The index also stores the directory's modification time. Before a write starts, the index is marked as dirty, and it
+ * is only marked as clean again once all writes have finished. If the index is missing, dirty (say, the server crashed
+ * while a file was open), or the directory has been modified elsewhere, we fall back to walking the directory.
+ */
 public class FileMount implements IWritableMount
 {
     private static final int MINIMUM_FILE_SIZE = 500;
+
+    private static final int INDEX_MAGIC = 0x43435553; // "CCUS"
+    private static final int INDEX_VERSION = 1;
+    private static final int INDEX_LENGTH = 4 + 4 + 8 + 8 + 1;
     private static final Set<OpenOption> READ_OPTIONS = Collections.singleton( StandardOpenOption.READ );
     private static final Set<OpenOption> WRITE_OPTIONS = Sets.newHashSet( StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING );
     private static final Set<OpenOption> APPEND_OPTIONS = Sets.newHashSet( StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.APPEND );
@@ -34,11 +49,13 @@ public class FileMount implements IWritableMount
 
         private final WritableByteChannel inner;
         long ignoredBytesLeft;
+        private boolean closed;
 
         WritableCountingChannel( WritableByteChannel inner, long bytesToIgnore )
         {
             this.inner = inner;
             ignoredBytesLeft = bytesToIgnore;
+            openWriters++;
         }
 
         @Override
@@ -71,7 +88,19 @@ public class FileMount implements IWritableMount
         @Override
         public void close() throws IOException
         {
-            inner.close();
+            try
+            {
+                inner.close();
+            }
+            finally
+            {
+                if( !closed )
+                {
+                    closed = true;
+                    openWriters--;
+                    markClean();
+                }
+            }
         }
     }
 
@@ -134,14 +163,29 @@ public class FileMount implements IWritableMount
     }
 
     private final File rootPath;
+    private final File indexPath;
     private final long capacity;
     private long usedSpace;
 
+    /**
+     * The number of channels currently open for writing.
+     */
+    private int openWriters;
+
+    /**
+     * Whether the index on disk is marked as dirty.
+     */
+    private boolean indexDirty;
+
     public FileMount( File rootPath, long capacity )
     {
         this.rootPath = rootPath;
         this.capacity = capacity + MINIMUM_FILE_SIZE;
-        usedSpace = created() ? measureUsedSpace( this.rootPath ) : MINIMUM_FILE_SIZE;
+
+        File parent = rootPath.getAbsoluteFile().getParentFile();
+        indexPath = parent == null ? null : new File( parent, rootPath.getName() + ".size" );
+
+        usedSpace = created() ? loadUsedSpace() : MINIMUM_FILE_SIZE;
     }
 
     // IMount implementation
@@ -251,13 +295,21 @@ public class FileMount implements IWritableMount
             throw new FileOperationException( path, "Out of space" );
         }
 
-        if( file.mkdirs() )
+        markDirty();
+        try
         {
-            usedSpace += dirsToCreate * MINIMUM_FILE_SIZE;
+            if( file.mkdirs() )
+            {
+                usedSpace += dirsToCreate * MINIMUM_FILE_SIZE;
+            }
+            else
+            {
+                throw new FileOperationException( path, "Access denied" );
+            }
         }
-        else
+        finally
         {
-            throw new FileOperationException( path, "Access denied" );
+            markClean();
         }
     }
 
@@ -269,7 +321,17 @@ public class FileMount implements IWritableMount
         if( created() )
         {
             File file = getRealPath( path );
-            if( file.exists() ) deleteRecursively( file );
+            if( !file.exists() ) return;
+
+            markDirty();
+            try
+            {
+                deleteRecursively( file );
+            }
+            finally
+            {
+                markClean();
+            }
         }
     }
 
@@ -306,17 +368,24 @@ public class FileMount implements IWritableMount
         File file = getRealPath( path );
         if( file.exists() && file.isDirectory() ) throw new FileOperationException( path, "Cannot write to directory" );
 
-        if( file.exists() )
-        {
-            usedSpace -= Math.max( file.length(), MINIMUM_FILE_SIZE );
-        }
-        else if( getRemainingSpace() < MINIMUM_FILE_SIZE )
+        if( !file.exists() && getRemainingSpace() < MINIMUM_FILE_SIZE )
         {
             throw new FileOperationException( path, "Out of space" );
         }
-        usedSpace += MINIMUM_FILE_SIZE;
 
-        return new SeekableCountingChannel( Files.newByteChannel( file.toPath(), WRITE_OPTIONS ), MINIMUM_FILE_SIZE );
+        // The channel marks the index as clean once it is closed. If we fail to open it, we do so immediately.
+        markDirty();
+        try
+        {
+            if( file.exists() ) usedSpace -= Math.max( file.length(), MINIMUM_FILE_SIZE );
+            usedSpace += MINIMUM_FILE_SIZE;
+
+            return new SeekableCountingChannel( Files.newByteChannel( file.toPath(), WRITE_OPTIONS ), MINIMUM_FILE_SIZE );
+        }
+        finally
+        {
+            markClean();
+        }
     }
 
     @Nonnull
@@ -332,11 +401,19 @@ public class FileMount implements IWritableMount
         if( !file.exists() ) throw new FileOperationException( path, "No such file" );
         if( file.isDirectory() ) throw new FileOperationException( path, "Cannot write to directory" );
 
-        // Allowing seeking when appending is not recommended, so we use a separate channel.
-        return new WritableCountingChannel(
-            Files.newByteChannel( file.toPath(), APPEND_OPTIONS ),
-            Math.max( MINIMUM_FILE_SIZE - file.length(), 0 )
-        );
+        markDirty();
+        try
+        {
+            // Allowing seeking when appending is not recommended, so we use a separate channel.
+            return new WritableCountingChannel(
+                Files.newByteChannel( file.toPath(), APPEND_OPTIONS ),
+                Math.max( MINIMUM_FILE_SIZE - file.length(), 0 )
+            );
+        }
+        finally
+        {
+            markClean();
+        }
     }
 
     @Override
@@ -374,6 +451,85 @@ public class FileMount implements IWritableMount
         }
     }
 
+    private long loadUsedSpace()
+    {
+        if( indexPath != null && indexPath.isFile() )
+        {
+            try
+            {
+                ByteBuffer index = ByteBuffer.wrap( Files.readAllBytes( indexPath.toPath() ) );
+                if( index.remaining() == INDEX_LENGTH && index.getInt() == INDEX_MAGIC && index.getInt() == INDEX_VERSION )
+                {
+                    long size = index.getLong();
+                    long modified = index.getLong();
+                    boolean dirty = index.get() != 0;
+                    if( !dirty && modified == rootPath.lastModified() && size >= MINIMUM_FILE_SIZE ) return size;
+                }
+            }
+            catch( IOException e )
+            {
+                ComputerCraft.log.warn( "Cannot read used space index '{}'", indexPath, e );
+            }
+        }
+
+        long size = measureUsedSpace( rootPath );
+        writeIndex( size, false );
+        return size;
+    }
+
+    /**
+     * Mark the index as dirty before modifying this mount. If the server stops before {@link #markClean()} is called,
+     * the index will be ignored the next time this mount is created.
+     */
+    private void markDirty()
+    {
+        if( indexDirty ) return;
+        indexDirty = true;
+        writeIndex( usedSpace, true );
+    }
+
+    /**
+     * Write the current used space to the index, once there are no more pending writes.
+     */
+    private void markClean()
+    {
+        if( !indexDirty || openWriters > 0 ) return;
+        indexDirty = false;
+        writeIndex( usedSpace, false );
+    }
+
+    private void writeIndex( long size, boolean dirty )
+    {
+        if( indexPath == null ) return;
+
+        ByteBuffer index = ByteBuffer.allocate( INDEX_LENGTH );
+        index.putInt( INDEX_MAGIC ).putInt( INDEX_VERSION ).putLong( size ).putLong( rootPath.lastModified() ).put( (byte) (dirty ? 1 : 0) );
+
+        Path indexFile = indexPath.toPath();
+        Path tempFile = indexFile.resolveSibling( indexPath.getName() + ".tmp" );
+        try
+        {
+            Files.write( tempFile, index.array() );
+            try
+            {
+                Files.move( tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+            }
+            catch( AtomicMoveNotSupportedException e )
+            {
+                Files.move( tempFile, indexFile, StandardCopyOption.REPLACE_EXISTING );
+            }
+        }
+        catch( IOException e )
+        {
+            // A stale index is worse than no index at all, so remove it and walk the directory next time.
+            ComputerCraft.log.error( "Cannot update used space index '{}'", indexPath, e );
+            if( !indexPath.delete() && indexPath.exists() )
+            {
+                ComputerCraft.log.error( "Cannot delete used space index '{}'", indexPath );
+            }
+        }
+    }
+
     private static class Visitor extends SimpleFileVisitor<Path>
     {
         long size;
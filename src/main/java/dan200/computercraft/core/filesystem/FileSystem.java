@@ -13,6 +13,7 @@ import dan200.computercraft.api.filesystem.IWritableMount;
 import dan200.computercraft.shared.util.IoUtil;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import java.io.Closeable;
 import java.io.IOException;
 import java.lang.ref.Reference;
@@ -24,6 +25,8 @@ import java.nio.channels.WritableByteChannel;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
@@ -40,6 +43,18 @@ public class FileSystem
     private final FileSystemWrapperMount wrapper = new FileSystemWrapperMount( this );
     private final Map<String, MountWrapper> mounts = new HashMap<>();
 
+    /**
+     * A trie of {@link #mounts}, used to find the mount for a path without checking every mount. This is keyed by
+     * lower-cased path segments, as mount locations are case insensitive.
+     */
+    private MountNode mountTree = new MountNode();
+
+    /**
+     * Guards {@link #mounts} and {@link #mountTree}. Operations which modify a mount (writing, deleting, etc...) also
+     * take the write lock, so mounts only need to support concurrent reads.
+     */
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
     private final HashMap<WeakReference<FileSystemWrapper<?>>, ChannelWrapper<?>> openFiles = new HashMap<>();
     private final ReferenceQueue<FileSystemWrapper<?>> openFileQueue = new ReferenceQueue<>();
 
@@ -64,7 +79,7 @@ public class FileSystem
         }
     }
 
-    public synchronized void mount( String label, String location, IMount mount ) throws FileSystemException
+    public void mount( String label, String location, IMount mount ) throws FileSystemException
     {
         if( mount == null ) throw new NullPointerException();
         location = sanitizePath( location );
@@ -72,7 +87,7 @@ public class FileSystem
         mount( new MountWrapper( label, location, mount ) );
     }
 
-    public synchronized void mountWritable( String label, String location, IWritableMount mount ) throws FileSystemException
+    public void mountWritable( String label, String location, IWritableMount mount ) throws FileSystemException
     {
         if( mount == null )
         {
@@ -86,17 +101,40 @@ public class FileSystem
         mount( new MountWrapper( label, location, mount ) );
     }
 
-    private synchronized void mount( MountWrapper wrapper )
+    private void mount( MountWrapper wrapper )
     {
-        String location = wrapper.getLocation();
-        mounts.remove( location );
-        mounts.put( location, wrapper );
+        lock.writeLock().lock();
+        try
+        {
+            String location = wrapper.getLocation();
+            mounts.remove( location );
+            mounts.put( location, wrapper );
+            mountTree.add( wrapper );
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
     }
 
-    public synchronized void unmount( String path )
+    public void unmount( String path )
     {
-        MountWrapper mount = mounts.remove( sanitizePath( path ) );
-        if( mount == null ) return;
+        MountWrapper mount;
+        lock.writeLock().lock();
+        try
+        {
+            mount = mounts.remove( sanitizePath( path ) );
+            if( mount == null ) return;
+
+            // Unmounting is rare, so just rebuild the whole tree.
+            MountNode tree = new MountNode();
+            for( MountWrapper other : mounts.values() ) tree.add( other );
+            mountTree = tree;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
 
         cleanup();
 
@@ -167,33 +205,64 @@ public class FileSystem
         return lastSlash >= 0 ? path.substring( lastSlash + 1 ) : path;
     }
 
-    public synchronized long getSize( String path ) throws FileSystemException
+    public long getSize( String path ) throws FileSystemException
     {
-        return getMount( sanitizePath( path ) ).getSize( sanitizePath( path ) );
+        path = sanitizePath( path );
+        lock.readLock().lock();
+        try
+        {
+            return getMount( path ).getSize( path );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized BasicFileAttributes getAttributes( String path ) throws FileSystemException
+    public BasicFileAttributes getAttributes( String path ) throws FileSystemException
     {
-        return getMount( sanitizePath( path ) ).getAttributes( sanitizePath( path ) );
+        path = sanitizePath( path );
+        lock.readLock().lock();
+        try
+        {
+            return getMount( path ).getAttributes( path );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized String[] list( String path ) throws FileSystemException
+    public String[] list( String path ) throws FileSystemException
     {
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
 
         // Gets a list of the files in the mount
         List<String> list = new ArrayList<>();
-        mount.list( path, list );
-
-        // Add any mounts that are mounted at this location
-        for( MountWrapper otherMount : mounts.values() )
+        lock.readLock().lock();
+        try
         {
-            if( getDirectory( otherMount.getLocation() ).equals( path ) )
+            MountWrapper mount = getMount( path );
+            mount.list( path, list );
+
+            // Add any mounts that are mounted at this location
+            MountNode node = mountTree.find( path );
+            if( node != null )
             {
-                list.add( getName( otherMount.getLocation() ) );
+                for( MountNode child : node.children.values() )
+                {
+                    MountWrapper otherMount = child.mount;
+                    if( otherMount != null && getDirectory( otherMount.getLocation() ).equals( path ) )
+                    {
+                        list.add( getName( otherMount.getLocation() ) );
+                    }
+                }
             }
         }
+        finally
+        {
+            lock.readLock().unlock();
+        }
 
         // Return list
         String[] array = new String[list.size()];
@@ -219,7 +288,7 @@ public class FileSystem
         }
     }
 
-    public synchronized String[] find( String wildPath ) throws FileSystemException
+    public String[] find( String wildPath ) throws FileSystemException
     {
         // Match all the files on the system
         wildPath = sanitizePath( wildPath, true );
@@ -235,13 +304,22 @@ public class FileSystem
         int prevDir = wildPath.substring( 0, starIndex ).lastIndexOf( '/' );
         String startDir = prevDir == -1 ? "" : wildPath.substring( 0, prevDir );
 
-        // If this isn't a directory then just abort
-        if( !isDir( startDir ) ) return new String[0];
-
         // Scan as normal, starting from this directory
         Pattern wildPattern = Pattern.compile( "^\\Q" + wildPath.replaceAll( "\\*", "\\\\E[^\\\\/]*\\\\Q" ) + "\\E$" );
         List<String> matches = new ArrayList<>();
-        findIn( startDir, matches, wildPattern );
+
+        lock.readLock().lock();
+        try
+        {
+            // If this isn't a directory then just abort
+            if( !isDir( startDir ) ) return new String[0];
+
+            findIn( startDir, matches, wildPattern );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
 
         // Return matches
         String[] array = new String[matches.size()];
@@ -249,96 +327,162 @@ public class FileSystem
         return array;
     }
 
-    public synchronized boolean exists( String path ) throws FileSystemException
+    public boolean exists( String path ) throws FileSystemException
     {
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.exists( path );
+        lock.readLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            return mount.exists( path );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized boolean isDir( String path ) throws FileSystemException
+    public boolean isDir( String path ) throws FileSystemException
     {
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.isDirectory( path );
+        lock.readLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            return mount.isDirectory( path );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized boolean isReadOnly( String path ) throws FileSystemException
+    public boolean isReadOnly( String path ) throws FileSystemException
     {
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.isReadOnly( path );
+        lock.readLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            return mount.isReadOnly( path );
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized String getMountLabel( String path ) throws FileSystemException
+    public String getMountLabel( String path ) throws FileSystemException
     {
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.getLabel();
+        lock.readLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            return mount.getLabel();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized void makeDir( String path ) throws FileSystemException
+    public void makeDir( String path ) throws FileSystemException
     {
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        mount.makeDirectory( path );
+        lock.writeLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            mount.makeDirectory( path );
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
     }
 
-    public synchronized void delete( String path ) throws FileSystemException
+    public void delete( String path ) throws FileSystemException
     {
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        mount.delete( path );
+        lock.writeLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            mount.delete( path );
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
     }
 
-    public synchronized void move( String sourcePath, String destPath ) throws FileSystemException
+    public void move( String sourcePath, String destPath ) throws FileSystemException
     {
         sourcePath = sanitizePath( sourcePath );
         destPath = sanitizePath( destPath );
-        if( isReadOnly( sourcePath ) || isReadOnly( destPath ) )
-        {
-            throw new FileSystemException( "Access denied" );
-        }
-        if( !exists( sourcePath ) )
-        {
-            throw new FileSystemException( "No such file" );
-        }
-        if( exists( destPath ) )
+
+        lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "File exists" );
+            if( isReadOnly( sourcePath ) || isReadOnly( destPath ) )
+            {
+                throw new FileSystemException( "Access denied" );
+            }
+            if( !exists( sourcePath ) )
+            {
+                throw new FileSystemException( "No such file" );
+            }
+            if( exists( destPath ) )
+            {
+                throw new FileSystemException( "File exists" );
+            }
+            if( contains( sourcePath, destPath ) )
+            {
+                throw new FileSystemException( "Can't move a directory inside itself" );
+            }
+            copy( sourcePath, destPath );
+            delete( sourcePath );
         }
-        if( contains( sourcePath, destPath ) )
+        finally
         {
-            throw new FileSystemException( "Can't move a directory inside itself" );
+            lock.writeLock().unlock();
         }
-        copy( sourcePath, destPath );
-        delete( sourcePath );
     }
 
-    public synchronized void copy( String sourcePath, String destPath ) throws FileSystemException
+    public void copy( String sourcePath, String destPath ) throws FileSystemException
     {
         sourcePath = sanitizePath( sourcePath );
         destPath = sanitizePath( destPath );
-        if( isReadOnly( destPath ) )
-        {
-            throw new FileSystemException( "/" + destPath + ": Access denied" );
-        }
-        if( !exists( sourcePath ) )
-        {
-            throw new FileSystemException( "/" + sourcePath + ": No such file" );
-        }
-        if( exists( destPath ) )
+
+        lock.writeLock().lock();
+        try
         {
-            throw new FileSystemException( "/" + destPath + ": File exists" );
+            if( isReadOnly( destPath ) )
+            {
+                throw new FileSystemException( "/" + destPath + ": Access denied" );
+            }
+            if( !exists( sourcePath ) )
+            {
+                throw new FileSystemException( "/" + sourcePath + ": No such file" );
+            }
+            if( exists( destPath ) )
+            {
+                throw new FileSystemException( "/" + destPath + ": File exists" );
+            }
+            if( contains( sourcePath, destPath ) )
+            {
+                throw new FileSystemException( "/" + sourcePath + ": Can't copy a directory inside itself" );
+            }
+            copyRecursive( sourcePath, getMount( sourcePath ), destPath, getMount( destPath ), 0 );
         }
-        if( contains( sourcePath, destPath ) )
+        finally
         {
-            throw new FileSystemException( "/" + sourcePath + ": Can't copy a directory inside itself" );
+            lock.writeLock().unlock();
         }
-        copyRecursive( sourcePath, getMount( sourcePath ), destPath, getMount( destPath ), 0 );
     }
 
-    private synchronized void copyRecursive( String sourcePath, MountWrapper sourceMount, String destinationPath, MountWrapper destinationMount, int depth ) throws FileSystemException
+    private void copyRecursive( String sourcePath, MountWrapper sourceMount, String destinationPath, MountWrapper destinationMount, int depth ) throws FileSystemException
     {
         if( !sourceMount.exists( sourcePath ) ) return;
         if( depth >= MAX_COPY_DEPTH ) throw new FileSystemException( "Too many directories to copy" );
@@ -393,7 +537,7 @@ public class FileSystem
         }
     }
 
-    private synchronized <T extends Closeable> FileSystemWrapper<T> openFile( @Nonnull MountWrapper mount, @Nonnull Channel channel, @Nonnull T file ) throws FileSystemException
+    private <T extends Closeable> FileSystemWrapper<T> openFile( @Nonnull MountWrapper mount, @Nonnull Channel channel, @Nonnull T file ) throws FileSystemException
     {
         synchronized( openFiles )
         {
@@ -420,60 +564,83 @@ public class FileSystem
         }
     }
 
-    public synchronized <T extends Closeable> FileSystemWrapper<T> openForRead( String path, Function<ReadableByteChannel, T> open ) throws FileSystemException
+    public <T extends Closeable> FileSystemWrapper<T> openForRead( String path, Function<ReadableByteChannel, T> open ) throws FileSystemException
     {
         cleanup();
 
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        ReadableByteChannel channel = mount.openForRead( path );
-        return channel != null ? openFile( mount, channel, open.apply( channel ) ) : null;
+        lock.readLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            ReadableByteChannel channel = mount.openForRead( path );
+            return channel != null ? openFile( mount, channel, open.apply( channel ) ) : null;
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    public synchronized <T extends Closeable> FileSystemWrapper<T> openForWrite( String path, boolean append, Function<WritableByteChannel, T> open ) throws FileSystemException
+    public <T extends Closeable> FileSystemWrapper<T> openForWrite( String path, boolean append, Function<WritableByteChannel, T> open ) throws FileSystemException
     {
         cleanup();
 
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        WritableByteChannel channel = append ? mount.openForAppend( path ) : mount.openForWrite( path );
-        return channel != null ? openFile( mount, channel, open.apply( channel ) ) : null;
+        lock.writeLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            WritableByteChannel channel = append ? mount.openForAppend( path ) : mount.openForWrite( path );
+            return channel != null ? openFile( mount, channel, open.apply( channel ) ) : null;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
     }
 
-    public synchronized long getFreeSpace( String path ) throws FileSystemException
+    public long getFreeSpace( String path ) throws FileSystemException
     {
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.getFreeSpace();
+        lock.readLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            return mount.getFreeSpace();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
     @Nonnull
-    public synchronized OptionalLong getCapacity( String path ) throws FileSystemException
+    public OptionalLong getCapacity( String path ) throws FileSystemException
     {
         path = sanitizePath( path );
-        MountWrapper mount = getMount( path );
-        return mount.getCapacity();
+        lock.readLock().lock();
+        try
+        {
+            MountWrapper mount = getMount( path );
+            return mount.getCapacity();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
     }
 
-    private synchronized MountWrapper getMount( String path ) throws FileSystemException
+    /**
+     * Find the deepest mount which contains the given path. This should be called with {@link #lock} held.
+     *
+     * @param path The sanitised path to look up.
+     * @return The mount containing this path.
+     * @throws FileSystemException If no mount contains this path.
+     */
+    private MountWrapper getMount( String path ) throws FileSystemException
     {
-        // Return the deepest mount that contains a given path
-        Iterator<MountWrapper> it = mounts.values().iterator();
-        MountWrapper match = null;
-        int matchLength = 999;
-        while( it.hasNext() )
-        {
-            MountWrapper mount = it.next();
-            if( contains( mount.getLocation(), path ) )
-            {
-                int len = toLocal( path, mount.getLocation() ).length();
-                if( match == null || len < matchLength )
-                {
-                    match = mount;
-                    matchLength = len;
-                }
-            }
-        }
+        MountWrapper match = mountTree.getMount( path );
         if( match == null )
         {
             throw new FileSystemException( "/" + path + ": Invalid Path" );
@@ -493,16 +660,19 @@ public class FileSystem
 
     private static final Pattern threeDotsPattern = Pattern.compile( "^\\.{3,}$" );
 
+    private static final char[] specialChars = new char[] {
+        '"', ':', '<', '>', '?', '|', // Sorted by ascii value (important)
+    };
+
     public static String sanitizePath( String path, boolean allowWildcards )
     {
+        // Most paths are already sanitised (for instance, ones we've sanitised before), so avoid rebuilding them.
+        if( isSanitized( path, allowWildcards ) ) return path;
+
         // Allow windowsy slashes
         path = path.replace( '\\', '/' );
 
         // Clean the path or illegal characters.
-        final char[] specialChars = new char[] {
-            '"', ':', '<', '>', '?', '|', // Sorted by ascii value (important)
-        };
-
         StringBuilder cleanName = new StringBuilder();
         for( int i = 0; i < path.length(); i++ )
         {
@@ -574,6 +744,40 @@ public class FileSystem
         return result.toString();
     }
 
+    /**
+     * Determine if {@link #sanitizePath(String, boolean)} would leave this path unchanged. This is conservative, and
+     * will return {@code false} for some paths (such as those starting with {@code ..}) which are already sanitised.
+     *
+     * @param path           The path to check.
+     * @param allowWildcards Whether wildcards are allowed.
+     * @return If this path is already sanitised.
+     */
+    private static boolean isSanitized( String path, boolean allowWildcards )
+    {
+        if( path.isEmpty() ) return true;
+
+        int partStart = 0;
+        boolean onlyDots = true;
+        for( int i = 0; i < path.length(); i++ )
+        {
+            char c = path.charAt( i );
+            if( c == '/' )
+            {
+                // Reject empty segments and ones consisting only of dots (".", "..", "...", etc...).
+                if( onlyDots ) return false;
+                partStart = i + 1;
+                onlyDots = true;
+                continue;
+            }
+
+            if( c < 32 || c == '\\' || (c == '*' && !allowWildcards) || Arrays.binarySearch( specialChars, c ) >= 0 ) return false;
+            if( c != '.' ) onlyDots = false;
+            if( i - partStart >= 254 ) return false;
+        }
+
+        return !onlyDots;
+    }
+
     public static boolean contains( String pathA, String pathB )
     {
         pathA = sanitizePath( pathA ).toLowerCase( Locale.ROOT );
@@ -617,4 +821,74 @@ public class FileSystem
             return local;
         }
     }
+
+    /**
+     * A node in the tree of mounts, with one level for each segment of a mount's location.
+     */
+    private static final class MountNode
+    {
+        final Map<String, MountNode> children = new HashMap<>( 4 );
+        MountWrapper mount;
+
+        void add( MountWrapper wrapper )
+        {
+            String location = wrapper.getLocation().toLowerCase( Locale.ROOT );
+            MountNode node = this;
+            if( !location.isEmpty() )
+            {
+                for( String part : location.split( "/" ) ) node = node.children.computeIfAbsent( part, x -> new MountNode() );
+            }
+            node.mount = wrapper;
+        }
+
+        /**
+         * Find the node for a given path.
+         *
+         * @param path The sanitised path to look up.
+         * @return The node for this path, or {@code null} if no mounts are at or below it.
+         */
+        @Nullable
+        MountNode find( String path )
+        {
+            path = path.toLowerCase( Locale.ROOT );
+            MountNode node = this;
+            int start = 0;
+            while( node != null && start < path.length() )
+            {
+                int end = path.indexOf( '/', start );
+                if( end < 0 ) end = path.length();
+                node = node.children.get( path.substring( start, end ) );
+                start = end + 1;
+            }
+            return node;
+        }
+
+        /**
+         * Find the deepest mount which contains a given path.
+         *
+         * @param path The sanitised path to look up.
+         * @return The mount containing this path, or {@code null} if there is none.
+         */
+        @Nullable
+        MountWrapper getMount( String path )
+        {
+            // Paths above the root are never part of a mount.
+            if( path.equals( ".." ) || path.startsWith( "../" ) ) return null;
+
+            path = path.toLowerCase( Locale.ROOT );
+            MountNode node = this;
+            MountWrapper match = mount;
+            int start = 0;
+            while( start < path.length() )
+            {
+                int end = path.indexOf( '/', start );
+                if( end < 0 ) end = path.length();
+                node = node.children.get( path.substring( start, end ) );
+                if( node == null ) break;
+                if( node.mount != null ) match = node.mount;
+                start = end + 1;
+            }
+            return match;
+        }
+    }
 }
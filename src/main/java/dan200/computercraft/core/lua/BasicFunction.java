@@ -10,6 +10,7 @@ import dan200.computercraft.api.lua.IArguments;
 import dan200.computercraft.api.lua.ILuaContext;
 import dan200.computercraft.api.lua.LuaException;
 import dan200.computercraft.api.lua.MethodResult;
+import dan200.computercraft.core.asm.DirectLuaMethod;
 import dan200.computercraft.core.asm.LuaMethod;
 import org.squiddev.cobalt.LuaError;
 import org.squiddev.cobalt.LuaState;
@@ -19,12 +20,14 @@ import org.squiddev.cobalt.function.VarArgFunction;
 /**
  * An "optimised" version of {@link ResultInterpreterFunction} which is guaranteed to never yield.
  *
- * As we never yield, we do not need to push a function to the stack, which removes a small amount of overhead.
+ * As we never yield, we do not need to push a function to the stack, which removes a small amount of overhead. If the
+ * method is a {@link DirectLuaMethod}, we also skip converting the result via a {@link MethodResult}.
  */
 class BasicFunction extends VarArgFunction
 {
     private final CobaltLuaMachine machine;
     private final LuaMethod method;
+    private final DirectLuaMethod direct;
     private final Object instance;
     private final ILuaContext context;
     private final String name;
@@ -33,6 +36,7 @@ class BasicFunction extends VarArgFunction
     {
         this.machine = machine;
         this.method = method;
+        this.direct = method instanceof DirectLuaMethod ? (DirectLuaMethod) method : null;
         this.instance = instance;
         this.context = context;
         this.name = name;
@@ -45,6 +49,7 @@ class BasicFunction extends VarArgFunction
         MethodResult results;
         try
         {
+            if( direct != null ) return direct.applyDirect( instance, context, arguments );
             results = method.apply( instance, context, arguments );
         }
         catch( LuaException e )
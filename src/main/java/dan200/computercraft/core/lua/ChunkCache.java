@@ -0,0 +1,222 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import org.squiddev.cobalt.*;
+import org.squiddev.cobalt.compiler.CompileException;
+import org.squiddev.cobalt.compiler.LuaC;
+import org.squiddev.cobalt.function.LuaFunction;
+import org.squiddev.cobalt.function.LuaInterpretedFunction;
+import org.squiddev.cobalt.function.VarArgFunction;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * A cache of compiled Lua chunks, shared between all computers.
+ *
+ * Every computer loads the same bios, ROM APIs and programs when it boots. Compiling these is relatively expensive, so
+ * we instead compile each chunk once and share the resulting {@link Prototype}. Prototypes are never modified once
+ * compiled, and so are safe to use from multiple {@link org.squiddev.cobalt.LuaState}s.
+ *
+ * Chunks are keyed by their name, length and a SHA-256 hash of their contents, so we never need to keep a copy of the
+ * source around. Most chunks are only loaded once (for instance, a program on a computer's own drive, or
+ * {@code textutils.unserialize}), so we only cache a chunk once we've seen it loaded a second time. In practice, this
+ * means we mostly cache files from read-only mounts (the ROM and treasure disks), which are shared between computers.
+ *
+ * However, nothing stops a player from loading their own programs repeatedly. The cache is therefore bounded by an
+ * estimate of how much memory each compiled {@link Prototype} uses, rather than the size of its source.
+ */
+final class ChunkCache
+{
+    /**
+     * The maximum estimated size (in bytes) of compiled chunks to keep.
+     */
+    private static final int MAX_SIZE = 16 << 20;
+
+    private static final Cache<Key, Prototype> chunks = CacheBuilder.newBuilder()
+        .maximumWeight( MAX_SIZE )
+        .weigher( ( Key key, Prototype value ) -> key.size() + size( value ) )
+        .build();
+
+    /**
+     * The chunks we have seen once, but have not yet cached.
+     */
+    private static final Cache<Key, Boolean> seen = CacheBuilder.newBuilder()
+        .maximumSize( 4096 )
+        .build();
+
+    private ChunkCache()
+    {
+    }
+
+    /**
+     * Compile a chunk, or fetch a previously compiled one.
+     *
+     * @param name     The name of this chunk.
+     * @param contents The chunk's source code.
+     * @param env      The environment to load the chunk with.
+     * @return The loaded function.
+     * @throws CompileException If the chunk could not be compiled.
+     */
+    @Nonnull
+    static LuaFunction load( @Nonnull String name, @Nonnull byte[] contents, @Nonnull LuaTable env ) throws CompileException
+    {
+        Key key = new Key( name, contents, 0, contents.length );
+        try
+        {
+            return bind( chunks.get( key, () -> compile( name, contents, 0, contents.length ) ), env );
+        }
+        catch( ExecutionException e )
+        {
+            if( e.getCause() instanceof CompileException ) throw (CompileException) e.getCause();
+            throw new IllegalStateException( "Error compiling " + name, e.getCause() );
+        }
+    }
+
+    /**
+     * Fetch a compiled chunk if it is in the cache, or if it has been loaded previously.
+     *
+     * @param name     The name of this chunk.
+     * @param contents The chunk's source code.
+     * @param offset   The start of the source code in {@code contents}.
+     * @param length   The length of the source code.
+     * @param env      The environment to load the chunk with.
+     * @return The loaded function, or {@code null} if it is not cached or could not be compiled.
+     */
+    @Nullable
+    static LuaFunction tryLoad( @Nonnull String name, @Nonnull byte[] contents, int offset, int length, @Nonnull LuaTable env )
+    {
+        Key key = new Key( name, contents, offset, length );
+        Prototype prototype = chunks.getIfPresent( key );
+        if( prototype != null ) return bind( prototype, env );
+
+        // Only cache chunks we've seen before, to avoid filling the cache with one-off chunks.
+        if( seen.asMap().putIfAbsent( key, Boolean.TRUE ) == null ) return null;
+
+        try
+        {
+            prototype = chunks.get( key, () -> compile( name, contents, offset, length ) );
+        }
+        catch( ExecutionException e )
+        {
+            // Leave it to the caller to report any compile errors.
+            return null;
+        }
+
+        seen.invalidate( key );
+        return bind( prototype, env );
+    }
+
+    private static Prototype compile( String name, byte[] contents, int offset, int length ) throws CompileException, IOException
+    {
+        return LuaC.compile( new ByteArrayInputStream( contents, offset, length ), name );
+    }
+
+    /**
+     * Estimate how much memory a compiled chunk uses. This does not need to be exact, but should be proportional to the
+     * real size, so that the cache cannot grow much larger than {@link #MAX_SIZE}.
+     *
+     * @param prototype The prototype to measure.
+     * @return The approximate size of this prototype and its children, in bytes.
+     */
+    private static int size( Prototype prototype )
+    {
+        long size = 64 + 4L * prototype.code.length;
+        if( prototype.lineinfo != null ) size += 4L * prototype.lineinfo.length;
+        if( prototype.locvars != null ) size += 32L * prototype.locvars.length;
+        if( prototype.upvalues != null ) size += 8L * prototype.upvalues.length;
+        for( LuaValue constant : prototype.k )
+        {
+            size += constant instanceof LuaString ? 40 + ((LuaString) constant).length : 24;
+        }
+        for( Prototype child : prototype.p ) size += size( child );
+        return (int) Math.min( size, Integer.MAX_VALUE );
+    }
+
+    private static LuaFunction bind( Prototype prototype, LuaTable env )
+    {
+        LuaInterpretedFunction function = new LuaInterpretedFunction( prototype, env );
+        function.nilUpvalues();
+        return function;
+    }
+
+    /**
+     * A wrapper around Lua's {@code load} function, which uses the cache when loading text chunks from files.
+     */
+    static final class LoadFunction extends VarArgFunction
+    {
+        private final LuaFunction load;
+
+        LoadFunction( LuaFunction load )
+        {
+            this.load = load;
+        }
+
+        @Override
+        public Varargs invoke( LuaState state, Varargs args ) throws LuaError, UnwindThrowable
+        {
+            // We only handle the common case used by loadfile: a string chunk from a named file, with an explicit
+            // environment. Everything else goes through the normal load function.
+            LuaValue chunk = args.arg( 1 ), name = args.arg( 2 ), mode = args.arg( 3 ), env = args.arg( 4 );
+            if( chunk instanceof LuaBaseString && name instanceof LuaBaseString && env instanceof LuaTable
+                && (mode.isNil() || (mode instanceof LuaBaseString && mode.toString().indexOf( 't' ) >= 0)) )
+            {
+                String chunkName = name.toString();
+                LuaString contents = ((LuaBaseString) chunk).strvalue();
+                if( chunkName.startsWith( "@" ) && contents.length > 0 && contents.bytes[contents.offset] != 27 )
+                {
+                    LuaFunction function = tryLoad( chunkName, contents.bytes, contents.offset, contents.length, (LuaTable) env );
+                    if( function != null ) return function;
+                }
+            }
+
+            return load.invoke( state, args );
+        }
+    }
+
+    private static final class Key
+    {
+        final String name;
+        final int length;
+        final HashCode hash;
+
+        Key( String name, byte[] contents, int offset, int length )
+        {
+            this.name = name;
+            this.length = length;
+            hash = Hashing.sha256().hashBytes( contents, offset, length );
+        }
+
+        int size()
+        {
+            return 96 + 2 * name.length();
+        }
+
+        @Override
+        public boolean equals( Object o )
+        {
+            if( o == this ) return true;
+            if( !(o instanceof Key) ) return false;
+
+            Key other = (Key) o;
+            return length == other.length && name.equals( other.name ) && hash.equals( other.hash );
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hash.asInt();
+        }
+    }
+}
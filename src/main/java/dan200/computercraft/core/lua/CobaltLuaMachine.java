@@ -5,6 +5,7 @@
  */
 package dan200.computercraft.core.lua;
 
+import com.google.common.io.ByteStreams;
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.lua.*;
 import dan200.computercraft.core.asm.LuaMethod;
@@ -14,10 +15,8 @@ import dan200.computercraft.core.computer.MainThread;
 import dan200.computercraft.core.computer.TimeoutState;
 import dan200.computercraft.core.tracking.Tracking;
 import dan200.computercraft.core.tracking.TrackingField;
-import dan200.computercraft.shared.util.ThreadUtils;
 import org.squiddev.cobalt.*;
 import org.squiddev.cobalt.compiler.CompileException;
-import org.squiddev.cobalt.compiler.LoadState;
 import org.squiddev.cobalt.debug.DebugFrame;
 import org.squiddev.cobalt.debug.DebugHandler;
 import org.squiddev.cobalt.debug.DebugState;
@@ -28,11 +27,10 @@ import org.squiddev.cobalt.lib.platform.VoidResourceManipulator;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import java.io.InputStream;
+import java.lang.management.ManagementFactory;
 import java.nio.ByteBuffer;
 import java.util.*;
-import java.util.concurrent.SynchronousQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.Executor;
 
 import static org.squiddev.cobalt.ValueFactory.valueOf;
 import static org.squiddev.cobalt.ValueFactory.varargsOf;
@@ -41,12 +39,18 @@ import static org.squiddev.cobalt.debug.DebugFrame.FLAG_HOOKYIELD;
 
 public class CobaltLuaMachine implements ILuaMachine
 {
-    private static final ThreadPoolExecutor COROUTINES = new ThreadPoolExecutor(
-        0, Integer.MAX_VALUE,
-        5L, TimeUnit.MINUTES,
-        new SynchronousQueue<>(),
-        ThreadUtils.factory( "Coroutine" )
-    );
+    private static final String MEMORY_MESSAGE = "Too much memory allocated without yielding";
+
+    /**
+     * Used to sample how much memory each computer allocates, or {@code null} if the JVM does not support this.
+     */
+    @Nullable
+    private static final com.sun.management.ThreadMXBean THREADS = getThreadBean();
+
+    /**
+     * How many table entries we convert between checking if the computer has been aborted. This must be a power of 2.
+     */
+    private static final int CONVERSION_INTERVAL = 1024;
 
     private static final LuaMethod FUNCTION_METHOD = ( target, context, args ) -> ((ILuaFunction) target).call( args );
 
@@ -58,8 +62,20 @@ public class CobaltLuaMachine implements ILuaMachine
     private LuaState state;
     private LuaTable globals;
 
+    /**
+     * The number of table entries converted by {@link #toValue(Object, Map)}, used to decide when to check our
+     * timeout state.
+     */
+    private int converted;
+
+    /**
+     * The methods for each class which has been passed to Lua. This is only accessed from the computer thread.
+     */
+    private final Map<Class<?>, MethodTable> methodTables = new WeakHashMap<>();
+
     private LuaThread mainRoutine = null;
     private String eventFilter = null;
+    private boolean paused;
 
     public CobaltLuaMachine( Computer computer, TimeoutState timeout )
     {
@@ -68,12 +84,13 @@ public class CobaltLuaMachine implements ILuaMachine
         debug = new TimeoutDebugHandler();
 
         // Create an environment to run in
+        Executor coroutines = CoroutineExecutors.get();
         LuaState state = this.state = LuaState.builder()
             .resourceManipulator( new VoidResourceManipulator() )
             .debug( debug )
             .coroutineExecutor( command -> {
                 Tracking.addValue( this.computer, TrackingField.COROUTINES_CREATED, 1 );
-                COROUTINES.execute( () -> {
+                coroutines.execute( () -> {
                     try
                     {
                         command.run();
@@ -99,6 +116,10 @@ public class CobaltLuaMachine implements ILuaMachine
         globals.load( state, new Utf8Lib() );
         if( ComputerCraft.debugEnable ) globals.load( state, new DebugLib() );
 
+        // Share compiled chunks (such as ROM programs) between computers.
+        LuaValue load = globals.rawget( "load" );
+        if( load instanceof LuaFunction ) globals.rawset( "load", new ChunkCache.LoadFunction( (LuaFunction) load ) );
+
         // Remove globals we don't want to expose
         globals.rawset( "collectgarbage", Constants.NIL );
         globals.rawset( "dofile", Constants.NIL );
@@ -138,7 +159,7 @@ public class CobaltLuaMachine implements ILuaMachine
 
         try
         {
-            LuaFunction value = LoadState.load( state, bios, "@bios.lua", globals );
+            LuaFunction value = ChunkCache.load( "@bios.lua", ByteStreams.toByteArray( bios ), globals );
             mainRoutine = new LuaThread( state, value, globals );
             return MachineResult.OK;
         }
@@ -169,6 +190,9 @@ public class CobaltLuaMachine implements ILuaMachine
         timeout.refresh();
         if( !timeout.isSoftAborted() ) debug.thrownSoftAbort = false;
 
+        // The allocation limit applies to the whole task, so only reset it if we're not resuming a paused one.
+        debug.startTask( !paused );
+
         try
         {
             Varargs resumeArgs = Constants.NONE;
@@ -183,7 +207,9 @@ public class CobaltLuaMachine implements ILuaMachine
 
             Varargs results = LuaThread.run( thread, resumeArgs );
             if( timeout.isHardAborted() ) throw HardAbortError.INSTANCE;
-            if( results == null ) return MachineResult.PAUSE;
+
+            paused = results == null;
+            if( paused ) return MachineResult.PAUSE;
 
             LuaValue filter = results.first();
             eventFilter = filter.isString() ? filter.toString() : null;
@@ -209,6 +235,10 @@ public class CobaltLuaMachine implements ILuaMachine
             ComputerCraft.log.warn( "Top level coroutine errored", e );
             return MachineResult.error( e );
         }
+        finally
+        {
+            debug.flushTracking();
+        }
     }
 
     @Override
@@ -230,27 +260,44 @@ public class CobaltLuaMachine implements ILuaMachine
             ? Objects.requireNonNull( ((IDynamicLuaObject) object).getMethodNames(), "Methods cannot be null" )
             : LuaMethod.EMPTY_METHODS;
 
-        LuaTable table = new LuaTable();
+        MethodTable methods = getMethodTable( object.getClass() );
+        int size = dynamicMethods.length + methods.size();
+
+        LuaTable table = new LuaTable( 0, size );
         for( int i = 0; i < dynamicMethods.length; i++ )
         {
             String method = dynamicMethods[i];
             table.rawset( method, new ResultInterpreterFunction( this, LuaMethod.DYNAMIC.get( i ), object, context, method ) );
         }
 
-        ObjectSource.allMethods( LuaMethod.GENERATOR, object, ( instance, method ) ->
-            table.rawset( method.getName(), method.nonYielding()
-                ? new BasicFunction( this, method.getMethod(), instance, context, method.getName() )
-                : new ResultInterpreterFunction( this, method.getMethod(), instance, context, method.getName() ) ) );
+        methods.bind( this, context, object, table );
 
-        try
-        {
-            if( table.keyCount() == 0 ) return null;
-        }
-        catch( LuaError ignored )
+        if( object instanceof ObjectSource )
         {
+            for( Object extra : ((ObjectSource) object).getExtra() )
+            {
+                MethodTable extraMethods = getMethodTable( extra.getClass() );
+                size += extraMethods.size();
+                extraMethods.bind( this, context, extra, table );
+            }
         }
 
-        return table;
+        return size == 0 ? null : table;
+    }
+
+    /**
+     * Get the methods for a class. These are cached for the lifetime of this machine, so that objects which are
+     * frequently passed to Lua (such as file handles) do not need to look up their methods each time.
+     *
+     * @param klass The class to get methods for.
+     * @return The class's methods.
+     */
+    @Nonnull
+    private MethodTable getMethodTable( Class<?> klass )
+    {
+        MethodTable methods = methodTables.get( klass );
+        if( methods == null ) methodTables.put( klass, methods = new MethodTable( LuaMethod.GENERATOR.getMethods( klass ) ) );
+        return methods;
     }
 
     @Nonnull
@@ -273,8 +320,7 @@ public class CobaltLuaMachine implements ILuaMachine
             return valueOf( bytes );
         }
 
-        if( values == null ) values = new IdentityHashMap<>( 1 );
-        LuaValue result = values.get( object );
+        LuaValue result = values == null ? null : values.get( object );
         if( result != null ) return result;
 
         if( object instanceof ILuaFunction )
@@ -286,17 +332,41 @@ public class CobaltLuaMachine implements ILuaMachine
         {
             LuaValue wrapped = wrapLuaObject( object );
             if( wrapped == null ) wrapped = new LuaTable();
-            values.put( object, wrapped );
+            if( values != null ) values.put( object, wrapped );
             return wrapped;
         }
 
         if( object instanceof Map )
         {
-            LuaTable table = new LuaTable();
-            values.put( object, table );
+            Map<?, ?> map = (Map<?, ?>) object;
+
+            // Work out how many keys will end up in the table's array part, and whether we need to track cycles.
+            int size = map.size(), arraySize = 0;
+            boolean leaves = true;
+            for( Map.Entry<?, ?> pair : map.entrySet() )
+            {
+                Object key = pair.getKey();
+                if( key instanceof Number )
+                {
+                    double index = ((Number) key).doubleValue();
+                    if( index >= 1 && index <= size && index == Math.floor( index ) ) arraySize++;
+                }
+                else if( leaves && !isLeaf( key ) )
+                {
+                    leaves = false;
+                }
+
+                if( leaves && !isLeaf( pair.getValue() ) ) leaves = false;
+            }
+
+            if( values == null && !leaves ) values = new IdentityHashMap<>( 1 );
 
-            for( Map.Entry<?, ?> pair : ((Map<?, ?>) object).entrySet() )
+            LuaTable table = new LuaTable( arraySize, size - arraySize );
+            if( values != null ) values.put( object, table );
+
+            for( Map.Entry<?, ?> pair : map.entrySet() )
             {
+                countConversion();
                 LuaValue key = toValue( pair.getKey(), values );
                 LuaValue value = toValue( pair.getValue(), values );
                 if( !key.isNil() && !value.isNil() ) table.rawset( key, value );
@@ -307,26 +377,38 @@ public class CobaltLuaMachine implements ILuaMachine
         if( object instanceof Collection )
         {
             Collection<?> objects = (Collection<?>) object;
+            if( values == null && !isLeaves( objects ) ) values = new IdentityHashMap<>( 1 );
+
             LuaTable table = new LuaTable( objects.size(), 0 );
-            values.put( object, table );
+            if( values != null ) values.put( object, table );
             int i = 0;
-            for( Object child : objects ) table.rawset( ++i, toValue( child, values ) );
+            for( Object child : objects )
+            {
+                countConversion();
+                table.rawset( ++i, toValue( child, values ) );
+            }
             return table;
         }
 
         if( object instanceof Object[] )
         {
             Object[] objects = (Object[]) object;
+            if( values == null && !isLeaves( Arrays.asList( objects ) ) ) values = new IdentityHashMap<>( 1 );
+
             LuaTable table = new LuaTable( objects.length, 0 );
-            values.put( object, table );
-            for( int i = 0; i < objects.length; i++ ) table.rawset( i + 1, toValue( objects[i], values ) );
+            if( values != null ) values.put( object, table );
+            for( int i = 0; i < objects.length; i++ )
+            {
+                countConversion();
+                table.rawset( i + 1, toValue( objects[i], values ) );
+            }
             return table;
         }
 
         LuaTable wrapped = wrapLuaObject( object );
         if( wrapped != null )
         {
-            values.put( object, wrapped );
+            if( values != null ) values.put( object, wrapped );
             return wrapped;
         }
 
@@ -342,7 +424,14 @@ public class CobaltLuaMachine implements ILuaMachine
         if( objects == null || objects.length == 0 ) return Constants.NONE;
         if( objects.length == 1 ) return toValue( objects[0], null );
 
-        Map<Object, LuaValue> result = new IdentityHashMap<>( 0 );
+        // We only need to share a cycle map if several values may refer to the same object.
+        int containers = 0;
+        for( Object object : objects )
+        {
+            if( !isLeaf( object ) ) containers++;
+        }
+
+        Map<Object, LuaValue> result = containers > 1 ? new IdentityHashMap<>( containers ) : null;
         LuaValue[] values = new LuaValue[objects.length];
         for( int i = 0; i < values.length; i++ )
         {
@@ -352,6 +441,40 @@ public class CobaltLuaMachine implements ILuaMachine
         return varargsOf( values );
     }
 
+    /**
+     * Determine if a value can be converted without needing to check for cycles or repeated references.
+     *
+     * @param object The object to check.
+     * @return If this object is a primitive value.
+     */
+    private static boolean isLeaf( @Nullable Object object )
+    {
+        return object == null || object instanceof Number || object instanceof Boolean || object instanceof String
+            || object instanceof byte[] || object instanceof ByteBuffer;
+    }
+
+    private static boolean isLeaves( Iterable<?> objects )
+    {
+        for( Object object : objects )
+        {
+            if( !isLeaf( object ) ) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Called for every child of a table converted by {@link #toValue(Object, Map)}. Converting very large results may
+     * take a while, so we periodically check whether the computer has been aborted, much like
+     * {@link TimeoutDebugHandler#onInstruction(DebugState, DebugFrame, int)}.
+     */
+    private void countConversion()
+    {
+        if( (++converted & (CONVERSION_INTERVAL - 1)) != 0 ) return;
+
+        if( timeout.isHardAborted() ) throw HardAbortError.INSTANCE;
+        timeout.refresh();
+    }
+
     static Object toObject( LuaValue value, Map<LuaValue, Object> objects )
     {
         switch( value.type() )
@@ -428,15 +551,51 @@ public class CobaltLuaMachine implements ILuaMachine
         return values == Constants.NONE ? VarargArguments.EMPTY : new VarargArguments( values );
     }
 
+    @Nullable
+    private static com.sun.management.ThreadMXBean getThreadBean()
+    {
+        try
+        {
+            java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            if( !(bean instanceof com.sun.management.ThreadMXBean) ) return null;
+
+            com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+            return threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled() ? threads : null;
+        }
+        catch( LinkageError | RuntimeException e )
+        {
+            ComputerCraft.log.warn( "Cannot measure memory allocations, tracking will be unavailable", e );
+            return null;
+        }
+    }
+
     /**
      * A {@link DebugHandler} which observes the {@link TimeoutState} and responds accordingly.
+     *
+     * This also counts the instructions executed and memory allocated by this computer. Allocations are sampled every
+     * {@link #SAMPLE_INTERVAL} instructions, by comparing the current thread's allocation counter to the last sample.
      */
     private class TimeoutDebugHandler extends DebugHandler
     {
+        private static final int SAMPLE_INTERVAL = 1024;
+
         private final TimeoutState timeout;
-        private int count = 0;
+        private long instructions = 0;
         boolean thrownSoftAbort;
 
+        private long trackedInstructions;
+
+        /**
+         * The thread our last sample was taken on. When this changes (such as when switching coroutine, or when resumed
+         * on a different computer thread) we start sampling from scratch.
+         */
+        private Thread sampleThread;
+        private long sampleAllocated;
+        private long allocated;
+        private long trackedAllocated;
+        private long taskAllocated;
+        private boolean thrownMemoryLimit;
+
         private boolean isPaused;
         private int oldFlags;
         private boolean oldInHook;
@@ -454,7 +613,7 @@ public class CobaltLuaMachine implements ILuaMachine
             if( isPaused ) resetPaused( ds, di );
 
             // We check our current pause/abort state every 128 instructions.
-            if( (count = (count + 1) & 127) == 0 )
+            if( (++instructions & 127) == 0 )
             {
                 // If we've been hard aborted or closed then abort.
                 if( timeout.isHardAborted() || state == null ) throw HardAbortError.INSTANCE;
@@ -474,6 +633,11 @@ public class CobaltLuaMachine implements ILuaMachine
                 }
 
                 handleSoftAbort();
+                if( (instructions & (SAMPLE_INTERVAL - 1)) == 0 )
+                {
+                    sampleAllocations();
+                    handleMemoryLimit();
+                }
             }
 
             super.onInstruction( ds, di, pc );
@@ -489,6 +653,11 @@ public class CobaltLuaMachine implements ILuaMachine
             timeout.refresh();
             if( timeout.isPaused() ) LuaThread.suspendBlocking( state );
             handleSoftAbort();
+
+            // Library functions (such as string.rep) poll while running, and may allocate a lot of memory without
+            // executing any instructions.
+            sampleAllocations();
+            handleMemoryLimit();
         }
 
         private void resetPaused( DebugState ds, DebugFrame di )
@@ -507,6 +676,60 @@ public class CobaltLuaMachine implements ILuaMachine
             thrownSoftAbort = true;
             throw new LuaError( TimeoutState.ABORT_MESSAGE );
         }
+
+        private void sampleAllocations()
+        {
+            if( THREADS == null ) return;
+
+            Thread thread = Thread.currentThread();
+            long current = THREADS.getThreadAllocatedBytes( thread.getId() );
+            if( thread == sampleThread && current > sampleAllocated )
+            {
+                allocated += current - sampleAllocated;
+                taskAllocated += current - sampleAllocated;
+            }
+
+            sampleThread = thread;
+            sampleAllocated = current;
+        }
+
+        private void handleMemoryLimit() throws LuaError
+        {
+            long limit = ComputerCraft.maxTaskAllocation;
+            if( limit <= 0 || taskAllocated <= limit || thrownMemoryLimit ) return;
+
+            // Much like soft aborts, only throw this error once per task.
+            thrownMemoryLimit = true;
+            ComputerCraft.log.warn( "Computer #{} allocated more than {} bytes without yielding", computer.getID(), limit );
+            throw new LuaError( MEMORY_MESSAGE );
+        }
+
+        void startTask( boolean resetLimit )
+        {
+            if( resetLimit )
+            {
+                taskAllocated = 0;
+                thrownMemoryLimit = false;
+            }
+
+            // We may be running on a different thread to last time, so take a new sample to measure from.
+            sampleThread = null;
+            sampleAllocations();
+        }
+
+        void flushTracking()
+        {
+            // Include anything allocated since the last sample.
+            sampleAllocations();
+
+            long instructions = this.instructions - trackedInstructions;
+            trackedInstructions = this.instructions;
+            if( instructions > 0 ) Tracking.addValue( computer, TrackingField.LUA_INSTRUCTIONS, instructions );
+
+            long allocated = this.allocated - trackedAllocated;
+            trackedAllocated = this.allocated;
+            if( allocated > 0 ) Tracking.addValue( computer, TrackingField.LUA_ALLOCATIONS, allocated );
+        }
     }
 
     private class CobaltLuaContext implements ILuaContext
@@ -0,0 +1,103 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.util.ThreadUtils;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.lang.reflect.Method;
+import java.util.concurrent.*;
+
+/**
+ * The executors which Lua coroutines may be run on.
+ *
+ * Cobalt runs a coroutine on its own thread when it yields from somewhere it cannot otherwise be suspended (such as a
+ * callback from {@code table.sort}). Such coroutines spend almost all of their time blocked, so where the JDK supports
+ * them we run these on virtual threads. Otherwise, we fall back to an unbounded pool of platform threads.
+ */
+final class CoroutineExecutors
+{
+    private static Executor executor;
+
+    private CoroutineExecutors()
+    {
+    }
+
+    /**
+     * Get the executor to run coroutines on. This is chosen when first needed, based on
+     * {@link ComputerCraft#coroutineVirtualThreads}, and then kept until the game exits. Coroutines from computers on a
+     * previous world may still be running on the old executor, so it is not safe to swap it out on a world restart.
+     *
+     * @return The shared coroutine executor.
+     */
+    @Nonnull
+    static synchronized Executor get()
+    {
+        if( executor != null ) return executor;
+
+        Executor virtual = ComputerCraft.coroutineVirtualThreads ? createVirtual() : null;
+        if( virtual != null )
+        {
+            ComputerCraft.log.info( "Running Lua coroutines on virtual threads" );
+            return executor = virtual;
+        }
+
+        return executor = createPool();
+    }
+
+    /**
+     * Create a pool of platform threads. As every suspended coroutine holds onto a thread, this must be unbounded.
+     *
+     * @return The thread pool.
+     */
+    @Nonnull
+    static Executor createPool()
+    {
+        return new ThreadPoolExecutor(
+            0, Integer.MAX_VALUE,
+            5L, TimeUnit.MINUTES,
+            new SynchronousQueue<>(),
+            ThreadUtils.factory( "Coroutine" )
+        );
+    }
+
+    /**
+     * Create an executor which runs each task on a new virtual thread.
+     *
+     * We still target Java 8, so this is done reflectively, equivalent to
+     * {@code Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("ComputerCraft-Coroutine-", 0).factory())}.
+     *
+     * @return The virtual thread executor, or {@code null} if virtual threads are not available.
+     */
+    @Nullable
+    static Executor createVirtual()
+    {
+        try
+        {
+            Class<?> builder = Class.forName( "java.lang.Thread$Builder" );
+            Method ofVirtual = Thread.class.getMethod( "ofVirtual" );
+            Method name = builder.getMethod( "name", String.class, long.class );
+            Method factory = builder.getMethod( "factory" );
+            Method newExecutor = Executors.class.getMethod( "newThreadPerTaskExecutor", ThreadFactory.class );
+
+            Object threadBuilder = name.invoke( ofVirtual.invoke( null ), ThreadUtils.group().getName() + "-Coroutine-", 0L );
+            return (Executor) newExecutor.invoke( null, factory.invoke( threadBuilder ) );
+        }
+        catch( ClassNotFoundException | NoSuchMethodException e )
+        {
+            // Virtual threads are not supported on this JDK.
+            return null;
+        }
+        catch( ReflectiveOperationException | RuntimeException | LinkageError e )
+        {
+            // This will happen on Java 19 and 20 when preview features are not enabled.
+            ComputerCraft.log.warn( "Cannot create virtual threads, falling back to a thread pool", e );
+            return null;
+        }
+    }
+}
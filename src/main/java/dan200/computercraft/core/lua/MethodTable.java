@@ -0,0 +1,72 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.core.asm.LuaMethod;
+import dan200.computercraft.core.asm.NamedMethod;
+import org.squiddev.cobalt.LuaString;
+import org.squiddev.cobalt.LuaTable;
+import org.squiddev.cobalt.function.LuaFunction;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+/**
+ * The {@link LuaMethod}s for a single class, prepared so they can be quickly added to a Lua table.
+ *
+ * This is built once per class (see {@link CobaltLuaMachine#getMethodTable(Class)}), and so avoids fetching the
+ * methods and converting their names to {@link LuaString}s every time an object is passed to Lua.
+ */
+final class MethodTable
+{
+    private final String[] names;
+    private final LuaString[] keys;
+    private final LuaMethod[] methods;
+    private final boolean[] nonYielding;
+
+    MethodTable( @Nonnull List<NamedMethod<LuaMethod>> methods )
+    {
+        int size = methods.size();
+        names = new String[size];
+        keys = new LuaString[size];
+        this.methods = new LuaMethod[size];
+        nonYielding = new boolean[size];
+
+        for( int i = 0; i < size; i++ )
+        {
+            NamedMethod<LuaMethod> method = methods.get( i );
+            names[i] = method.getName();
+            keys[i] = LuaString.valueOf( method.getName() );
+            this.methods[i] = method.getMethod();
+            nonYielding[i] = method.nonYielding();
+        }
+    }
+
+    int size()
+    {
+        return methods.length;
+    }
+
+    /**
+     * Add a function for each method to a table, calling them on the given instance.
+     *
+     * @param machine  The machine the functions belong to.
+     * @param context  The context to call methods with.
+     * @param instance The object to call methods on.
+     * @param table    The table to add the functions to.
+     */
+    void bind( CobaltLuaMachine machine, ILuaContext context, Object instance, LuaTable table )
+    {
+        for( int i = 0; i < methods.length; i++ )
+        {
+            LuaFunction function = nonYielding[i]
+                ? new BasicFunction( machine, methods[i], instance, context, names[i] )
+                : new ResultInterpreterFunction( machine, methods[i], instance, context, names[i] );
+            table.rawset( keys[i], function );
+        }
+    }
+}
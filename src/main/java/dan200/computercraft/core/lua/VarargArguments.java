@@ -15,6 +15,13 @@ import javax.annotation.Nullable;
 import java.nio.ByteBuffer;
 import java.util.Optional;
 
+/**
+ * An implementation of {@link IArguments} backed by a Cobalt {@link Varargs}.
+ *
+ * The typed accessors ({@link #getDouble(int)}, {@link #getString(int)}, etc...) read directly from the Lua values,
+ * and so do not need to convert every argument to a Java object with {@link #get(int)}. {@link #getBytes(int)} returns
+ * a view of the Lua string's backing array, rather than a copy.
+ */
 class VarargArguments implements IArguments
 {
     static final IArguments EMPTY = new VarargArguments( Constants.NONE );
@@ -77,6 +84,23 @@ class VarargArguments implements IArguments
         return value instanceof LuaInteger ? value.toInteger() : (long) LuaValues.checkFinite( index, value.toDouble() );
     }
 
+    @Override
+    public boolean getBoolean( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        if( value.type() != Constants.TBOOLEAN ) throw LuaValues.badArgument( index, "boolean", value.typeName() );
+        return value.toBoolean();
+    }
+
+    @Nonnull
+    @Override
+    public String getString( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        if( !(value instanceof LuaBaseString) ) throw LuaValues.badArgument( index, "string", value.typeName() );
+        return value.toString();
+    }
+
     @Nonnull
     @Override
     public ByteBuffer getBytes( int index ) throws LuaException
@@ -88,14 +112,77 @@ class VarargArguments implements IArguments
         return ByteBuffer.wrap( str.bytes, str.offset, str.length ).asReadOnlyBuffer();
     }
 
+    @Nonnull
+    @Override
+    public Optional<Double> optDouble( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        return value.isNil() ? Optional.empty() : Optional.of( getDouble( index ) );
+    }
+
+    @Override
+    public Optional<Long> optLong( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        return value.isNil() ? Optional.empty() : Optional.of( getLong( index ) );
+    }
+
+    @Override
+    public Optional<Boolean> optBoolean( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        return value.isNil() ? Optional.empty() : Optional.of( getBoolean( index ) );
+    }
+
+    @Override
+    public Optional<String> optString( int index ) throws LuaException
+    {
+        LuaValue value = varargs.arg( index + 1 );
+        return value.isNil() ? Optional.empty() : Optional.of( getString( index ) );
+    }
+
     @Override
     public Optional<ByteBuffer> optBytes( int index ) throws LuaException
     {
         LuaValue value = varargs.arg( index + 1 );
-        if( value.isNil() ) return Optional.empty();
-        if( !(value instanceof LuaBaseString) ) throw LuaValues.badArgument( index, "string", value.typeName() );
+        return value.isNil() ? Optional.empty() : Optional.of( getBytes( index ) );
+    }
 
-        LuaString str = ((LuaBaseString) value).strvalue();
-        return Optional.of( ByteBuffer.wrap( str.bytes, str.offset, str.length ).asReadOnlyBuffer() );
+    // The versions with a default value are often used in hot paths, so avoid allocating an Optional.
+
+    @Override
+    public double optDouble( int index, double def ) throws LuaException
+    {
+        return varargs.arg( index + 1 ).isNil() ? def : getDouble( index );
+    }
+
+    @Override
+    public int optInt( int index, int def ) throws LuaException
+    {
+        return varargs.arg( index + 1 ).isNil() ? def : getInt( index );
+    }
+
+    @Override
+    public long optLong( int index, long def ) throws LuaException
+    {
+        return varargs.arg( index + 1 ).isNil() ? def : getLong( index );
+    }
+
+    @Override
+    public double optFiniteDouble( int index, double def ) throws LuaException
+    {
+        return varargs.arg( index + 1 ).isNil() ? def : getFiniteDouble( index );
+    }
+
+    @Override
+    public boolean optBoolean( int index, boolean def ) throws LuaException
+    {
+        return varargs.arg( index + 1 ).isNil() ? def : getBoolean( index );
+    }
+
+    @Override
+    public String optString( int index, String def ) throws LuaException
+    {
+        return varargs.arg( index + 1 ).isNil() ? def : getString( index );
     }
 }
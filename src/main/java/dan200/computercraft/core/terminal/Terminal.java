@@ -11,6 +11,7 @@ import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.network.PacketBuffer;
 
 import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
 
 public class Terminal
 {
@@ -25,14 +26,38 @@ public class Terminal
     private int width;
     private int height;
 
-    private TextBuffer[] text;
-    private TextBuffer[] textColour;
-    private TextBuffer[] backgroundColour;
+    /**
+     * The contents of every cell in this terminal, stored as two bytes: the character, followed by the background
+     * (upper nibble) and text colour (lower nibble). Rows are stored one after another, so scrolling is a single
+     * array copy.
+     *
+     * This is the same format as is used by {@link #write(PacketBuffer)}, so whole rows may be written directly.
+     */
+    private byte[] cells;
+
+    /**
+     * {@link TextBuffer} views of each line, used by {@link #getLine(int)} and friends.
+     */
+    private TextBuffer[] textLines;
+    private TextBuffer[] textColourLines;
+    private TextBuffer[] backgroundColourLines;
 
     private final Palette palette = new Palette();
 
     private final Runnable onChanged;
 
+    /**
+     * The range of each line which has changed since the last {@link #writeDelta(PacketBuffer)}. A line is unchanged
+     * if its start is after its end.
+     */
+    private int[] dirtyStart;
+    private int[] dirtyEnd;
+
+    /**
+     * The total amount this terminal has been scrolled since the last {@link #writeDelta(PacketBuffer)}.
+     */
+    private int dirtyScroll;
+
     public Terminal( int width, int height )
     {
         this( width, height, null );
@@ -44,15 +69,13 @@ public class Terminal
         this.height = height;
         onChanged = changedCallback;
 
-        text = new TextBuffer[this.height];
-        textColour = new TextBuffer[this.height];
-        backgroundColour = new TextBuffer[this.height];
-        for( int i = 0; i < this.height; i++ )
-        {
-            text[i] = new TextBuffer( ' ', this.width );
-            textColour[i] = new TextBuffer( base16.charAt( cursorColour ), this.width );
-            backgroundColour[i] = new TextBuffer( base16.charAt( cursorBackgroundColour ), this.width );
-        }
+        cells = new byte[this.width * this.height * 2];
+        fillCells( 0, cells.length, (byte) ' ', cursorColours() );
+        createLines();
+
+        dirtyStart = new int[this.height];
+        dirtyEnd = new int[this.height];
+        clearDirty();
     }
 
     public synchronized void reset()
@@ -86,40 +109,27 @@ public class Terminal
 
         int oldHeight = this.height;
         int oldWidth = this.width;
-        TextBuffer[] oldText = text;
-        TextBuffer[] oldTextColour = textColour;
-        TextBuffer[] oldBackgroundColour = backgroundColour;
+        byte[] oldCells = cells;
 
         this.width = width;
         this.height = height;
 
-        text = new TextBuffer[this.height];
-        textColour = new TextBuffer[this.height];
-        backgroundColour = new TextBuffer[this.height];
-        for( int i = 0; i < this.height; i++ )
+        cells = new byte[this.width * this.height * 2];
+        fillCells( 0, cells.length, (byte) ' ', cursorColours() );
+        int copyWidth = Math.min( oldWidth, this.width ) * 2, copyHeight = Math.min( oldHeight, this.height );
+        if( oldWidth == this.width )
         {
-            if( i >= oldHeight )
-            {
-                text[i] = new TextBuffer( ' ', this.width );
-                textColour[i] = new TextBuffer( base16.charAt( cursorColour ), this.width );
-                backgroundColour[i] = new TextBuffer( base16.charAt( cursorBackgroundColour ), this.width );
-            }
-            else if( this.width == oldWidth )
-            {
-                text[i] = oldText[i];
-                textColour[i] = oldTextColour[i];
-                backgroundColour[i] = oldBackgroundColour[i];
-            }
-            else
-            {
-                text[i] = new TextBuffer( ' ', this.width );
-                textColour[i] = new TextBuffer( base16.charAt( cursorColour ), this.width );
-                backgroundColour[i] = new TextBuffer( base16.charAt( cursorBackgroundColour ), this.width );
-                text[i].write( oldText[i] );
-                textColour[i].write( oldTextColour[i] );
-                backgroundColour[i].write( oldBackgroundColour[i] );
-            }
+            System.arraycopy( oldCells, 0, cells, 0, copyWidth * copyHeight );
         }
+        else
+        {
+            for( int y = 0; y < copyHeight; y++ ) System.arraycopy( oldCells, y * oldWidth * 2, cells, y * this.width * 2, copyWidth );
+        }
+        createLines();
+
+        dirtyStart = new int[this.height];
+        dirtyEnd = new int[this.height];
+        markAllDirty();
         setChanged();
     }
 
@@ -197,22 +207,85 @@ public class Terminal
         int y = cursorY;
         if( y >= 0 && y < height )
         {
-            this.text[y].write( text, x );
-            this.textColour[y].write( textColour, x );
-            this.backgroundColour[y].write( backgroundColour, x );
+            int length = text.length();
+            if( textColour.length() == length && backgroundColour.length() == length )
+            {
+                int start = Math.max( x, 0 ), end = Math.min( x + length, width );
+                for( int i = start, index = index( start, y ); i < end; i++, index += 2 )
+                {
+                    cells[index] = (byte) text.charAt( i - x );
+                    cells[index + 1] = (byte) (getColour( backgroundColour.charAt( i - x ), Colour.BLACK ) << 4 | getColour( textColour.charAt( i - x ), Colour.WHITE ));
+                }
+            }
+            else
+            {
+                textLines[y].write( text, x );
+                textColourLines[y].write( textColour, x );
+                backgroundColourLines[y].write( backgroundColour, x );
+            }
+
+            markDirty( y, x, x + length );
             setChanged();
         }
     }
 
+    /**
+     * A version of {@link #blit(String, String, String)} which reads from byte buffers, as passed in from Lua. This
+     * avoids converting each argument to a {@link String}.
+     *
+     * @param text             The text to write.
+     * @param textColour       The corresponding text colours.
+     * @param backgroundColour The corresponding background colours.
+     */
+    public synchronized void blit( ByteBuffer text, ByteBuffer textColour, ByteBuffer backgroundColour )
+    {
+        int length = text.remaining();
+        if( textColour.remaining() != length || backgroundColour.remaining() != length )
+        {
+            blit( decode( text ), decode( textColour ), decode( backgroundColour ) );
+            return;
+        }
+
+        int x = cursorX;
+        int y = cursorY;
+        if( y >= 0 && y < height )
+        {
+            int textStart = text.position(), textColourStart = textColour.position(), backgroundStart = backgroundColour.position();
+            int start = Math.max( x, 0 ), end = Math.min( x + length, width );
+            for( int i = start, index = index( start, y ); i < end; i++, index += 2 )
+            {
+                int offset = i - x;
+                cells[index] = text.get( textStart + offset );
+                cells[index + 1] = (byte) (getColour( (char) backgroundColour.get( backgroundStart + offset ), Colour.BLACK ) << 4
+                    | getColour( (char) textColour.get( textColourStart + offset ), Colour.WHITE ));
+            }
+
+            markDirty( y, x, x + length );
+            setChanged();
+        }
+    }
+
+    private static String decode( ByteBuffer buffer )
+    {
+        char[] chars = new char[buffer.remaining()];
+        for( int i = 0; i < chars.length; i++ ) chars[i] = (char) (buffer.get( buffer.position() + i ) & 0xFF);
+        return new String( chars );
+    }
+
     public synchronized void write( String text )
     {
         int x = cursorX;
         int y = cursorY;
         if( y >= 0 && y < height )
         {
-            this.text[y].write( text, x );
-            textColour[y].fill( base16.charAt( cursorColour ), x, x + text.length() );
-            backgroundColour[y].fill( base16.charAt( cursorBackgroundColour ), x, x + text.length() );
+            byte colours = cursorColours();
+            int start = Math.max( x, 0 ), end = Math.min( x + text.length(), width );
+            for( int i = start, index = index( start, y ); i < end; i++, index += 2 )
+            {
+                cells[index] = (byte) text.charAt( i - x );
+                cells[index + 1] = colours;
+            }
+            markDirty( y, x, x + text.length() );
             setChanged();
         }
     }
@@ -221,40 +294,30 @@ public class Terminal
     {
         if( yDiff != 0 )
         {
-            TextBuffer[] newText = new TextBuffer[height];
-            TextBuffer[] newTextColour = new TextBuffer[height];
-            TextBuffer[] newBackgroundColour = new TextBuffer[height];
-            for( int y = 0; y < height; y++ )
+            int rowSize = width * 2;
+            if( Math.abs( yDiff ) >= height )
             {
-                int oldY = y + yDiff;
-                if( oldY >= 0 && oldY < height )
-                {
-                    newText[y] = text[oldY];
-                    newTextColour[y] = textColour[oldY];
-                    newBackgroundColour[y] = backgroundColour[oldY];
-                }
-                else
-                {
-                    newText[y] = new TextBuffer( ' ', width );
-                    newTextColour[y] = new TextBuffer( base16.charAt( cursorColour ), width );
-                    newBackgroundColour[y] = new TextBuffer( base16.charAt( cursorBackgroundColour ), width );
-                }
+                fillCells( 0, cells.length, (byte) ' ', cursorColours() );
+            }
+            else if( yDiff > 0 )
+            {
+                System.arraycopy( cells, yDiff * rowSize, cells, 0, (height - yDiff) * rowSize );
+                fillCells( (height - yDiff) * rowSize, cells.length, (byte) ' ', cursorColours() );
+            }
+            else
+            {
+                System.arraycopy( cells, 0, cells, -yDiff * rowSize, (height + yDiff) * rowSize );
+                fillCells( 0, -yDiff * rowSize, (byte) ' ', cursorColours() );
             }
-            text = newText;
-            textColour = newTextColour;
-            backgroundColour = newBackgroundColour;
+            scrollDirty( yDiff );
             setChanged();
         }
     }
 
     public synchronized void clear()
     {
-        for( int y = 0; y < height; y++ )
-        {
-            text[y].fill( ' ' );
-            textColour[y].fill( base16.charAt( cursorColour ) );
-            backgroundColour[y].fill( base16.charAt( cursorBackgroundColour ) );
-        }
+        fillCells( 0, cells.length, (byte) ' ', cursorColours() );
+        markAllDirty();
         setChanged();
     }
 
@@ -263,9 +326,8 @@ public class Terminal
         int y = cursorY;
         if( y >= 0 && y < height )
         {
-            text[y].fill( ' ' );
-            textColour[y].fill( base16.charAt( cursorColour ) );
-            backgroundColour[y].fill( base16.charAt( cursorBackgroundColour ) );
+            fillCells( index( 0, y ), index( 0, y + 1 ), (byte) ' ', cursorColours() );
+            markDirty( y, 0, width );
             setChanged();
         }
     }
@@ -274,16 +336,17 @@ public class Terminal
     {
         if( y >= 0 && y < height )
         {
-            return text[y];
+            return textLines[y];
         }
         return null;
     }
 
     public synchronized void setLine( int y, String text, String textColour, String backgroundColour )
     {
-        this.text[y].write( text );
-        this.textColour[y].write( textColour );
-        this.backgroundColour[y].write( backgroundColour );
+        textLines[y].write( text );
+        textColourLines[y].write( textColour );
+        backgroundColourLines[y].write( backgroundColour );
+        markDirty( y, 0, width );
         setChanged();
     }
 
@@ -291,7 +354,7 @@ public class Terminal
     {
         if( y >= 0 && y < height )
         {
-            return textColour[y];
+            return textColourLines[y];
         }
         return null;
     }
@@ -300,11 +363,48 @@ public class Terminal
     {
         if( y >= 0 && y < height )
         {
-            return backgroundColour[y];
+            return backgroundColourLines[y];
         }
         return null;
     }
 
+    /**
+     * Get the character at a specific position. This is equivalent to {@code getLine( y ).charAt( x )}, but avoids
+     * going through a {@link TextBuffer}.
+     *
+     * @param x The x position of the cell.
+     * @param y The y position of the cell.
+     * @return The character in this cell.
+     */
+    public char getCellChar( int x, int y )
+    {
+        return (char) (cells[index( x, y )] & 0xFF);
+    }
+
+    /**
+     * Get the text colour at a specific position.
+     *
+     * @param x The x position of the cell.
+     * @param y The y position of the cell.
+     * @return The text colour of this cell, as used by {@link #setTextColour(int)}.
+     */
+    public int getCellTextColour( int x, int y )
+    {
+        return cells[index( x, y ) + 1] & 0xF;
+    }
+
+    /**
+     * Get the background colour at a specific position.
+     *
+     * @param x The x position of the cell.
+     * @param y The y position of the cell.
+     * @return The background colour of this cell, as used by {@link #setBackgroundColour(int)}.
+     */
+    public int getCellBackgroundColour( int x, int y )
+    {
+        return (cells[index( x, y ) + 1] >> 4) & 0xF;
+    }
+
     public final void setChanged()
     {
         if( onChanged != null ) onChanged.run();
@@ -316,27 +416,71 @@ public class Terminal
         buffer.writeInt( cursorY );
         buffer.writeBoolean( cursorBlink );
         buffer.writeByte( cursorBackgroundColour << 4 | cursorColour );
+        buffer.writeBytes( cells );
+        palette.write( buffer );
+    }
 
+    public synchronized void read( PacketBuffer buffer )
+    {
+        cursorX = buffer.readInt();
+        cursorY = buffer.readInt();
+        cursorBlink = buffer.readBoolean();
+
+        byte cursorColour = buffer.readByte();
+        cursorBackgroundColour = (cursorColour >> 4) & 0xF;
+        this.cursorColour = cursorColour & 0xF;
+
+        buffer.readBytes( cells );
+        palette.read( buffer );
+        markAllDirty();
+        setChanged();
+    }
+
+    /**
+     * Write all changes since the last call to this method, and then mark the terminal as unchanged.
+     *
+     * This writes the cursor, any scrolling, the changed span of each line and the palette. It may only be applied to a
+     * terminal of the same size which has seen every previous delta (or a full copy of this terminal).
+     *
+     * @param buffer The buffer to write to.
+     * @see #readDelta(PacketBuffer)
+     */
+    public synchronized void writeDelta( PacketBuffer buffer )
+    {
+        buffer.writeInt( cursorX );
+        buffer.writeInt( cursorY );
+        buffer.writeBoolean( cursorBlink );
+        buffer.writeByte( cursorBackgroundColour << 4 | cursorColour );
+        buffer.writeInt( dirtyScroll );
+
+        int dirtyLines = 0;
         for( int y = 0; y < height; y++ )
         {
-            TextBuffer text = this.text[y];
-            TextBuffer textColour = this.textColour[y];
-            TextBuffer backColour = backgroundColour[y];
+            if( dirtyStart[y] < dirtyEnd[y] ) dirtyLines++;
+        }
 
-            for( int x = 0; x < width; x++ )
-            {
-                buffer.writeByte( text.charAt( x ) & 0xFF );
-                buffer.writeByte( getColour(
-                    backColour.charAt( x ), Colour.BLACK ) << 4 |
-                    getColour( textColour.charAt( x ), Colour.WHITE )
-                );
-            }
+        buffer.writeVarInt( dirtyLines );
+        for( int y = 0; y < height; y++ )
+        {
+            int start = dirtyStart[y], end = dirtyEnd[y];
+            if( start >= end ) continue;
+
+            buffer.writeVarInt( y );
+            buffer.writeVarInt( start );
+            buffer.writeVarInt( end - start );
+            buffer.writeBytes( cells, index( start, y ), (end - start) * 2 );
         }
 
         palette.write( buffer );
+        clearDirty();
     }
 
-    public synchronized void read( PacketBuffer buffer )
+    /**
+     * Apply a delta written by {@link #writeDelta(PacketBuffer)}.
+     *
+     * @param buffer The buffer to read from.
+     */
+    public synchronized void readDelta( PacketBuffer buffer )
     {
         cursorX = buffer.readInt();
         cursorY = buffer.readInt();
@@ -346,26 +490,98 @@ public class Terminal
         cursorBackgroundColour = (cursorColour >> 4) & 0xF;
         this.cursorColour = cursorColour & 0xF;
 
-        for( int y = 0; y < height; y++ )
-        {
-            TextBuffer text = this.text[y];
-            TextBuffer textColour = this.textColour[y];
-            TextBuffer backColour = backgroundColour[y];
+        int scroll = buffer.readInt();
+        if( scroll != 0 ) scroll( scroll );
 
-            for( int x = 0; x < width; x++ )
+        int dirtyLines = buffer.readVarInt();
+        for( int i = 0; i < dirtyLines; i++ )
+        {
+            int y = buffer.readVarInt();
+            int start = buffer.readVarInt();
+            int length = buffer.readVarInt();
+            if( y < 0 || y >= height || start < 0 || length < 0 || start + length > width )
             {
-                text.setChar( x, (char) (buffer.readByte() & 0xFF) );
-
-                byte colour = buffer.readByte();
-                backColour.setChar( x, base16.charAt( (colour >> 4) & 0xF ) );
-                textColour.setChar( x, base16.charAt( colour & 0xF ) );
+                throw new IndexOutOfBoundsException( "Invalid line span in terminal delta" );
             }
+
+            buffer.readBytes( cells, index( start, y ), length * 2 );
+            markDirty( y, start, start + length );
         }
 
         palette.read( buffer );
         setChanged();
     }
 
+    /**
+     * Mark every line of this terminal as unchanged.
+     *
+     * @see #writeDelta(PacketBuffer)
+     */
+    public synchronized void clearDirty()
+    {
+        for( int y = 0; y < height; y++ )
+        {
+            dirtyStart[y] = width;
+            dirtyEnd[y] = 0;
+        }
+        dirtyScroll = 0;
+    }
+
+    /**
+     * Replace any pending scroll with marking every line as dirty.
+     *
+     * A delta's scroll is relative, and so applying it to a terminal which already includes the scroll would shift
+     * its contents twice. Dirty lines are sent in full, and so the next delta may be applied both to terminals which
+     * have seen the previous delta and to a full snapshot taken after this call.
+     */
+    public synchronized void flattenScroll()
+    {
+        if( dirtyScroll == 0 ) return;
+        dirtyScroll = 0;
+        markAllDirty();
+    }
+
+    private void markDirty( int y, int start, int end )
+    {
+        start = Math.max( start, 0 );
+        end = Math.min( end, width );
+        if( start >= end ) return;
+
+        if( start < dirtyStart[y] ) dirtyStart[y] = start;
+        if( end > dirtyEnd[y] ) dirtyEnd[y] = end;
+    }
+
+    private void markAllDirty()
+    {
+        for( int y = 0; y < height; y++ )
+        {
+            dirtyStart[y] = 0;
+            dirtyEnd[y] = width;
+        }
+    }
+
+    private void scrollDirty( int yDiff )
+    {
+        dirtyScroll += yDiff;
+        if( Math.abs( yDiff ) >= height )
+        {
+            markAllDirty();
+        }
+        else if( yDiff > 0 )
+        {
+            // Lines move up, so shift the dirty spans along with them and mark the new lines at the bottom as dirty.
+            System.arraycopy( dirtyStart, yDiff, dirtyStart, 0, height - yDiff );
+            System.arraycopy( dirtyEnd, yDiff, dirtyEnd, 0, height - yDiff );
+            for( int y = height - yDiff; y < height; y++ ) markDirty( y, 0, width );
+        }
+        else
+        {
+            System.arraycopy( dirtyStart, 0, dirtyStart, -yDiff, height + yDiff );
+            System.arraycopy( dirtyEnd, 0, dirtyEnd, -yDiff, height + yDiff );
+            for( int y = 0; y < -yDiff; y++ ) markDirty( y, 0, width );
+        }
+    }
+
     public synchronized CompoundNBT writeToNBT( CompoundNBT nbt )
     {
         nbt.putInt( "term_cursorX", cursorX );
@@ -375,9 +591,9 @@ public class Terminal
         nbt.putInt( "term_bgColour", cursorBackgroundColour );
         for( int n = 0; n < height; n++ )
         {
-            nbt.putString( "term_text_" + n, text[n].toString() );
-            nbt.putString( "term_textColour_" + n, textColour[n].toString() );
-            nbt.putString( "term_textBgColour_" + n, backgroundColour[n].toString() );
+            nbt.putString( "term_text_" + n, textLines[n].toString() );
+            nbt.putString( "term_textColour_" + n, textColourLines[n].toString() );
+            nbt.putString( "term_textBgColour_" + n, backgroundColourLines[n].toString() );
         }
 
         palette.writeToNBT( nbt );
@@ -392,33 +608,181 @@ public class Terminal
         cursorColour = nbt.getInt( "term_textColour" );
         cursorBackgroundColour = nbt.getInt( "term_bgColour" );
 
+        fillCells( 0, cells.length, (byte) ' ', cursorColours() );
         for( int n = 0; n < height; n++ )
         {
-            text[n].fill( ' ' );
             if( nbt.contains( "term_text_" + n ) )
             {
-                text[n].write( nbt.getString( "term_text_" + n ) );
+                textLines[n].write( nbt.getString( "term_text_" + n ) );
             }
-            textColour[n].fill( base16.charAt( cursorColour ) );
             if( nbt.contains( "term_textColour_" + n ) )
             {
-                textColour[n].write( nbt.getString( "term_textColour_" + n ) );
+                textColourLines[n].write( nbt.getString( "term_textColour_" + n ) );
             }
-            backgroundColour[n].fill( base16.charAt( cursorBackgroundColour ) );
             if( nbt.contains( "term_textBgColour_" + n ) )
             {
-                backgroundColour[n].write( nbt.getString( "term_textBgColour_" + n ) );
+                backgroundColourLines[n].write( nbt.getString( "term_textBgColour_" + n ) );
             }
         }
 
         palette.readFromNBT( nbt );
+        markAllDirty();
         setChanged();
     }
 
+    private int index( int x, int y )
+    {
+        return (y * width + x) * 2;
+    }
+
+    private byte cursorColours()
+    {
+        return (byte) ((cursorBackgroundColour & 0xF) << 4 | (cursorColour & 0xF));
+    }
+
+    private void fillCells( int start, int end, byte character, byte colours )
+    {
+        for( int i = start; i < end; i += 2 )
+        {
+            cells[i] = character;
+            cells[i + 1] = colours;
+        }
+    }
+
+    private void createLines()
+    {
+        textLines = new TextBuffer[height];
+        textColourLines = new TextBuffer[height];
+        backgroundColourLines = new TextBuffer[height];
+        for( int y = 0; y < height; y++ )
+        {
+            textLines[y] = new Line( y, Line.TEXT );
+            textColourLines[y] = new Line( y, Line.TEXT_COLOUR );
+            backgroundColourLines[y] = new Line( y, Line.BACKGROUND_COLOUR );
+        }
+    }
+
     public static int getColour( char c, Colour def )
     {
         if( c >= '0' && c <= '9' ) return c - '0';
         if( c >= 'a' && c <= 'f' ) return c - 'a' + 10;
         return 15 - def.ordinal();
     }
+
+    /**
+     * A view of one part (the text, text colour or background colour) of a line in this terminal. Colours are
+     * presented as hexadecimal digits, as they would be passed to {@link #blit(String, String, String)}.
+     */
+    private final class Line extends TextBuffer
+    {
+        static final int TEXT = 0;
+        static final int TEXT_COLOUR = 1;
+        static final int BACKGROUND_COLOUR = 2;
+
+        private final int y;
+        private final int kind;
+
+        Line( int y, int kind )
+        {
+            this.y = y;
+            this.kind = kind;
+        }
+
+        @Override
+        public int length()
+        {
+            return width;
+        }
+
+        @Override
+        public void write( String text )
+        {
+            write( text, 0 );
+        }
+
+        @Override
+        public void write( String text, int start )
+        {
+            int from = Math.max( start, 0 ), to = Math.min( start + text.length(), width );
+            for( int x = from; x < to; x++ ) set( x, text.charAt( x - start ) );
+            markDirty( y, from, to );
+        }
+
+        @Override
+        public void write( TextBuffer text )
+        {
+            int end = Math.min( text.length(), width );
+            for( int x = 0; x < end; x++ ) set( x, text.charAt( x ) );
+            markDirty( y, 0, end );
+        }
+
+        @Override
+        public void fill( char c )
+        {
+            fill( c, 0, width );
+        }
+
+        @Override
+        public void fill( char c, int start, int end )
+        {
+            start = Math.max( start, 0 );
+            end = Math.min( end, width );
+            for( int x = start; x < end; x++ ) set( x, c );
+            markDirty( y, start, end );
+        }
+
+        @Override
+        public char charAt( int x )
+        {
+            if( x < 0 || x >= width ) throw new IndexOutOfBoundsException( "Index " + x + " out of bounds for length " + width );
+
+            int index = index( x, y );
+            switch( kind )
+            {
+                case TEXT:
+                default:
+                    return (char) (cells[index] & 0xFF);
+                case TEXT_COLOUR:
+                    return base16.charAt( cells[index + 1] & 0xF );
+                case BACKGROUND_COLOUR:
+                    return base16.charAt( (cells[index + 1] >> 4) & 0xF );
+            }
+        }
+
+        @Override
+        public void setChar( int x, char c )
+        {
+            if( x >= 0 && x < width )
+            {
+                set( x, c );
+                markDirty( y, x, x + 1 );
+            }
+        }
+
+        private void set( int x, char c )
+        {
+            int index = index( x, y );
+            switch( kind )
+            {
+                case TEXT:
+                default:
+                    cells[index] = (byte) c;
+                    break;
+                case TEXT_COLOUR:
+                    cells[index + 1] = (byte) ((cells[index + 1] & 0xF0) | getColour( c, Colour.WHITE ));
+                    break;
+                case BACKGROUND_COLOUR:
+                    cells[index + 1] = (byte) ((cells[index + 1] & 0x0F) | getColour( c, Colour.BLACK ) << 4);
+                    break;
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            char[] chars = new char[width];
+            for( int x = 0; x < width; x++ ) chars[x] = charAt( x );
+            return new String( chars );
+        }
+    }
 }
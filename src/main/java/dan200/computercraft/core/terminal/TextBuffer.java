@@ -9,6 +9,15 @@ public class TextBuffer
 {
     private final char[] text;
 
+    /**
+     * Create a text buffer without any backing array. This is used by {@link Terminal}'s line views, which override
+     * every method to read from the terminal directly.
+     */
+    TextBuffer()
+    {
+        text = null;
+    }
+
     public TextBuffer( char c, int length )
     {
         text = new char[length];
@@ -36,6 +36,24 @@ public final class TrackingField
     public static final TrackingField COROUTINES_CREATED = TrackingField.of( "coroutines_created", x -> String.format( "%4d", x ) );
     public static final TrackingField COROUTINES_DISPOSED = TrackingField.of( "coroutines_dead", x -> String.format( "%4d", x ) );
 
+    public static final TrackingField LUA_INSTRUCTIONS = TrackingField.of( "lua_instructions", x -> String.format( "%10d", x ) );
+
+    /**
+     * The amount of memory allocated while running Lua code. This is sampled, and so only approximate, and is always 0
+     * if the JVM does not support measuring allocations.
+     */
+    public static final TrackingField LUA_ALLOCATIONS = TrackingField.of( "lua_allocations", TrackingField::formatBytes );
+
+    /**
+     * The number of computers already waiting to start when this computer was queued to start.
+     */
+    public static final TrackingField BOOT_QUEUE = TrackingField.of( "boot_queue", TrackingField::formatDefault );
+
+    /**
+     * The time this computer spent waiting to start.
+     */
+    public static final TrackingField BOOT_WAIT = TrackingField.of( "boot_wait", x -> String.format( "%7.1fms", x / 1e6 ) );
+
     private final String id;
     private final String translationKey;
     private final LongFunction<String> format;
@@ -47,8 +47,12 @@ public final class Config
     private static final ConfigValue<Boolean> commandRequireCreative;
 
     private static final ConfigValue<Integer> computerThreads;
+    private static final ConfigValue<Boolean> computerThreadWorkStealing;
     private static final ConfigValue<Integer> maxMainGlobalTime;
     private static final ConfigValue<Integer> maxMainComputerTime;
+    private static final ConfigValue<Integer> maxTaskAllocation;
+    private static final ConfigValue<Boolean> coroutineVirtualThreads;
+    private static final ConfigValue<Integer> maxBootsPerTick;
 
     private static final ConfigValue<Boolean> httpEnabled;
     private static final ConfigValue<Boolean> httpWebsocketEnabled;
@@ -70,6 +74,7 @@ public final class Config
     private static final ConfigValue<Integer> advancedTurtleFuelLimit;
     private static final ConfigValue<Boolean> turtlesObeyBlockProtection;
     private static final ConfigValue<Boolean> turtlesCanPush;
+    private static final ConfigValue<Integer> turtleMaxCommandsPerTick;
     private static final ConfigValue<List<? extends String>> turtleDisabledActions;
 
     private static final ConfigValue<Integer> computerTermWidth;
@@ -147,6 +152,12 @@ public final class Config
                 .worldRestart()
                 .defineInRange( "computer_threads", ComputerCraft.computerThreads, 1, Integer.MAX_VALUE );
 
+            computerThreadWorkStealing = builder
+                .comment( "Give each computer thread its own queue of computers, with idle threads taking work from busier ones.\n" +
+                    "This reduces contention between threads, and so is recommended when using a large number of computer threads." )
+                .worldRestart()
+                .define( "work_stealing", ComputerCraft.computerThreadWorkStealing );
+
             maxMainGlobalTime = builder
                 .comment( "The maximum time that can be spent executing tasks in a single tick, in milliseconds.\n" +
                     "Note, we will quite possibly go over this limit, as there's no way to tell how long a will take " +
@@ -159,6 +170,24 @@ public final class Config
                     "- this aims to be the upper bound of the average time." )
                 .defineInRange( "max_main_computer_time", (int) TimeUnit.NANOSECONDS.toMillis( ComputerCraft.maxMainComputerTime ), 1, Integer.MAX_VALUE );
 
+            maxTaskAllocation = builder
+                .comment( "The maximum amount of memory a computer may allocate without yielding, in megabytes. Computers " +
+                    "which go over this limit will have an error thrown, much like when they run for too long without yielding.\n" +
+                    "Allocations are sampled, so this is only approximate. Set to 0 to disable." )
+                .defineInRange( "max_task_allocation", (int) (ComputerCraft.maxTaskAllocation >> 20), 0, Integer.MAX_VALUE );
+
+            coroutineVirtualThreads = builder
+                .comment( "Run Lua coroutines on virtual threads, when supported by the current Java version (21 or later).\n" +
+                    "Otherwise, each coroutine which yields from within Java code requires its own system thread.\n" +
+                    "Changing this requires restarting the game." )
+                .define( "virtual_thread_coroutines", ComputerCraft.coroutineVirtualThreads );
+
+            maxBootsPerTick = builder
+                .comment( "The maximum number of computers which may start in a single tick. When a world is loaded, " +
+                    "computers are started over several ticks instead, with ones near players or recently used ones " +
+                    "going first. Set to 0 to start every computer immediately." )
+                .defineInRange( "max_boots_per_tick", ComputerCraft.maxBootsPerTick, 0, Integer.MAX_VALUE );
+
             builder.pop();
         }
 
@@ -260,6 +289,13 @@ public final class Config
                 .comment( "If set to true, Turtles will push entities out of the way instead of stopping if there is space to do so" )
                 .define( "can_push", ComputerCraft.turtlesCanPush );
 
+            turtleMaxCommandsPerTick = builder
+                .comment( "The maximum number of commands a turtle may run in a single tick. By default turtles run one command\n" +
+                    "a tick. When set higher, commands which do not play an animation (such as detecting, comparing and\n" +
+                    "inspecting blocks, or moving items) are run back-to-back until the computer runs out of time\n" +
+                    "(see max_main_computer_time). Moving, digging, placing, etc... still take the same time as before." )
+                .defineInRange( "max_commands_per_tick", ComputerCraft.turtleMaxCommandsPerTick, 1, Integer.MAX_VALUE );
+
             turtleDisabledActions = builder
                 .comment( "A list of turtle actions which are disabled." )
                 .defineList( "disabled_actions", Collections.emptyList(), x -> x instanceof String && getAction( (String) x ) != null );
@@ -324,8 +360,12 @@ public final class Config
 
         // Execution
         ComputerCraft.computerThreads = computerThreads.get();
+        ComputerCraft.computerThreadWorkStealing = computerThreadWorkStealing.get();
         ComputerCraft.maxMainGlobalTime = TimeUnit.MILLISECONDS.toNanos( maxMainGlobalTime.get() );
         ComputerCraft.maxMainComputerTime = TimeUnit.MILLISECONDS.toNanos( maxMainComputerTime.get() );
+        ComputerCraft.maxTaskAllocation = (long) maxTaskAllocation.get() << 20;
+        ComputerCraft.coroutineVirtualThreads = coroutineVirtualThreads.get();
+        ComputerCraft.maxBootsPerTick = maxBootsPerTick.get();
 
         // HTTP
         ComputerCraft.httpEnabled = httpEnabled.get();
@@ -351,6 +391,7 @@ public final class Config
         ComputerCraft.advancedTurtleFuelLimit = advancedTurtleFuelLimit.get();
         ComputerCraft.turtlesObeyBlockProtection = turtlesObeyBlockProtection.get();
         ComputerCraft.turtlesCanPush = turtlesCanPush.get();
+        ComputerCraft.turtleMaxCommandsPerTick = turtleMaxCommandsPerTick.get();
 
         ComputerCraft.turtleDisabledActions.clear();
         for( String value : turtleDisabledActions.get() ) ComputerCraft.turtleDisabledActions.add( getAction( value ) );
@@ -6,6 +6,7 @@
 package dan200.computercraft.shared.common;
 
 import dan200.computercraft.core.terminal.Terminal;
+import dan200.computercraft.shared.network.client.TerminalDelta;
 import dan200.computercraft.shared.network.client.TerminalState;
 
 public class ClientTerminal implements ITerminal
@@ -14,6 +15,18 @@ public class ClientTerminal implements ITerminal
     private Terminal terminal;
     private boolean terminalChanged;
 
+    /**
+     * The sequence number of the last update applied to this terminal.
+     *
+     * @see TerminalDelta#sequence
+     */
+    private int sequence;
+
+    /**
+     * Whether we have missed an update, and so are waiting for a full {@link TerminalState}.
+     */
+    private boolean desynced;
+
     public ClientTerminal( boolean colour )
     {
         this.colour = colour;
@@ -45,6 +58,8 @@ public class ClientTerminal implements ITerminal
     public void read( TerminalState state )
     {
         colour = state.colour;
+        sequence = state.sequence;
+        desynced = false;
         if( state.hasTerminal() )
         {
             resizeTerminal( state.width, state.height );
@@ -56,6 +71,28 @@ public class ClientTerminal implements ITerminal
         }
     }
 
+    /**
+     * Apply a delta to this terminal.
+     *
+     * @param delta The delta to apply.
+     * @return {@code false} if this delta could not be applied and we were not already out of sync. The caller should
+     * then request a full {@link TerminalState} from the server.
+     */
+    public boolean read( TerminalDelta delta )
+    {
+        if( desynced ) return true;
+
+        if( terminal == null || !delta.canApply( terminal, sequence ) )
+        {
+            desynced = true;
+            return false;
+        }
+
+        delta.apply( terminal );
+        sequence = delta.sequence + 1;
+        return true;
+    }
+
     private void resizeTerminal( int width, int height )
     {
         if( terminal == null )
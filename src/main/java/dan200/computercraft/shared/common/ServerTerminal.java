@@ -6,17 +6,54 @@
 package dan200.computercraft.shared.common;
 
 import dan200.computercraft.core.terminal.Terminal;
+import dan200.computercraft.shared.network.client.TerminalDelta;
 import dan200.computercraft.shared.network.client.TerminalState;
 
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class ServerTerminal implements ITerminal
 {
+    /**
+     * All terminals which have cached a {@link TerminalState} this tick.
+     *
+     * @see #releaseCachedStates()
+     */
+    private static final List<ServerTerminal> cachedTerminals = new ArrayList<>();
+
     private final boolean colour;
     private Terminal terminal;
     private final AtomicBoolean terminalChanged = new AtomicBoolean( false );
     private boolean terminalChangedLastFrame = false;
 
+    /**
+     * Whether the next update must be a full {@link TerminalState}, rather than a {@link TerminalDelta}.
+     */
+    private final AtomicBoolean fullUpdate = new AtomicBoolean( true );
+
+    /**
+     * The sequence number of the last update sent to all viewers.
+     *
+     * @see TerminalDelta#sequence
+     */
+    private int sequence;
+
+    /**
+     * Incremented whenever the terminal changes. This is used to determine whether {@link #cachedState} is still
+     * up-to-date.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    /**
+     * The last snapshot built by {@link #write()}, shared between every player and packet which needs it this tick.
+     */
+    private TerminalState cachedState;
+    private int cachedGeneration;
+    private int cachedSequence;
+
     public ServerTerminal( boolean colour )
     {
         this.colour = colour;
@@ -34,10 +71,12 @@ public class ServerTerminal implements ITerminal
         if( terminal == null )
         {
             terminal = new Terminal( width, height, this::markTerminalChanged );
+            fullUpdate.set( true );
             markTerminalChanged();
         }
-        else
+        else if( terminal.getWidth() != width || terminal.getHeight() != height )
         {
+            fullUpdate.set( true );
             terminal.resize( width, height );
         }
     }
@@ -47,12 +86,24 @@ public class ServerTerminal implements ITerminal
         if( terminal != null )
         {
             terminal = null;
+            fullUpdate.set( true );
             markTerminalChanged();
         }
     }
 
+    /**
+     * Require the next update to be a full {@link TerminalState}. This should be used when the set of viewers changes
+     * in a way which is not otherwise tracked.
+     */
+    protected void requireFullUpdate()
+    {
+        fullUpdate.set( true );
+        markTerminalChanged();
+    }
+
     protected void markTerminalChanged()
     {
+        generation.incrementAndGet();
         terminalChanged.set( true );
     }
 
@@ -78,8 +129,94 @@ public class ServerTerminal implements ITerminal
         return colour;
     }
 
+    /**
+     * Create a full snapshot of this terminal.
+     *
+     * This does not consume any changes, and so may be sent to individual players who have just started viewing this
+     * terminal. Later deltas can be applied on top of it: any pending scroll is converted to dirty lines (see
+     * {@link Terminal#flattenScroll()}), so the next delta is safe to apply to both this snapshot and older copies.
+     *
+     * The snapshot is cached until the end of the tick (or the terminal next changes), so that it is only encoded and
+     * compressed once, no matter how many players it is sent to. This should only be called from the server thread.
+     *
+     * @return The terminal's current state. The caller should {@link TerminalState#release() release} this once sent.
+     */
     public TerminalState write()
     {
-        return new TerminalState( colour, terminal );
+        // Read the generation before encoding the terminal. If it changes while we're encoding, then the next call
+        // will just re-encode it.
+        int generation = this.generation.get();
+        TerminalState state = cachedState;
+        if( state != null && cachedGeneration == generation && cachedSequence == sequence ) return state.retain();
+
+        if( state == null )
+        {
+            cachedTerminals.add( this );
+        }
+        else
+        {
+            state.release();
+        }
+
+        Terminal terminal = this.terminal;
+        if( terminal == null )
+        {
+            state = new TerminalState( colour, null, true, sequence );
+        }
+        else
+        {
+            // The next delta has the same sequence number as this snapshot, and so must not contain any changes which
+            // are already included in it. Lock the terminal so it cannot scroll again between these two steps.
+            synchronized( terminal )
+            {
+                terminal.flattenScroll();
+                state = new TerminalState( colour, terminal, true, sequence );
+            }
+        }
+
+        cachedState = state;
+        cachedGeneration = generation;
+        cachedSequence = sequence;
+        return state.retain();
+    }
+
+    private void releaseCachedState()
+    {
+        TerminalState state = cachedState;
+        if( state == null ) return;
+
+        cachedState = null;
+        state.release();
+    }
+
+    /**
+     * Release every cached {@link TerminalState}, returning their buffers to the pool. This is called at the start of
+     * every server tick.
+     */
+    public static void releaseCachedStates()
+    {
+        for( ServerTerminal terminal : cachedTerminals ) terminal.releaseCachedState();
+        cachedTerminals.clear();
+    }
+
+    /**
+     * Consume all changes since the previous update, to be sent to every player viewing this terminal.
+     *
+     * @param force Whether a full snapshot should be sent, even if a delta would do.
+     * @return The changes to this terminal, or {@code null} if viewers should instead be sent a full snapshot from
+     * {@link #write()}. The caller should {@link TerminalDelta#release() release} this once sent.
+     */
+    @Nullable
+    public TerminalDelta writeDelta( boolean force )
+    {
+        Terminal terminal = this.terminal;
+        if( fullUpdate.getAndSet( false ) || force || terminal == null )
+        {
+            if( terminal != null ) terminal.clearDirty();
+            sequence++;
+            return null;
+        }
+
+        return new TerminalDelta( terminal, sequence++ );
     }
 }
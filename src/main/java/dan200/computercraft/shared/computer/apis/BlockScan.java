@@ -0,0 +1,181 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.computer.apis;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.shared.computer.core.ServerComputer;
+import dan200.computercraft.shared.peripheral.generic.data.BlockData;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+
+import javax.annotation.Nonnull;
+import java.nio.ByteBuffer;
+import java.util.*;
+
+/**
+ * A scan of a region of blocks, started by {@link CommandAPI#scanBlocks}.
+ *
+ * The region is split into chunk sections, which are read directly from the chunk. Each section is encoded as a
+ * palette of block states and a packed string of indices into that palette.
+ *
+ * We only read chunks which are already loaded: loading (or worse, generating) a chunk on the main thread may take
+ * far longer than our time limit, and nothing would keep the chunk loaded afterwards. Sections in unloaded chunks are
+ * instead reported as such, and may be scanned again later.
+ *
+ * Scans are run as a series of main thread tasks, each running for at most {@link ComputerCraft#maxMainComputerTime}
+ * and then queuing a {@code block_scan} event with the sections it read.
+ */
+final class BlockScan implements Runnable
+{
+    static final String EVENT = "block_scan";
+
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    private final ServerComputer computer;
+    private final World world;
+    private final int id;
+    private final BlockPos min;
+    private final BlockPos max;
+
+    /**
+     * The information about each block state. Block states are interned, so we can safely compare them by identity.
+     */
+    private final Map<BlockState, Map<String, ?>> blocks = new IdentityHashMap<>();
+
+    /**
+     * The minimum corner of the next section to scan.
+     */
+    private int x, y, z;
+
+    BlockScan( ServerComputer computer, World world, int id, BlockPos min, BlockPos max )
+    {
+        this.computer = computer;
+        this.world = world;
+        this.id = id;
+        this.min = min;
+        this.max = max;
+
+        x = min.getX();
+        y = min.getY();
+        z = min.getZ();
+    }
+
+    /**
+     * Queue the next part of this scan.
+     */
+    void queue()
+    {
+        if( !computer.getComputer().queueMainThread( this ) )
+        {
+            computer.queueEvent( EVENT, new Object[] { id, Collections.emptyList(), true, "Too many pending tasks" } );
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        if( !computer.isOn() ) return;
+
+        long deadline = System.nanoTime() + ComputerCraft.maxMainComputerTime;
+        List<Map<String, ?>> sections = new ArrayList<>();
+        boolean done;
+        do
+        {
+            sections.add( scanSection() );
+            done = !advance();
+        } while( !done && System.nanoTime() < deadline );
+
+        computer.queueEvent( EVENT, new Object[] { id, sections, done } );
+        if( !done ) queue();
+    }
+
+    /**
+     * Move onto the next section, in the same order as {@link CommandAPI#getBlockInfos}: by ascending y, then z and x.
+     *
+     * @return Whether there are any more sections to scan.
+     */
+    private boolean advance()
+    {
+        x = (x & ~15) + 16;
+        if( x <= max.getX() ) return true;
+        x = min.getX();
+
+        z = (z & ~15) + 16;
+        if( z <= max.getZ() ) return true;
+        z = min.getZ();
+
+        y = (y & ~15) + 16;
+        return y <= max.getY();
+    }
+
+    @Nonnull
+    private Map<String, ?> scanSection()
+    {
+        int maxX = Math.min( x | 15, max.getX() ), maxY = Math.min( y | 15, max.getY() ), maxZ = Math.min( z | 15, max.getZ() );
+        int width = maxX - x + 1, height = maxY - y + 1, depth = maxZ - z + 1;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put( "x", x );
+        result.put( "y", y );
+        result.put( "z", z );
+        result.put( "width", width );
+        result.put( "height", height );
+        result.put( "depth", depth );
+
+        Chunk chunk = world.getChunkSource().getChunkNow( x >> 4, z >> 4 );
+        result.put( "loaded", chunk != null );
+        if( chunk == null ) return result;
+
+        ChunkSection section = chunk.getSections()[y >> 4];
+        if( section != null && section.isEmpty() ) section = null;
+
+        Map<BlockState, Integer> palette = new IdentityHashMap<>();
+        List<Map<String, ?>> paletteInfo = new ArrayList<>();
+        short[] indices = new short[width * height * depth];
+
+        int i = 0;
+        for( int by = y; by <= maxY; by++ )
+        {
+            for( int bz = z; bz <= maxZ; bz++ )
+            {
+                for( int bx = x; bx <= maxX; bx++ )
+                {
+                    BlockState state = section == null ? AIR : section.getBlockState( bx & 15, by & 15, bz & 15 );
+                    Integer index = palette.get( state );
+                    if( index == null )
+                    {
+                        palette.put( state, index = paletteInfo.size() );
+                        paletteInfo.add( blocks.computeIfAbsent( state, s -> BlockData.fill( new HashMap<>(), s ) ) );
+                    }
+
+                    indices[i++] = (short) (int) index;
+                }
+            }
+        }
+
+        // Use a single byte per block when we can, and two (big-endian) bytes otherwise.
+        ByteBuffer packed;
+        if( paletteInfo.size() <= 256 )
+        {
+            packed = ByteBuffer.allocate( indices.length );
+            for( short index : indices ) packed.put( (byte) index );
+        }
+        else
+        {
+            packed = ByteBuffer.allocate( indices.length * 2 );
+            for( short index : indices ) packed.putShort( index );
+        }
+        packed.flip();
+
+        result.put( "palette", paletteInfo );
+        result.put( "blocks", packed );
+        return result;
+    }
+}
@@ -10,6 +10,7 @@ import com.mojang.brigadier.tree.LiteralCommandNode;
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.lua.*;
 import dan200.computercraft.shared.computer.blocks.TileCommandComputer;
+import dan200.computercraft.shared.computer.core.ServerComputer;
 import dan200.computercraft.shared.peripheral.generic.data.BlockData;
 import dan200.computercraft.shared.util.NBTUtil;
 import net.minecraft.block.BlockState;
@@ -28,11 +29,19 @@ import java.util.*;
  */
 public class CommandAPI implements ILuaAPI
 {
+    /**
+     * The maximum number of blocks which may be scanned by {@link #scanBlocks}: a full-height 256x256 area.
+     */
+    private static final int MAX_SCAN_BLOCKS = 256 * 256 * 256;
+
     private final TileCommandComputer computer;
+    private final ServerComputer serverComputer;
+    private int nextScanId;
 
-    public CommandAPI( TileCommandComputer computer )
+    public CommandAPI( TileCommandComputer computer, ServerComputer serverComputer )
     {
         this.computer = computer;
+        this.serverComputer = serverComputer;
     }
 
     @Override
@@ -233,6 +242,88 @@ public class CommandAPI implements ILuaAPI
         return results;
     }
 
+    /**
+     * Scan a large region of blocks, in the background.
+     *
+     * Unlike {@link #getBlockInfos}, this immediately returns, and then scans the region over several ticks. Results
+     * are delivered as a series of `block_scan` events. Each event contains the scan's id, a list of scanned sections,
+     * and whether the scan has finished.
+     *
+     * The region is split along chunk section boundaries (16x16x16 blocks). Each section is a table containing its
+     * minimum corner (`x`, `y` and `z`), its size (`width`, `height` and `depth`), a `palette` of the distinct blocks
+     * in this section, and a `blocks` string. Each block is represented by one byte in this string, which is the
+     * (0-based) index of its entry in the palette. If the palette has more than 256 entries, each block is instead
+     * two bytes, in big-endian order. Blocks are ordered the same as {@link #getBlockInfos}.
+     *
+     * Only chunks which are already loaded are scanned. Sections within unloaded chunks have `loaded` set to `false`,
+     * and no `palette` or `blocks`.
+     *
+     * Palette entries contain the same information as @{getBlockInfo}, apart from the block entity's NBT.
+     *
+     * @param minX The start x coordinate of the range to query.
+     * @param minY The start y coordinate of the range to query.
+     * @param minZ The start z coordinate of the range to query.
+     * @param maxX The end x coordinate of the range to query.
+     * @param maxY The end y coordinate of the range to query.
+     * @param maxZ The end z coordinate of the range to query.
+     * @return The id of this scan, included in each `block_scan` event.
+     * @throws LuaException If the coordinates are not within the world.
+     * @throws LuaException If trying to scan more than 16777216 blocks.
+     * @cc.usage Count the number of diamond ore blocks around the computer.
+     * <pre>{@code
+     * local x, y, z = commands.getBlockPosition()
+     * local id = commands.scanBlocks(x - 128, 0, z - 128, x + 127, 255, z + 127)
+     *
+     * local count = 0
+     * repeat
+     *   local _, scan, sections, done = os.pullEvent("block_scan")
+     *   if scan == id then
+     *     for _, section in ipairs(sections) do
+     *       if section.loaded then
+     *         -- Sections with more than 256 distinct blocks use two bytes per block.
+     *         local blocks, wide = section.blocks, #section.palette > 256
+     *         for i = 1, #blocks, wide and 2 or 1 do
+     *           local index = wide and blocks:byte(i) * 256 + blocks:byte(i + 1) or blocks:byte(i)
+     *           if section.palette[index + 1].name == "minecraft:diamond_ore" then count = count + 1 end
+     *         end
+     *       end
+     *     end
+     *   end
+     * until scan == id and done
+     * print(count)
+     * }</pre>
+     */
+    @LuaFunction
+    public final int scanBlocks( int minX, int minY, int minZ, int maxX, int maxY, int maxZ ) throws LuaException
+    {
+        BlockPos min = new BlockPos(
+            Math.min( minX, maxX ),
+            Math.min( minY, maxY ),
+            Math.min( minZ, maxZ )
+        );
+        BlockPos max = new BlockPos(
+            Math.max( minX, maxX ),
+            Math.max( minY, maxY ),
+            Math.max( minZ, maxZ )
+        );
+        if( !World.isInWorldBounds( min ) || !World.isInWorldBounds( max ) )
+        {
+            throw new LuaException( "Co-ordinates out of range" );
+        }
+
+        long blocks = (long) (max.getX() - min.getX() + 1) * (max.getY() - min.getY() + 1) * (max.getZ() - min.getZ() + 1);
+        if( blocks > MAX_SCAN_BLOCKS ) throw new LuaException( "Too many blocks" );
+
+        int id;
+        synchronized( this )
+        {
+            id = ++nextScanId;
+        }
+
+        new BlockScan( serverComputer, computer.getLevel(), id, min, max ).queue();
+        return id;
+    }
+
     /**
      * Get some basic information about a block.
      *
@@ -108,7 +108,7 @@ public class TileCommandComputer extends TileComputer
     protected ServerComputer createComputer( int instanceID, int id )
     {
         ServerComputer computer = super.createComputer( instanceID, id );
-        computer.addAPI( new CommandAPI( this ) );
+        computer.addAPI( new CommandAPI( this, computer ) );
         return computer;
     }
 
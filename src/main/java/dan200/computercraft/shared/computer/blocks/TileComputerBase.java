@@ -173,7 +173,7 @@ public abstract class TileComputerBase extends TileGeneric implements IComputerT
             fresh = false;
             computerID = computer.getID();
             label = computer.getLabel();
-            on = computer.isOn();
+            on = computer.isOn() || computer.isQueued();
 
             if( computer.hasOutputChanged() ) updateOutput();
 
@@ -0,0 +1,199 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.computer.core;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.core.tracking.Tracking;
+import dan200.computercraft.core.tracking.TrackingField;
+import net.minecraft.entity.player.PlayerEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+/**
+ * Limits how many {@link ServerComputer}s may start in a single tick.
+ *
+ * When a world is loaded, every computer which was on starts at once. Booting is relatively expensive (setting up the
+ * Lua machine, mounting the file system, running the bios and startup programs), and so this can cause a large lag
+ * spike. Instead, computers are queued here and only {@link ComputerCraft#maxBootsPerTick} are admitted each tick.
+ *
+ * Computers which a player has recently interacted with are started first, followed by those closest to a player. As
+ * players move (or join) while the queue is draining, priorities are recomputed every {@link #REPRIORITISE_INTERVAL}
+ * ticks.
+ *
+ * Computers may be queued from any thread (for instance, by a {@code computer} peripheral), but the queue is only
+ * drained from the server thread in {@link #update()}.
+ */
+public final class BootScheduler
+{
+    private static final int REPRIORITISE_INTERVAL = 20;
+
+    private static final Comparator<Entry> ORDER = Comparator
+        .comparing( ( Entry x ) -> !x.interactive )
+        .thenComparingDouble( x -> x.distance )
+        .thenComparingLong( x -> x.sequence );
+
+    private static final Object lock = new Object();
+
+    /**
+     * Computers which have been queued since the last {@link #update()}, and have not yet been prioritised.
+     */
+    private static final List<Entry> pending = new ArrayList<>();
+
+    /**
+     * Every computer waiting to start, whether it is in {@link #pending} or {@link #queue}.
+     */
+    private static final Set<ServerComputer> queued = new HashSet<>();
+
+    private static PriorityQueue<Entry> queue = new PriorityQueue<>( ORDER );
+    private static long sequence;
+    private static int ticksSincePrioritised;
+
+    private BootScheduler()
+    {
+    }
+
+    /**
+     * Queue a computer to be started.
+     *
+     * @param computer The computer to start.
+     */
+    static void queue( @Nonnull ServerComputer computer )
+    {
+        synchronized( lock )
+        {
+            if( queued.add( computer ) ) pending.add( new Entry( computer, sequence++ ) );
+        }
+    }
+
+    /**
+     * Determine whether a computer is waiting to start.
+     *
+     * @param computer The computer to check.
+     * @return Whether this computer is in the boot queue.
+     */
+    static boolean isQueued( @Nonnull ServerComputer computer )
+    {
+        synchronized( lock )
+        {
+            return queued.contains( computer );
+        }
+    }
+
+    /**
+     * Get the number of computers waiting to start.
+     *
+     * @return The size of the boot queue.
+     */
+    public static int size()
+    {
+        synchronized( lock )
+        {
+            return queued.size();
+        }
+    }
+
+    /**
+     * Start as many queued computers as this tick's budget allows. This should be called at the start of every server
+     * tick, before the computers are ticked.
+     */
+    static void update()
+    {
+        List<Entry> added;
+        synchronized( lock )
+        {
+            if( queued.isEmpty() ) return;
+
+            added = pending.isEmpty() ? Collections.emptyList() : new ArrayList<>( pending );
+            pending.clear();
+        }
+
+        int budget = ComputerCraft.maxBootsPerTick <= 0 ? Integer.MAX_VALUE : ComputerCraft.maxBootsPerTick;
+
+        for( Entry entry : added )
+        {
+            Tracking.addValue( entry.computer.getComputer(), TrackingField.BOOT_QUEUE, queue.size() );
+            entry.prioritise();
+            queue.add( entry );
+        }
+
+        // If we can't start everything this tick, periodically recompute priorities, as players may have moved.
+        if( queue.size() > budget && ++ticksSincePrioritised >= REPRIORITISE_INTERVAL )
+        {
+            for( Entry entry : queue ) entry.prioritise();
+            queue = new PriorityQueue<>( queue );
+            ticksSincePrioritised = 0;
+        }
+
+        long now = System.nanoTime();
+        while( budget > 0 )
+        {
+            Entry entry = queue.poll();
+            if( entry == null ) break;
+
+            ServerComputer computer = entry.computer;
+            synchronized( lock )
+            {
+                queued.remove( computer );
+            }
+
+            // Skip computers which were unloaded or turned on some other way while waiting, without using up the budget.
+            if( computer.isOn() || computer.isUnloaded() )
+            {
+                continue;
+            }
+
+            budget--;
+            Tracking.addValue( computer.getComputer(), TrackingField.BOOT_WAIT, now - entry.queued );
+            computer.getComputer().turnOn();
+        }
+    }
+
+    static void reset()
+    {
+        synchronized( lock )
+        {
+            pending.clear();
+            queued.clear();
+            queue.clear();
+            ticksSincePrioritised = 0;
+        }
+    }
+
+    private static final class Entry
+    {
+        final ServerComputer computer;
+        final long sequence;
+        final long queued = System.nanoTime();
+
+        boolean interactive;
+        double distance = Double.MAX_VALUE;
+
+        Entry( ServerComputer computer, long sequence )
+        {
+            this.computer = computer;
+            this.sequence = sequence;
+        }
+
+        void prioritise()
+        {
+            interactive = computer.hasRecentInteraction();
+
+            World world = computer.getWorld();
+            BlockPos pos = computer.getPosition();
+            distance = Double.MAX_VALUE;
+            if( world == null || pos == null ) return;
+
+            for( PlayerEntity player : world.players() )
+            {
+                double playerDistance = player.distanceToSqr( pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5 );
+                if( playerDistance < distance ) distance = playerDistance;
+            }
+        }
+    }
+}
@@ -22,6 +22,10 @@ import dan200.computercraft.shared.network.NetworkMessage;
 import dan200.computercraft.shared.network.client.ComputerDataClientMessage;
 import dan200.computercraft.shared.network.client.ComputerDeletedClientMessage;
 import dan200.computercraft.shared.network.client.ComputerTerminalClientMessage;
+import dan200.computercraft.shared.network.client.ComputerTerminalDeltaClientMessage;
+import dan200.computercraft.shared.network.client.TerminalDelta;
+import dan200.computercraft.shared.network.client.TerminalState;
+import io.netty.util.ReferenceCounted;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.inventory.container.Container;
 import net.minecraft.nbt.CompoundNBT;
@@ -37,6 +41,12 @@ import java.io.InputStream;
 
 public class ServerComputer extends ServerTerminal implements IComputer, IComputerEnvironment
 {
+    /**
+     * How long after a player last interacted with this computer it should be prioritised by the
+     * {@link BootScheduler}.
+     */
+    private static final int INTERACTION_TIMEOUT = 20 * 30;
+
     private final int instanceID;
 
     private World world;
@@ -49,6 +59,8 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
 
     private boolean changedLastFrame;
     private int ticksSincePing;
+    private int ticksSinceInteraction = INTERACTION_TIMEOUT;
+    private volatile boolean unloaded;
 
     public ServerComputer( World world, int computerID, String label, int instanceID, ComputerFamily family, int terminalWidth, int terminalHeight )
     {
@@ -106,6 +118,7 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
         changed = false;
 
         ticksSincePing++;
+        if( ticksSinceInteraction < INTERACTION_TIMEOUT ) ticksSinceInteraction++;
     }
 
     public void keepAlive()
@@ -118,6 +131,19 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
         return ticksSincePing > 100;
     }
 
+    /**
+     * Mark this computer as having been used by a player, such as opening its GUI or typing into it.
+     */
+    public void markInteracted()
+    {
+        ticksSinceInteraction = 0;
+    }
+
+    public boolean hasRecentInteraction()
+    {
+        return ticksSinceInteraction < INTERACTION_TIMEOUT;
+    }
+
     public boolean hasOutputChanged()
     {
         return changedLastFrame;
@@ -125,9 +151,31 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
 
     public void unload()
     {
+        unloaded = true;
         computer.unload();
     }
 
+    /**
+     * Whether this computer has been unloaded, and so should not be started again.
+     *
+     * @return Whether {@link #unload()} has been called.
+     */
+    public boolean isUnloaded()
+    {
+        return unloaded;
+    }
+
+    /**
+     * Whether this computer is waiting for the {@link BootScheduler} to start it. Such computers should still be
+     * saved as being on, so they start when next loaded even if they are unloaded before their turn.
+     *
+     * @return Whether this computer is queued to start.
+     */
+    public boolean isQueued()
+    {
+        return BootScheduler.isQueued( this );
+    }
+
     public CompoundNBT getUserData()
     {
         if( userData == null )
@@ -147,11 +195,6 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
         return new ComputerDataClientMessage( this );
     }
 
-    protected NetworkMessage createTerminalPacket()
-    {
-        return new ComputerTerminalClientMessage( getInstanceID(), write() );
-    }
-
     public void broadcastState( boolean force )
     {
         if( hasOutputChanged() || force )
@@ -162,18 +205,41 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
 
         if( hasTerminalChanged() || force )
         {
-            // Send terminal state to clients who are currently interacting with the computer.
+            // Send terminal state to clients who are currently viewing the computer. As every viewer receives every
+            // update, we can just send the changes since the last one.
             MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
 
+            ReferenceCounted contents = null;
             NetworkMessage packet = null;
-            for( PlayerEntity player : server.getPlayerList().getPlayers() )
+            try
             {
-                if( isInteracting( player ) )
+                for( PlayerEntity player : server.getPlayerList().getPlayers() )
                 {
-                    if( packet == null ) packet = createTerminalPacket();
+                    if( !isViewing( player ) ) continue;
+
+                    if( packet == null )
+                    {
+                        TerminalDelta delta = writeDelta( force );
+                        if( delta == null )
+                        {
+                            TerminalState state = write();
+                            contents = state;
+                            packet = new ComputerTerminalClientMessage( getInstanceID(), state );
+                        }
+                        else
+                        {
+                            contents = delta;
+                            packet = new ComputerTerminalDeltaClientMessage( getInstanceID(), delta );
+                        }
+                    }
+
                     NetworkHandler.sendToPlayer( player, packet );
                 }
             }
+            finally
+            {
+                if( contents != null ) contents.release();
+            }
         }
     }
 
@@ -186,7 +252,15 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
     public void sendTerminalState( PlayerEntity player )
     {
         // Send terminal state to client
-        NetworkHandler.sendToPlayer( player, createTerminalPacket() );
+        TerminalState state = write();
+        try
+        {
+            NetworkHandler.sendToPlayer( player, new ComputerTerminalClientMessage( getInstanceID(), state ) );
+        }
+        finally
+        {
+            state.release();
+        }
     }
 
     public void broadcastDelete()
@@ -233,8 +307,8 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
     @Override
     public void turnOn()
     {
-        // Turn on
-        computer.turnOn();
+        // Turn on. This goes via the boot scheduler, so many computers starting at once don't lag the server.
+        if( !computer.isOn() ) BootScheduler.queue( this );
     }
 
     @Override
@@ -372,4 +446,15 @@ public class ServerComputer extends ServerTerminal implements IComputer, IComput
     {
         return getContainer( player ) != null;
     }
+
+    /**
+     * Determine whether a player can see this computer's terminal, and so should be sent any changes to it.
+     *
+     * @param player The player to check.
+     * @return Whether this player is viewing the terminal.
+     */
+    public boolean isViewing( PlayerEntity player )
+    {
+        return isInteracting( player );
+    }
 }
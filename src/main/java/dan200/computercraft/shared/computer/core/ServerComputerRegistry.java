@@ -11,6 +11,8 @@ public class ServerComputerRegistry extends ComputerRegistry<ServerComputer>
 {
     public void update()
     {
+        BootScheduler.update();
+
         Iterator<ServerComputer> it = getComputers().iterator();
         while( it.hasNext() )
         {
@@ -65,6 +67,7 @@ public class ServerComputerRegistry extends ComputerRegistry<ServerComputer>
         {
             computer.unload();
         }
+        BootScheduler.reset();
         super.reset();
         //System.out.println( getComputers().size() + " SERVER COMPUTERS" );
     }
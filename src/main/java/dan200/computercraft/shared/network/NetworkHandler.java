@@ -48,6 +48,7 @@ public final class NetworkHandler
         registerMainThread( 2, NetworkDirection.PLAY_TO_SERVER, RequestComputerMessage::new );
         registerMainThread( 3, NetworkDirection.PLAY_TO_SERVER, KeyEventServerMessage::new );
         registerMainThread( 4, NetworkDirection.PLAY_TO_SERVER, MouseEventServerMessage::new );
+        registerMainThread( 5, NetworkDirection.PLAY_TO_SERVER, RequestMonitorMessage.class, RequestMonitorMessage::new );
 
         // Client messages
         registerMainThread( 10, NetworkDirection.PLAY_TO_CLIENT, ChatTableClientMessage::new );
@@ -56,6 +57,8 @@ public final class NetworkHandler
         registerMainThread( 13, NetworkDirection.PLAY_TO_CLIENT, ComputerTerminalClientMessage::new );
         registerMainThread( 14, NetworkDirection.PLAY_TO_CLIENT, PlayRecordClientMessage.class, PlayRecordClientMessage::new );
         registerMainThread( 15, NetworkDirection.PLAY_TO_CLIENT, MonitorClientMessage.class, MonitorClientMessage::new );
+        registerMainThread( 16, NetworkDirection.PLAY_TO_CLIENT, ComputerTerminalDeltaClientMessage::new );
+        registerMainThread( 17, NetworkDirection.PLAY_TO_CLIENT, MonitorDeltaClientMessage.class, MonitorDeltaClientMessage::new );
     }
 
     public static void sendToPlayer( PlayerEntity player, NetworkMessage packet )
@@ -41,6 +41,13 @@ public class ComputerTerminalClientMessage extends ComputerClientMessage
     @Override
     public void handle( NetworkEvent.Context context )
     {
-        getComputer().read( state );
+        try
+        {
+            getComputer().read( state );
+        }
+        finally
+        {
+            state.release();
+        }
     }
 }
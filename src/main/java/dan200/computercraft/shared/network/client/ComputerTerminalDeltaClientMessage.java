@@ -0,0 +1,58 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.network.client;
+
+import dan200.computercraft.shared.computer.core.ClientComputer;
+import net.minecraft.network.PacketBuffer;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sends the changes to a computer's terminal, as an alternative to a full {@link ComputerTerminalClientMessage}.
+ */
+public class ComputerTerminalDeltaClientMessage extends ComputerClientMessage
+{
+    private TerminalDelta delta;
+
+    public ComputerTerminalDeltaClientMessage( int instanceId, TerminalDelta delta )
+    {
+        super( instanceId );
+        this.delta = delta;
+    }
+
+    public ComputerTerminalDeltaClientMessage()
+    {
+    }
+
+    @Override
+    public void toBytes( @Nonnull PacketBuffer buf )
+    {
+        super.toBytes( buf );
+        delta.write( buf );
+    }
+
+    @Override
+    public void fromBytes( @Nonnull PacketBuffer buf )
+    {
+        super.fromBytes( buf );
+        delta = new TerminalDelta( buf );
+    }
+
+    @Override
+    public void handle( NetworkEvent.Context context )
+    {
+        try
+        {
+            ClientComputer computer = getComputer();
+            if( !computer.read( delta ) ) computer.requestState();
+        }
+        finally
+        {
+            delta.release();
+        }
+    }
+}
@@ -43,12 +43,19 @@ public class MonitorClientMessage implements NetworkMessage
     @Override
     public void handle( NetworkEvent.Context context )
     {
-        ClientPlayerEntity player = Minecraft.getInstance().player;
-        if( player == null || player.level == null ) return;
-
-        TileEntity te = player.level.getBlockEntity( pos );
-        if( !(te instanceof TileMonitor) ) return;
-
-        ((TileMonitor) te).read( state );
+        try
+        {
+            ClientPlayerEntity player = Minecraft.getInstance().player;
+            if( player == null || player.level == null ) return;
+
+            TileEntity te = player.level.getBlockEntity( pos );
+            if( !(te instanceof TileMonitor) ) return;
+
+            ((TileMonitor) te).read( state );
+        }
+        finally
+        {
+            state.release();
+        }
     }
 }
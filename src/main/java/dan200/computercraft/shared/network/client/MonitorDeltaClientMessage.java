@@ -0,0 +1,67 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.network.client;
+
+import dan200.computercraft.shared.network.NetworkHandler;
+import dan200.computercraft.shared.network.NetworkMessage;
+import dan200.computercraft.shared.network.server.RequestMonitorMessage;
+import dan200.computercraft.shared.peripheral.monitor.TileMonitor;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.entity.player.ClientPlayerEntity;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Sends the changes to a monitor's terminal, as an alternative to a full {@link MonitorClientMessage}.
+ */
+public class MonitorDeltaClientMessage implements NetworkMessage
+{
+    private final BlockPos pos;
+    private final TerminalDelta delta;
+
+    public MonitorDeltaClientMessage( BlockPos pos, TerminalDelta delta )
+    {
+        this.pos = pos;
+        this.delta = delta;
+    }
+
+    public MonitorDeltaClientMessage( @Nonnull PacketBuffer buf )
+    {
+        pos = buf.readBlockPos();
+        delta = new TerminalDelta( buf );
+    }
+
+    @Override
+    public void toBytes( @Nonnull PacketBuffer buf )
+    {
+        buf.writeBlockPos( pos );
+        delta.write( buf );
+    }
+
+    @Override
+    public void handle( NetworkEvent.Context context )
+    {
+        try
+        {
+            ClientPlayerEntity player = Minecraft.getInstance().player;
+            if( player == null || player.level == null ) return;
+
+            TileEntity te = player.level.getBlockEntity( pos );
+            if( !(te instanceof TileMonitor) ) return;
+
+            // If we've missed an update, ask the server for the whole terminal.
+            if( !((TileMonitor) te).read( delta ) ) NetworkHandler.sendToServer( new RequestMonitorMessage( pos ) );
+        }
+        finally
+        {
+            delta.release();
+        }
+    }
+}
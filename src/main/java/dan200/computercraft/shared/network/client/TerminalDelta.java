@@ -0,0 +1,130 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.network.client;
+
+import dan200.computercraft.core.terminal.Terminal;
+import io.netty.buffer.ByteBuf;
+import io.netty.util.AbstractReferenceCounted;
+import net.minecraft.network.PacketBuffer;
+
+import javax.annotation.Nonnull;
+
+/**
+ * The changes to a terminal since the previous update.
+ *
+ * Unlike {@link TerminalState}, this only contains the changed spans of each line (as well as the cursor and palette).
+ * This means it can only be applied to a terminal of the same size, which has seen every previous update. Each delta
+ * has a {@link #sequence} number: the client should only apply it if its terminal is at that sequence number, and
+ * request a full {@link TerminalState} otherwise.
+ *
+ * Like {@link TerminalState}, deltas are reference counted and should be {@link #release() released} once sent or
+ * applied.
+ *
+ * @see Terminal#writeDelta(PacketBuffer)
+ */
+public class TerminalDelta extends AbstractReferenceCounted
+{
+    /**
+     * Deltas smaller than this are sent uncompressed, as the zlib header would take up a large portion of the packet.
+     */
+    private static final int COMPRESS_THRESHOLD = 512;
+
+    public final int width;
+    public final int height;
+
+    /**
+     * The sequence number of the terminal this delta should be applied to. Once applied, the terminal will be at
+     * {@code sequence + 1}.
+     */
+    public final int sequence;
+
+    private final ByteBuf buffer;
+
+    private ByteBuf compressed;
+
+    public TerminalDelta( @Nonnull Terminal terminal, int sequence )
+    {
+        this.width = terminal.getWidth();
+        this.height = terminal.getHeight();
+        this.sequence = sequence;
+
+        ByteBuf buf = this.buffer = TerminalState.ALLOCATOR.heapBuffer();
+        terminal.writeDelta( new PacketBuffer( buf ) );
+    }
+
+    public TerminalDelta( PacketBuffer buf )
+    {
+        this.sequence = buf.readVarInt();
+        this.width = buf.readVarInt();
+        this.height = buf.readVarInt();
+
+        boolean compress = buf.readBoolean();
+        int length = buf.readVarInt();
+        this.buffer = TerminalState.readCompressed( buf, length, compress );
+    }
+
+    public void write( PacketBuffer buf )
+    {
+        buf.writeVarInt( sequence );
+        buf.writeVarInt( width );
+        buf.writeVarInt( height );
+
+        boolean compress = buffer.readableBytes() >= COMPRESS_THRESHOLD;
+        ByteBuf sendBuffer = compress ? getCompressed() : buffer;
+        buf.writeBoolean( compress );
+        buf.writeVarInt( sendBuffer.readableBytes() );
+        buf.writeBytes( sendBuffer, sendBuffer.readerIndex(), sendBuffer.readableBytes() );
+    }
+
+    public int size()
+    {
+        return buffer.readableBytes();
+    }
+
+    /**
+     * Determine whether this delta can be applied to a terminal.
+     *
+     * @param terminal The terminal to apply to.
+     * @param sequence The current sequence number of this terminal.
+     * @return Whether this terminal has the same size and has seen all previous updates.
+     */
+    public boolean canApply( @Nonnull Terminal terminal, int sequence )
+    {
+        return this.sequence == sequence && terminal.getWidth() == width && terminal.getHeight() == height;
+    }
+
+    public void apply( Terminal terminal )
+    {
+        terminal.readDelta( new PacketBuffer( buffer.duplicate() ) );
+    }
+
+    private ByteBuf getCompressed()
+    {
+        if( compressed != null ) return compressed;
+        return compressed = TerminalState.compress( buffer );
+    }
+
+    @Override
+    public TerminalDelta retain()
+    {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public TerminalDelta touch( Object hint )
+    {
+        buffer.touch( hint );
+        return this;
+    }
+
+    @Override
+    protected void deallocate()
+    {
+        buffer.release();
+        if( compressed != null ) compressed.release();
+    }
+}
@@ -6,20 +6,17 @@
 package dan200.computercraft.shared.network.client;
 
 import dan200.computercraft.core.terminal.Terminal;
-import dan200.computercraft.shared.util.IoUtil;
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.ByteBufInputStream;
-import io.netty.buffer.ByteBufOutputStream;
-import io.netty.buffer.Unpooled;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.handler.codec.DecoderException;
+import io.netty.util.AbstractReferenceCounted;
 import net.minecraft.network.PacketBuffer;
 
 import javax.annotation.Nullable;
-import java.io.IOException;
-import java.io.InputStream;
-import java.io.OutputStream;
-import java.io.UncheckedIOException;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
 
 /**
  * A snapshot of a terminal's state.
@@ -27,14 +24,34 @@ import java.util.zip.GZIPOutputStream;
  * This is somewhat memory inefficient (we build a buffer, only to write it elsewhere), however it means we get a
  * complete and accurate description of a terminal, which avoids a lot of complexities with resizing terminals, dirty
  * states, etc...
+ *
+ * Once a client has received a snapshot, later changes may be sent as a {@link TerminalDelta}. The {@link #sequence}
+ * is used to ensure the client has not missed any deltas.
+ *
+ * Snapshots are built from pooled buffers, and so are reference counted. Whoever creates or retains a snapshot is
+ * responsible for {@link #release() releasing} it once it has been sent or applied. As messages are encoded as soon as
+ * they are sent, one snapshot may be shared between several players and packets.
  */
-public class TerminalState
+public class TerminalState extends AbstractReferenceCounted
 {
+    static final ByteBufAllocator ALLOCATOR = PooledByteBufAllocator.DEFAULT;
+
+    private static final ThreadLocal<Deflater> DEFLATER = ThreadLocal.withInitial( Deflater::new );
+    private static final ThreadLocal<Inflater> INFLATER = ThreadLocal.withInitial( Inflater::new );
+    private static final ThreadLocal<byte[]> SWAP = ThreadLocal.withInitial( () -> new byte[8192] );
+
     public final boolean colour;
 
     public final int width;
     public final int height;
 
+    /**
+     * The sequence number of the last delta included in this snapshot.
+     *
+     * @see TerminalDelta#sequence
+     */
+    public final int sequence;
+
     private final boolean compress;
 
     @Nullable
@@ -48,9 +65,15 @@ public class TerminalState
     }
 
     public TerminalState( boolean colour, @Nullable Terminal terminal, boolean compress )
+    {
+        this( colour, terminal, compress, 0 );
+    }
+
+    public TerminalState( boolean colour, @Nullable Terminal terminal, boolean compress, int sequence )
     {
         this.colour = colour;
         this.compress = compress;
+        this.sequence = sequence;
 
         if( terminal == null )
         {
@@ -62,7 +85,7 @@ public class TerminalState
             this.width = terminal.getWidth();
             this.height = terminal.getHeight();
 
-            ByteBuf buf = this.buffer = Unpooled.buffer();
+            ByteBuf buf = this.buffer = ALLOCATOR.heapBuffer();
             terminal.write( new PacketBuffer( buf ) );
         }
     }
@@ -71,6 +94,7 @@ public class TerminalState
     {
         this.colour = buf.readBoolean();
         this.compress = buf.readBoolean();
+        this.sequence = buf.readVarInt();
 
         if( buf.readBoolean() )
         {
@@ -91,6 +115,7 @@ public class TerminalState
     {
         buf.writeBoolean( colour );
         buf.writeBoolean( compress );
+        buf.writeVarInt( sequence );
 
         buf.writeBoolean( buffer != null );
         if( buffer != null )
@@ -117,7 +142,7 @@ public class TerminalState
     public void apply( Terminal terminal )
     {
         if( buffer == null ) throw new NullPointerException( "buffer" );
-        terminal.read( new PacketBuffer( buffer ) );
+        terminal.read( new PacketBuffer( buffer.duplicate() ) );
     }
 
     private ByteBuf getCompressed()
@@ -126,57 +151,116 @@ public class TerminalState
         if( !compress ) return buffer;
         if( compressed != null ) return compressed;
 
-        ByteBuf compressed = Unpooled.directBuffer();
-        OutputStream stream = null;
-        try
-        {
-            stream = new GZIPOutputStream( new ByteBufOutputStream( compressed ) );
-            stream.write( buffer.array(), buffer.arrayOffset(), buffer.readableBytes() );
-        }
-        catch( IOException e )
-        {
-            throw new UncheckedIOException( e );
-        }
-        finally
+        return this.compressed = compress( buffer );
+    }
+
+    @Override
+    public TerminalState retain()
+    {
+        super.retain();
+        return this;
+    }
+
+    @Override
+    public TerminalState touch( Object hint )
+    {
+        if( buffer != null ) buffer.touch( hint );
+        return this;
+    }
+
+    @Override
+    protected void deallocate()
+    {
+        if( buffer != null ) buffer.release();
+        if( compressed != null ) compressed.release();
+    }
+
+    /**
+     * Compress a heap buffer using this thread's {@link Deflater}.
+     *
+     * @param buffer The buffer to compress. This is not modified.
+     * @return The compressed data, allocated from the buffer pool.
+     */
+    static ByteBuf compress( ByteBuf buffer )
+    {
+        Deflater deflater = DEFLATER.get();
+        deflater.reset();
+        deflater.setInput( buffer.array(), buffer.arrayOffset() + buffer.readerIndex(), buffer.readableBytes() );
+        deflater.finish();
+
+        ByteBuf compressed = ALLOCATOR.heapBuffer( buffer.readableBytes() / 4 + 64 );
+        while( !deflater.finished() )
         {
-            IoUtil.closeQuietly( stream );
+            if( !compressed.isWritable() ) compressed.ensureWritable( compressed.capacity() );
+            int written = deflater.deflate( compressed.array(), compressed.arrayOffset() + compressed.writerIndex(), compressed.writableBytes() );
+            compressed.writerIndex( compressed.writerIndex() + written );
         }
 
-        return this.compressed = compressed;
+        // Reset now so we don't keep a reference to the (pooled) input array.
+        deflater.reset();
+        return compressed;
     }
 
-    private static ByteBuf readCompressed( ByteBuf buf, int length, boolean compress )
+    /**
+     * Read a (possibly compressed) payload from a packet.
+     *
+     * @param buf      The buffer to read from.
+     * @param length   The length of the payload within {@code buf}.
+     * @param compress Whether the payload is compressed.
+     * @return The uncompressed data, allocated from the buffer pool.
+     */
+    static ByteBuf readCompressed( ByteBuf buf, int length, boolean compress )
     {
-        if( compress )
+        if( !compress )
         {
-            ByteBuf buffer = Unpooled.buffer();
-            InputStream stream = null;
-            try
+            ByteBuf buffer = ALLOCATOR.heapBuffer( length );
+            buf.readBytes( buffer, length );
+            return buffer;
+        }
+
+        int end = buf.readerIndex() + length;
+        if( end > buf.writerIndex() ) throw new DecoderException( "Terminal data is truncated" );
+
+        Inflater inflater = INFLATER.get();
+        byte[] swap = SWAP.get();
+        inflater.reset();
+
+        ByteBuf buffer = ALLOCATOR.heapBuffer( length * 4 + 64 );
+        try
+        {
+            while( !inflater.finished() )
             {
-                stream = new GZIPInputStream( new ByteBufInputStream( buf, length ) );
-                byte[] swap = new byte[8192];
-                while( true )
+                if( inflater.needsInput() )
                 {
-                    int bytes = stream.read( swap );
-                    if( bytes == -1 ) break;
-                    buffer.writeBytes( swap, 0, bytes );
+                    int chunk = Math.min( end - buf.readerIndex(), swap.length );
+                    if( chunk <= 0 ) throw new DecoderException( "Terminal data is truncated" );
+                    buf.readBytes( swap, 0, chunk );
+                    inflater.setInput( swap, 0, chunk );
                 }
+
+                if( !buffer.isWritable() ) buffer.ensureWritable( buffer.capacity() );
+                int read = inflater.inflate( buffer.array(), buffer.arrayOffset() + buffer.writerIndex(), buffer.writableBytes() );
+                buffer.writerIndex( buffer.writerIndex() + read );
+
+                if( inflater.needsDictionary() ) throw new DecoderException( "Terminal data requires a dictionary" );
             }
-            catch( IOException e )
-            {
-                throw new UncheckedIOException( e );
-            }
-            finally
-            {
-                IoUtil.closeQuietly( stream );
-            }
-            return buffer;
         }
-        else
+        catch( DataFormatException e )
         {
-            ByteBuf buffer = Unpooled.buffer( length );
-            buf.readBytes( buffer, length );
-            return buffer;
+            buffer.release();
+            throw new DecoderException( e );
         }
+        catch( RuntimeException e )
+        {
+            buffer.release();
+            throw e;
+        }
+        finally
+        {
+            inflater.reset();
+        }
+
+        buf.readerIndex( end );
+        return buffer;
     }
 }
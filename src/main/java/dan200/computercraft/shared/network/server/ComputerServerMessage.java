@@ -54,6 +54,7 @@ public abstract class ComputerServerMessage implements NetworkMessage
         IContainerComputer container = computer.getContainer( context.getSender() );
         if( container == null ) return;
 
+        computer.markInteracted();
         handle( computer, container );
     }
 
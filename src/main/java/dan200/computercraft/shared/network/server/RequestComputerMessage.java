@@ -42,6 +42,11 @@ public class RequestComputerMessage implements NetworkMessage
     public void handle( NetworkEvent.Context context )
     {
         ServerComputer computer = ComputerCraft.serverComputerRegistry.get( instance );
-        if( computer != null ) computer.sendComputerState( context.getSender() );
+        if( computer == null ) return;
+
+        computer.sendComputerState( context.getSender() );
+
+        // The client may have missed a terminal update, so resend the whole terminal too.
+        if( computer.isViewing( context.getSender() ) ) computer.sendTerminalState( context.getSender() );
     }
 }
@@ -0,0 +1,51 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.network.server;
+
+import dan200.computercraft.shared.network.NetworkMessage;
+import dan200.computercraft.shared.peripheral.monitor.MonitorWatcher;
+import dan200.computercraft.shared.peripheral.monitor.TileMonitor;
+import net.minecraft.entity.player.ServerPlayerEntity;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+import javax.annotation.Nonnull;
+
+/**
+ * Request the full terminal of a monitor, sent when the client has missed a delta.
+ */
+public class RequestMonitorMessage implements NetworkMessage
+{
+    private final BlockPos pos;
+
+    public RequestMonitorMessage( BlockPos pos )
+    {
+        this.pos = pos;
+    }
+
+    public RequestMonitorMessage( @Nonnull PacketBuffer buf )
+    {
+        pos = buf.readBlockPos();
+    }
+
+    @Override
+    public void toBytes( @Nonnull PacketBuffer buf )
+    {
+        buf.writeBlockPos( pos );
+    }
+
+    @Override
+    public void handle( NetworkEvent.Context context )
+    {
+        ServerPlayerEntity player = context.getSender();
+        if( player == null || !player.getLevel().isAreaLoaded( pos, 0 ) ) return;
+
+        TileEntity te = player.getLevel().getBlockEntity( pos );
+        if( te instanceof TileMonitor ) MonitorWatcher.requestState( player, (TileMonitor) te );
+    }
+}
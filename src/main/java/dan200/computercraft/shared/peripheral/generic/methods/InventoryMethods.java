@@ -6,9 +6,7 @@
 package dan200.computercraft.shared.peripheral.generic.methods;
 
 import dan200.computercraft.ComputerCraft;
-import dan200.computercraft.api.lua.GenericSource;
-import dan200.computercraft.api.lua.LuaException;
-import dan200.computercraft.api.lua.LuaFunction;
+import dan200.computercraft.api.lua.*;
 import dan200.computercraft.api.peripheral.IComputerAccess;
 import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.shared.peripheral.generic.data.ItemData;
@@ -24,9 +22,7 @@ import net.minecraftforge.items.wrapper.InvWrapper;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
 import static dan200.computercraft.shared.peripheral.generic.methods.ArgumentHelpers.assertBetween;
 
@@ -37,6 +33,12 @@ import static dan200.computercraft.shared.peripheral.generic.methods.ArgumentHel
  */
 public class InventoryMethods implements GenericSource
 {
+    /**
+     * The maximum number of moves which may be made by {@link #pushItemsBatch} and {@link #pullItemsBatch}, to limit
+     * how long a single main thread task may take.
+     */
+    private static final int MAX_BATCH_SIZE = 1024;
+
     @Nonnull
     @Override
     public ResourceLocation id()
@@ -82,15 +84,55 @@ public class InventoryMethods implements GenericSource
     @LuaFunction( mainThread = true )
     public static Map<Integer, Map<String, ?>> list( IItemHandler inventory )
     {
-        Map<Integer, Map<String, ?>> result = new HashMap<>();
-        int size = inventory.getSlots();
-        for( int i = 0; i < size; i++ )
+        return InventorySnapshot.get( inventory ).getList();
+    }
+
+    /**
+     * List all items in this inventory which have changed since a previous call.
+     *
+     * This is designed for programs which repeatedly poll an inventory: rather than fetching every slot with
+     * {@link #list}, you can keep a copy of the inventory's contents and only update the slots which have changed.
+     *
+     * This returns a table of changed slots, in the same format as {@link #list}. Slots which have been emptied are
+     * `false`. Alongside this, it returns a token which should be passed to the next call to this function.
+     *
+     * If no token is given, or the token is from an earlier version of this inventory (such as before it was resized),
+     * every item is returned instead, and the third return value is `true`. In this case, you should discard any
+     * existing items.
+     *
+     * @param inventory The current inventory.
+     * @param token     The token returned by a previous call to this function.
+     * @return The changed items, the new token, and whether this includes every item.
+     * @cc.treturn { (table|false)... } All items which have changed since the given token.
+     * @cc.treturn number The token to pass to the next call of this function.
+     * @cc.treturn boolean If every item in the inventory was returned, rather than just those which have changed.
+     * @cc.usage Keep track of the items in a chest, printing any changes.
+     *
+     * <pre>{@code
+     * local chest = peripheral.find("minecraft:chest")
+     * local items, token = chest.listChanged()
+     * while true do
+     *   sleep(1)
+     *   local changes, full
+     *   changes, token, full = chest.listChanged(token)
+     *   if full then items = {} end
+     *   for slot, item in pairs(changes) do
+     *     print(("Slot %d changed"):format(slot))
+     *     items[slot] = item or nil
+     *   end
+     * end
+     * }</pre>
+     */
+    @LuaFunction( mainThread = true )
+    public static MethodResult listChanged( IItemHandler inventory, Optional<Long> token )
+    {
+        InventorySnapshot snapshot = InventorySnapshot.get( inventory );
+        if( token.isPresent() && snapshot.isValid( token.get() ) )
         {
-            ItemStack stack = inventory.getStackInSlot( i );
-            if( !stack.isEmpty() ) result.put( i + 1, ItemData.fillBasic( new HashMap<>( 4 ), stack ) );
+            return MethodResult.of( snapshot.getChanges( token.get() ), snapshot.getToken(), false );
         }
 
-        return result;
+        return MethodResult.of( snapshot.getList(), snapshot.getToken(), true );
     }
 
     /**
@@ -254,6 +296,139 @@ public class InventoryMethods implements GenericSource
         return moveItem( from, fromSlot - 1, to, toSlot.orElse( 0 ) - 1, actualLimit );
     }
 
+    /**
+     * Push items from this inventory to several other connected inventories at once.
+     *
+     * This behaves the same as calling {@link #pushItems} for each move. However, all items are moved at once, rather
+     * than waiting a tick between each call, making it much faster for moving large numbers of items.
+     *
+     * All moves are checked before any items are moved. If any move is invalid (for instance, the target does not
+     * exist or a slot is out of range), an error is thrown and no items are transferred.
+     *
+     * @param from     Inventory to move items from.
+     * @param computer The current computer.
+     * @param moves    The moves to make.
+     * @return The number of items transferred by each move.
+     * @throws LuaException If any move is malformed or invalid.
+     * @cc.tparam { { string, number, number|nil, number|nil }... } moves A list of moves to make. Each move is a list
+     * containing the same arguments as {@link #pushItems}: the name of the target inventory, the slot to move from,
+     * and optionally the limit and slot to move to.
+     * @cc.treturn { number... } The number of items transferred by each move, in the same order.
+     * @cc.usage Move the whole contents of one chest into another.
+     * <pre>{@code
+     * local chest_a = peripheral.wrap("minecraft:chest_0")
+     * local chest_b = peripheral.wrap("minecraft:chest_1")
+     *
+     * local moves = {}
+     * for slot in pairs(chest_a.list()) do
+     *   moves[#moves + 1] = { peripheral.getName(chest_b), slot }
+     * end
+     * chest_a.pushItemsBatch(moves)
+     * }</pre>
+     * @see #pushItems
+     */
+    @LuaFunction( mainThread = true )
+    public static List<Integer> pushItemsBatch( IItemHandler from, IComputerAccess computer, Map<?, ?> moves ) throws LuaException
+    {
+        return moveItems( from, computer, moves, true );
+    }
+
+    /**
+     * Pull items from several connected inventories into this one at once.
+     *
+     * This behaves the same as calling {@link #pullItems} for each move. See {@link #pushItemsBatch} for more
+     * information.
+     *
+     * @param to       Inventory to move items to.
+     * @param computer The current computer.
+     * @param moves    The moves to make.
+     * @return The number of items transferred by each move.
+     * @throws LuaException If any move is malformed or invalid.
+     * @cc.tparam { { string, number, number|nil, number|nil }... } moves A list of moves to make. Each move is a list
+     * containing the same arguments as {@link #pullItems}: the name of the source inventory, the slot to move from,
+     * and optionally the limit and slot to move to.
+     * @cc.treturn { number... } The number of items transferred by each move, in the same order.
+     * @see #pullItems
+     */
+    @LuaFunction( mainThread = true )
+    public static List<Integer> pullItemsBatch( IItemHandler to, IComputerAccess computer, Map<?, ?> moves ) throws LuaException
+    {
+        return moveItems( to, computer, moves, false );
+    }
+
+    /**
+     * Validate and then perform a series of moves to or from another inventory.
+     *
+     * @param inventory The current inventory.
+     * @param computer  The current computer.
+     * @param moves     The list of moves to perform.
+     * @param push      Whether we are moving items out of this inventory ({@link #pushItemsBatch}) or into it
+     *                  ({@link #pullItemsBatch}).
+     * @return The number of items moved by each move.
+     * @throws LuaException If any of the moves are invalid.
+     */
+    private static List<Integer> moveItems( IItemHandler inventory, IComputerAccess computer, Map<?, ?> moves, boolean push ) throws LuaException
+    {
+        int count = 0;
+        while( moves.get( (double) (count + 1) ) != null ) count++;
+        if( count > MAX_BATCH_SIZE ) throw new LuaException( "Too many moves (max " + MAX_BATCH_SIZE + ")" );
+
+        // Resolve every move before transferring anything, so a bad move doesn't leave us half-way through.
+        Map<String, IItemHandler> handlers = new HashMap<>();
+        IItemHandler[] others = new IItemHandler[count];
+        int[] fromSlots = new int[count], toSlots = new int[count], limits = new int[count];
+        for( int i = 0; i < count; i++ )
+        {
+            Object entry = moves.get( (double) (i + 1) );
+            if( !(entry instanceof Map) )
+            {
+                throw new LuaException( "Move #" + (i + 1) + ": table expected, got " + LuaValues.getType( entry ) );
+            }
+
+            Map<?, ?> move = (Map<?, ?>) entry;
+            IArguments args = new ObjectArguments( move.get( 1.0 ), move.get( 2.0 ), move.get( 3.0 ), move.get( 4.0 ) );
+            try
+            {
+                String name = args.getString( 0 );
+                IItemHandler other = handlers.get( name );
+                if( other == null )
+                {
+                    IPeripheral location = computer.getAvailablePeripheral( name );
+                    if( location == null ) throw new LuaException( (push ? "Target '" : "Source '") + name + "' does not exist" );
+
+                    other = extractHandler( location.getTarget() );
+                    if( other == null ) throw new LuaException( (push ? "Target '" : "Source '") + name + "' is not an inventory" );
+                    handlers.put( name, other );
+                }
+
+                IItemHandler from = push ? inventory : other, to = push ? other : inventory;
+                int fromSlot = args.getInt( 1 );
+                Optional<Integer> toSlot = args.optInt( 3 );
+                assertBetween( fromSlot, 1, from.getSlots(), "From slot out of range (%s)" );
+                if( toSlot.isPresent() ) assertBetween( toSlot.get(), 1, to.getSlots(), "To slot out of range (%s)" );
+
+                others[i] = other;
+                fromSlots[i] = fromSlot - 1;
+                toSlots[i] = toSlot.orElse( 0 ) - 1;
+                limits[i] = args.optInt( 2, Integer.MAX_VALUE );
+            }
+            catch( LuaException e )
+            {
+                throw new LuaException( "Move #" + (i + 1) + ": " + e.getMessage() );
+            }
+        }
+
+        List<Integer> results = new ArrayList<>( count );
+        for( int i = 0; i < count; i++ )
+        {
+            int limit = limits[i];
+            results.add( limit <= 0 ? 0 : push
+                ? moveItem( inventory, fromSlots[i], others[i], toSlots[i], limit )
+                : moveItem( others[i], fromSlots[i], inventory, toSlots[i], limit ) );
+        }
+        return results;
+    }
+
     @Nullable
     private static IItemHandler extractHandler( @Nullable Object object )
     {
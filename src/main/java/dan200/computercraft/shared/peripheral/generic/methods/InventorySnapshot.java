@@ -0,0 +1,183 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.generic.methods;
+
+import com.google.common.collect.MapMaker;
+import dan200.computercraft.shared.peripheral.generic.data.ItemData;
+import dan200.computercraft.shared.util.InventoryUtil;
+import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.IItemHandler;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * A cached copy of an inventory's contents, used by {@link InventoryMethods#list} and
+ * {@link InventoryMethods#listChanged}.
+ *
+ * Each call compares the inventory's stacks against the snapshot, and only converts slots which have changed. Every
+ * change is tagged with a generation, allowing us to find which slots have changed since a given point.
+ *
+ * Snapshots should only be accessed from the server thread.
+ */
+final class InventorySnapshot
+{
+    private static final Map<IItemHandler, InventorySnapshot> snapshots = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * The generation of the next change. This is shared between all snapshots, so that a token for one snapshot is
+     * never mistaken for a later one after an inventory is resized.
+     */
+    private static long nextGeneration = 1;
+
+    private final ItemStack[] stacks;
+    private final Map<String, ?>[] items;
+    private final long[] modified;
+
+    /**
+     * The generation this snapshot was created in. Tokens older than this cannot be compared against this snapshot.
+     */
+    private final long created;
+
+    /**
+     * The generation of the latest change to this snapshot.
+     */
+    private long generation;
+
+    /**
+     * The contents of this inventory, or {@code null} if it has changed since it was last listed. This is never
+     * modified once created, so it is safe to pass back to the computer thread.
+     */
+    private Map<Integer, Map<String, ?>> list;
+
+    @SuppressWarnings( "unchecked" )
+    private InventorySnapshot( int size )
+    {
+        stacks = new ItemStack[size];
+        items = new Map[size];
+        modified = new long[size];
+        // Reserve a generation for the (empty) initial state. Otherwise, if the inventory is empty, this snapshot's
+        // token would be the same as the next snapshot's first change.
+        created = generation = nextGeneration++;
+        for( int i = 0; i < size; i++ ) stacks[i] = ItemStack.EMPTY;
+    }
+
+    /**
+     * Get the snapshot for an inventory, updating it with any changes.
+     *
+     * @param inventory The inventory to get a snapshot of.
+     * @return The up-to-date snapshot.
+     */
+    @Nonnull
+    static InventorySnapshot get( @Nonnull IItemHandler inventory )
+    {
+        int size = inventory.getSlots();
+        InventorySnapshot snapshot = snapshots.get( inventory );
+        if( snapshot == null || snapshot.stacks.length != size )
+        {
+            snapshot = new InventorySnapshot( size );
+            snapshots.put( inventory, snapshot );
+        }
+
+        snapshot.update( inventory );
+        return snapshot;
+    }
+
+    private void update( IItemHandler inventory )
+    {
+        long current = nextGeneration;
+        boolean changed = false;
+        for( int i = 0; i < stacks.length; i++ )
+        {
+            ItemStack stack = inventory.getStackInSlot( i );
+            if( InventoryUtil.areItemsEqual( stacks[i], stack ) ) continue;
+
+            // Stacks may be modified in place, so we need to take a copy.
+            if( stack.isEmpty() )
+            {
+                stacks[i] = ItemStack.EMPTY;
+                items[i] = null;
+            }
+            else
+            {
+                stacks[i] = stack.copy();
+                items[i] = Collections.unmodifiableMap( ItemData.fillBasic( new HashMap<>( 4 ), stack ) );
+            }
+
+            modified[i] = current;
+            changed = true;
+        }
+
+        if( changed )
+        {
+            generation = current;
+            nextGeneration++;
+            list = null;
+        }
+    }
+
+    /**
+     * The token for the current state of this inventory, to be passed to {@link #getChanges(long)}.
+     *
+     * @return The current generation.
+     */
+    long getToken()
+    {
+        return generation;
+    }
+
+    /**
+     * Get every item in this inventory.
+     *
+     * @return A map of slot numbers to items.
+     * @see InventoryMethods#list
+     */
+    @Nonnull
+    Map<Integer, Map<String, ?>> getList()
+    {
+        Map<Integer, Map<String, ?>> list = this.list;
+        if( list != null ) return list;
+
+        list = new HashMap<>();
+        for( int i = 0; i < items.length; i++ )
+        {
+            if( items[i] != null ) list.put( i + 1, items[i] );
+        }
+        return this.list = Collections.unmodifiableMap( list );
+    }
+
+    /**
+     * Determine whether a token can be compared against this snapshot.
+     *
+     * @param token The token returned by a previous call to {@link #getToken()}.
+     * @return Whether {@link #getChanges(long)} can be used with this token.
+     */
+    boolean isValid( long token )
+    {
+        return token >= created && token <= generation;
+    }
+
+    /**
+     * Get all slots which have changed since a token. Slots which have been emptied are included as {@code false}.
+     *
+     * @param token The token returned by a previous call to {@link #getToken()}.
+     * @return A map of slot numbers to items.
+     * @see #isValid(long)
+     */
+    @Nonnull
+    Map<Integer, Object> getChanges( long token )
+    {
+        Map<Integer, Object> changes = new HashMap<>();
+        for( int i = 0; i < items.length; i++ )
+        {
+            if( modified[i] <= token ) continue;
+            changes.put( i + 1, items[i] == null ? false : items[i] );
+        }
+        return changes;
+    }
+}
@@ -6,6 +6,7 @@
 package dan200.computercraft.shared.peripheral.modem.wired;
 
 import com.google.common.collect.ImmutableMap;
+import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.filesystem.IMount;
 import dan200.computercraft.api.filesystem.IWritableMount;
 import dan200.computercraft.api.lua.*;
@@ -17,6 +18,7 @@ import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.api.peripheral.IWorkMonitor;
 import dan200.computercraft.core.apis.PeripheralAPI;
 import dan200.computercraft.core.asm.PeripheralMethod;
+import dan200.computercraft.core.asm.TaskCallback;
 import dan200.computercraft.shared.peripheral.modem.ModemPeripheral;
 import dan200.computercraft.shared.peripheral.modem.ModemState;
 import net.minecraft.world.World;
@@ -32,6 +34,12 @@ import java.util.concurrent.ConcurrentMap;
 
 public abstract class WiredModemPeripheral extends ModemPeripheral implements IWiredSender
 {
+    /**
+     * The maximum number of calls which may be made by {@link #callBatch}, to limit how long the main thread task may
+     * run for.
+     */
+    private static final int MAX_BATCH_SIZE = 1024;
+
     private final WiredModemElement modem;
 
     private final Map<IComputerAccess, ConcurrentMap<String, RemotePeripheralWrapper>> peripheralWrappers = new HashMap<>( 1 );
@@ -177,6 +185,138 @@ public abstract class WiredModemPeripheral extends ModemPeripheral implements IW
         return wrapper.callMethod( context, methodName, arguments.drop( 2 ) );
     }
 
+    /**
+     * Call several methods on peripherals on this wired network at once.
+     *
+     * This behaves like calling {@link #callRemote} for each entry, but any calls which must run on the main thread
+     * are run together in a single task. This means the whole batch completes in a single tick, rather than waiting a
+     * tick for each call.
+     *
+     * Methods which wait for events cannot be batched, and will return an error instead.
+     *
+     * <blockquote><strong>Important:</strong> This function only appears on wired modems. Check {@link #isWireless}
+     * returns false before calling it.</blockquote>
+     *
+     * @param computer The calling computer.
+     * @param context  The Lua context we're executing in.
+     * @param calls    The calls to make.
+     * @return The result of each call.
+     * @throws LuaException If the list of calls is malformed.
+     * @cc.tparam { { string, string, any... }... } calls A list of calls to make. Each call is a list containing the
+     * peripheral's name, the method's name, and then any arguments.
+     * @cc.treturn { { boolean, any... }... } The result of each call, in the same order. Each result is a list
+     * containing {@code true} followed by the method's return values, or {@code false} followed by an error message.
+     * @cc.usage Read the first slot of every chest on the network.
+     *
+     * <pre>{@code
+     * local modem = peripheral.find("modem", function(_, m) return not m.isWireless() end)
+     * local calls = {}
+     * for _, name in pairs(modem.getNamesRemote()) do
+     *   if modem.getTypeRemote(name) == "minecraft:chest" then
+     *     calls[#calls + 1] = { name, "getItemDetail", 1 }
+     *   end
+     * end
+     *
+     * for i, result in ipairs(modem.callBatch(calls)) do
+     *   print(calls[i][1], result[1] and result[2] and result[2].name)
+     * end
+     * }</pre>
+     * @see #callRemote
+     */
+    @LuaFunction
+    public final MethodResult callBatch( IComputerAccess computer, ILuaContext context, Map<?, ?> calls ) throws LuaException
+    {
+        int count = 0;
+        while( calls.get( (double) (count + 1) ) != null ) count++;
+        if( count > MAX_BATCH_SIZE ) throw new LuaException( "Too many calls (max " + MAX_BATCH_SIZE + ")" );
+
+        Object[] results = new Object[count];
+        ILuaTask[] tasks = new ILuaTask[count];
+        String[] names = new String[count];
+        BatchContext batchContext = new BatchContext( context );
+
+        for( int i = 0; i < count; i++ )
+        {
+            Object entry = calls.get( (double) (i + 1) );
+            if( !(entry instanceof Map) )
+            {
+                throw new LuaException( "bad call #" + (i + 1) + " (table expected, got " + LuaValues.getType( entry ) + ")" );
+            }
+
+            Map<?, ?> call = (Map<?, ?>) entry;
+            Object remoteName = call.get( 1.0 ), methodName = call.get( 2.0 );
+            if( !(remoteName instanceof String) || !(methodName instanceof String) )
+            {
+                throw new LuaException( "bad call #" + (i + 1) + " (expected peripheral and method name)" );
+            }
+
+            names[i] = methodName + " on " + remoteName;
+            RemotePeripheralWrapper wrapper = getWrapper( computer, (String) remoteName );
+            if( wrapper == null )
+            {
+                results[i] = new Object[] { false, "No peripheral: " + remoteName };
+                continue;
+            }
+
+            try
+            {
+                MethodResult result = wrapper.callMethod( batchContext, (String) methodName, getBatchArguments( call ) );
+                ILuaTask task = batchContext.task;
+                batchContext.task = null;
+
+                if( task != null )
+                {
+                    tasks[i] = task;
+                }
+                else if( result.getCallback() != null )
+                {
+                    results[i] = new Object[] { false, "Cannot call " + methodName + " in a batch" };
+                }
+                else
+                {
+                    results[i] = prependSuccess( result.getResult() );
+                }
+            }
+            catch( LuaException e )
+            {
+                batchContext.task = null;
+                results[i] = new Object[] { false, e.getMessage() };
+            }
+            catch( Throwable t )
+            {
+                batchContext.task = null;
+                results[i] = unexpectedError( names[i], t );
+            }
+        }
+
+        // Any further tasks (i.e. those issued on the main thread) are passed straight through.
+        batchContext.closed = true;
+
+        boolean hasTasks = false;
+        for( ILuaTask task : tasks ) hasTasks |= task != null;
+        if( !hasTasks ) return MethodResult.of( (Object) results );
+
+        return TaskCallback.make( context, () -> {
+            for( int i = 0; i < tasks.length; i++ )
+            {
+                if( tasks[i] == null ) continue;
+                try
+                {
+                    results[i] = prependSuccess( tasks[i].execute() );
+                }
+                catch( LuaException e )
+                {
+                    results[i] = new Object[] { false, e.getMessage() };
+                }
+                catch( Throwable t )
+                {
+                    results[i] = unexpectedError( names[i], t );
+                }
+            }
+            return new Object[] { results };
+        } );
+    }
+
     /**
      * Returns the network name of the current computer, if the modem is on. This
      * may be used by other computers on the network to wrap this computer as a
@@ -300,6 +440,65 @@ public abstract class WiredModemPeripheral extends ModemPeripheral implements IW
         return wrappers == null ? null : wrappers.get( remoteName );
     }
 
+    private static IArguments getBatchArguments( Map<?, ?> call )
+    {
+        int count = 0;
+        for( Object key : call.keySet() )
+        {
+            if( key instanceof Double )
+            {
+                double index = (Double) key;
+                if( index >= 3 && index == Math.floor( index ) && index - 2 > count ) count = (int) index - 2;
+            }
+        }
+
+        Object[] args = new Object[count];
+        for( int i = 0; i < count; i++ ) args[i] = call.get( (double) (i + 3) );
+        return new ObjectArguments( args );
+    }
+
+    private static Object[] prependSuccess( @Nullable Object[] values )
+    {
+        if( values == null ) return new Object[] { true };
+
+        Object[] result = new Object[values.length + 1];
+        result[0] = true;
+        System.arraycopy( values, 0, result, 1, values.length );
+        return result;
+    }
+
+    private static Object[] unexpectedError( String name, Throwable t )
+    {
+        if( ComputerCraft.logComputerErrors ) ComputerCraft.log.error( "Error calling " + name, t );
+        return new Object[] { false, "Java Exception Thrown: " + t };
+    }
+
+    /**
+     * A context which captures the main thread task issued by a single call, so all calls in a batch can be run in
+     * one task.
+     */
+    private static final class BatchContext implements ILuaContext
+    {
+        private final ILuaContext context;
+        ILuaTask task;
+        boolean closed;
+
+        BatchContext( ILuaContext context )
+        {
+            this.context = context;
+        }
+
+        @Override
+        public long issueMainThreadTask( @Nonnull ILuaTask task ) throws LuaException
+        {
+            if( closed ) return context.issueMainThreadTask( task );
+            if( this.task != null ) throw new LuaException( "Cannot issue multiple tasks in a batch" );
+
+            this.task = task;
+            return -1;
+        }
+    }
+
     private static class RemotePeripheralWrapper implements IComputerAccess
     {
         private final WiredModemElement element;
@@ -0,0 +1,153 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.modem.wireless;
+
+import dan200.computercraft.api.network.IPacketReceiver;
+import net.minecraft.util.math.vector.Vector3d;
+
+import javax.annotation.Nonnull;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * An index of all the (non-interdimensional) receivers in a single world, grouped into square regions of
+ * {@link #REGION_SIZE} blocks.
+ *
+ * Receivers may be read from any thread, but should only be added, moved or removed by one thread at a time.
+ *
+ * @see WirelessNetwork
+ */
+final class ReceiverGrid
+{
+    private static final int REGION_SHIFT = 8;
+    static final int REGION_SIZE = 1 << REGION_SHIFT;
+
+    /**
+     * An additional distance to search when finding receivers, as a receiver may have moved since it was last indexed.
+     */
+    static final double SLACK = 16;
+
+    private final Map<Long, Set<Entry>> regions = new ConcurrentHashMap<>();
+
+    /**
+     * The largest range of any receiver in this grid, as of the last update.
+     */
+    volatile double maxRange;
+
+    /**
+     * The largest range seen so far during {@link WirelessNetwork#update()}.
+     */
+    double nextMaxRange;
+
+    void add( @Nonnull Entry entry, @Nonnull Vector3d position )
+    {
+        long region = getRegion( position );
+        entry.region = region;
+        regions.computeIfAbsent( region, x -> Collections.newSetFromMap( new ConcurrentHashMap<>() ) ).add( entry );
+    }
+
+    void remove( @Nonnull Entry entry )
+    {
+        long region = entry.region;
+        Set<Entry> entries = regions.get( region );
+        if( entries == null ) return;
+
+        entries.remove( entry );
+        if( entries.isEmpty() ) regions.remove( region, entries );
+    }
+
+    /**
+     * Update the position of a receiver.
+     *
+     * @param entry    The receiver's entry.
+     * @param position The receiver's new position.
+     */
+    void move( @Nonnull Entry entry, @Nonnull Vector3d position )
+    {
+        long region = getRegion( position );
+        if( region == entry.region ) return;
+
+        // Readers only visit an entry through the set for its current region, so a receiver is never visited twice.
+        remove( entry );
+        add( entry, position );
+    }
+
+    /**
+     * Visit every receiver which may be able to receive a packet sent from a given position.
+     *
+     * This visits a superset of the receivers in range, and so the distance should still be checked.
+     *
+     * @param position The position the packet was sent from.
+     * @param range    The range of the packet.
+     * @param consumer The function to call with each receiver.
+     */
+    void forEachNear( @Nonnull Vector3d position, double range, @Nonnull Consumer<IPacketReceiver> consumer )
+    {
+        double distance = Math.max( range, maxRange ) + SLACK;
+        long minX = (long) Math.floor( (position.x - distance) / REGION_SIZE ), maxX = (long) Math.floor( (position.x + distance) / REGION_SIZE );
+        long minZ = (long) Math.floor( (position.z - distance) / REGION_SIZE ), maxZ = (long) Math.floor( (position.z + distance) / REGION_SIZE );
+
+        if( (double) (maxX - minX + 1) * (maxZ - minZ + 1) > regions.size() )
+        {
+            // If we cover more regions than exist, just check every one instead.
+            for( Map.Entry<Long, Set<Entry>> region : regions.entrySet() )
+            {
+                long key = region.getKey();
+                int x = (int) (key >> 32), z = (int) key;
+                if( x >= minX && x <= maxX && z >= minZ && z <= maxZ ) visit( key, region.getValue(), consumer );
+            }
+        }
+        else
+        {
+            for( long x = minX; x <= maxX; x++ )
+            {
+                for( long z = minZ; z <= maxZ; z++ )
+                {
+                    long key = getRegion( (int) x, (int) z );
+                    Set<Entry> entries = regions.get( key );
+                    if( entries != null ) visit( key, entries, consumer );
+                }
+            }
+        }
+    }
+
+    boolean isEmpty()
+    {
+        return regions.isEmpty();
+    }
+
+    private static void visit( long region, Set<Entry> entries, Consumer<IPacketReceiver> consumer )
+    {
+        for( Entry entry : entries )
+        {
+            if( entry.region == region ) consumer.accept( entry.receiver );
+        }
+    }
+
+    private static long getRegion( Vector3d position )
+    {
+        return getRegion( (int) Math.floor( position.x ) >> REGION_SHIFT, (int) Math.floor( position.z ) >> REGION_SHIFT );
+    }
+
+    private static long getRegion( int x, int z )
+    {
+        return (long) x << 32 | (z & 0xFFFFFFFFL);
+    }
+
+    static final class Entry
+    {
+        final IPacketReceiver receiver;
+        volatile long region;
+
+        Entry( IPacketReceiver receiver )
+        {
+            this.receiver = receiver;
+        }
+    }
+}
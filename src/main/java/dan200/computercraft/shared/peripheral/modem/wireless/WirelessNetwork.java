@@ -9,13 +9,24 @@ import dan200.computercraft.api.network.IPacketNetwork;
 import dan200.computercraft.api.network.IPacketReceiver;
 import dan200.computercraft.api.network.IPacketSender;
 import dan200.computercraft.api.network.Packet;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.World;
 
 import javax.annotation.Nonnull;
 import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * The wireless network, shared by all wireless and ender modems.
+ *
+ * Interdimensional receivers receive every packet, so are kept in a separate set. All other receivers are indexed by
+ * world and position (see {@link ReceiverGrid}), so we only need to visit those which are nearby when transmitting.
+ * As receivers may move or change range without telling us, these are re-indexed every tick (see {@link #update()}).
+ */
 public class WirelessNetwork implements IPacketNetwork
 {
     private static WirelessNetwork universalNetwork = null;
@@ -31,27 +42,120 @@ public class WirelessNetwork implements IPacketNetwork
         universalNetwork = null;
     }
 
+    /**
+     * Update the positions of all receivers on the universal network. This is called at the start of every server tick.
+     */
+    public static void updateNetworks()
+    {
+        if( universalNetwork != null ) universalNetwork.update();
+    }
+
     private final Set<IPacketReceiver> receivers = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+    private final Set<IPacketReceiver> interdimensional = Collections.newSetFromMap( new ConcurrentHashMap<>() );
+
+    /**
+     * All non-interdimensional receivers, along with the world they were last indexed in.
+     */
+    private final Map<IPacketReceiver, ReceiverGrid.Entry> entries = new ConcurrentHashMap<>();
+    private final Map<IPacketReceiver, World> entryWorlds = new HashMap<>();
+    private final Map<World, ReceiverGrid> worlds = new ConcurrentHashMap<>();
 
     @Override
-    public void addReceiver( @Nonnull IPacketReceiver receiver )
+    public synchronized void addReceiver( @Nonnull IPacketReceiver receiver )
     {
         Objects.requireNonNull( receiver, "device cannot be null" );
-        receivers.add( receiver );
+        if( !receivers.add( receiver ) ) return;
+
+        if( receiver.isInterdimensional() )
+        {
+            interdimensional.add( receiver );
+            return;
+        }
+
+        ReceiverGrid.Entry entry = new ReceiverGrid.Entry( receiver );
+        entries.put( receiver, entry );
+
+        World world = receiver.getWorld();
+        if( world == null ) return;
+
+        ReceiverGrid grid = worlds.computeIfAbsent( world, x -> new ReceiverGrid() );
+        grid.maxRange = Math.max( grid.maxRange, receiver.getRange() );
+        grid.add( entry, receiver.getPosition() );
+        entryWorlds.put( receiver, world );
     }
 
     @Override
-    public void removeReceiver( @Nonnull IPacketReceiver receiver )
+    public synchronized void removeReceiver( @Nonnull IPacketReceiver receiver )
     {
         Objects.requireNonNull( receiver, "device cannot be null" );
-        receivers.remove( receiver );
+        if( !receivers.remove( receiver ) ) return;
+
+        interdimensional.remove( receiver );
+
+        ReceiverGrid.Entry entry = entries.remove( receiver );
+        World world = entryWorlds.remove( receiver );
+        if( entry != null && world != null ) removeEntry( world, entry );
+    }
+
+    /**
+     * Re-index every receiver, updating their positions and each world's maximum range.
+     */
+    synchronized void update()
+    {
+        for( ReceiverGrid grid : worlds.values() ) grid.nextMaxRange = 0;
+
+        for( ReceiverGrid.Entry entry : entries.values() )
+        {
+            IPacketReceiver receiver = entry.receiver;
+            World oldWorld = entryWorlds.get( receiver ), newWorld = receiver.getWorld();
+            if( newWorld == null )
+            {
+                if( oldWorld != null ) removeEntry( oldWorld, entry );
+                entryWorlds.remove( receiver );
+                continue;
+            }
+
+            Vector3d position = receiver.getPosition();
+            ReceiverGrid grid;
+            if( oldWorld == newWorld )
+            {
+                grid = worlds.get( newWorld );
+                grid.move( entry, position );
+            }
+            else
+            {
+                if( oldWorld != null ) removeEntry( oldWorld, entry );
+                grid = worlds.computeIfAbsent( newWorld, x -> new ReceiverGrid() );
+                grid.add( entry, position );
+                entryWorlds.put( receiver, newWorld );
+            }
+
+            grid.nextMaxRange = Math.max( grid.nextMaxRange, receiver.getRange() );
+        }
+
+        for( ReceiverGrid grid : worlds.values() ) grid.maxRange = grid.nextMaxRange;
+    }
+
+    private void removeEntry( World world, ReceiverGrid.Entry entry )
+    {
+        ReceiverGrid grid = worlds.get( world );
+        if( grid == null ) return;
+
+        grid.remove( entry );
+        if( grid.isEmpty() ) worlds.remove( world );
     }
 
     @Override
     public void transmitSameDimension( @Nonnull Packet packet, double range )
     {
         Objects.requireNonNull( packet, "packet cannot be null" );
-        for( IPacketReceiver device : receivers ) tryTransmit( device, packet, range, false );
+        for( IPacketReceiver device : interdimensional ) tryTransmit( device, packet, range, false );
+
+        // Other receivers in different worlds will never receive this packet, so we only need to check nearby ones.
+        IPacketSender sender = packet.getSender();
+        World world = sender.getWorld();
+        ReceiverGrid grid = world == null ? null : worlds.get( world );
+        if( grid != null ) grid.forEachNear( sender.getPosition(), range, device -> tryTransmit( device, packet, range, false ) );
     }
 
     @Override
@@ -7,8 +7,12 @@ package dan200.computercraft.shared.peripheral.monitor;
 
 import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.shared.network.NetworkHandler;
+import dan200.computercraft.shared.network.NetworkMessage;
 import dan200.computercraft.shared.network.client.MonitorClientMessage;
+import dan200.computercraft.shared.network.client.MonitorDeltaClientMessage;
+import dan200.computercraft.shared.network.client.TerminalDelta;
 import dan200.computercraft.shared.network.client.TerminalState;
+import io.netty.util.ReferenceCounted;
 import net.minecraft.entity.player.ServerPlayerEntity;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.math.BlockPos;
@@ -40,10 +44,21 @@ public final class MonitorWatcher
         if( monitor.enqueued ) return;
 
         monitor.enqueued = true;
-        monitor.cached = null;
         watching.add( monitor );
     }
 
+    /**
+     * Send the full state of a monitor to a player at the end of this tick. This is used when the player has missed
+     * a delta.
+     *
+     * @param player  The player to send the monitor to.
+     * @param monitor The monitor to send.
+     */
+    public static void requestState( ServerPlayerEntity player, TileMonitor monitor )
+    {
+        if( getMonitor( monitor ) != null ) playerUpdates.add( new PlayerUpdate( player, monitor ) );
+    }
+
     @SubscribeEvent
     public static void onWatch( ChunkWatchEvent.Watch event )
     {
@@ -58,7 +73,7 @@ public final class MonitorWatcher
 
             TileMonitor monitor = (TileMonitor) te;
             ServerMonitor serverMonitor = getMonitor( monitor );
-            if( serverMonitor == null || monitor.enqueued ) continue;
+            if( serverMonitor == null ) continue;
 
             // The chunk hasn't been sent to the client yet, so we can't send an update. Do it on tick end.
             playerUpdates.add( new PlayerUpdate( event.getPlayer(), monitor ) );
@@ -73,8 +88,9 @@ public final class MonitorWatcher
         PlayerUpdate playerUpdate;
         while( (playerUpdate = playerUpdates.poll()) != null )
         {
+            // We send the full state even if the monitor is enqueued, as any later delta may be applied on top of it.
             TileMonitor tile = playerUpdate.monitor;
-            if( tile.enqueued || tile.isRemoved() ) continue;
+            if( tile.isRemoved() ) continue;
 
             ServerMonitor monitor = getMonitor( tile );
             if( monitor == null ) continue;
@@ -84,7 +100,15 @@ public final class MonitorWatcher
             ServerPlayerEntity player = playerUpdate.player;
             if( !player.isAlive() || player.getLevel() != tile.getLevel() ) continue;
 
-            NetworkHandler.sendToPlayer( playerUpdate.player, new MonitorClientMessage( tile.getBlockPos(), getState( tile, monitor ) ) );
+            TerminalState state = monitor.write();
+            try
+            {
+                NetworkHandler.sendToPlayer( playerUpdate.player, new MonitorClientMessage( tile.getBlockPos(), state ) );
+            }
+            finally
+            {
+                state.release();
+            }
         }
 
         long limit = ComputerCraft.monitorBandwidth;
@@ -107,10 +131,32 @@ public final class MonitorWatcher
                 continue;
             }
 
-            TerminalState state = getState( tile, monitor );
-            NetworkHandler.sendToAllTracking( new MonitorClientMessage( pos, state ), chunk );
+            // Every player tracking this monitor has seen the previous update, so we only need to send what has changed.
+            TerminalDelta delta = monitor.writeDelta( false );
+            ReferenceCounted contents;
+            NetworkMessage message;
+            if( delta == null )
+            {
+                TerminalState state = monitor.write();
+                contents = state;
+                message = new MonitorClientMessage( pos, state );
+                limit -= state.size();
+            }
+            else
+            {
+                contents = delta;
+                message = new MonitorDeltaClientMessage( pos, delta );
+                limit -= delta.size();
+            }
 
-            limit -= state.size();
+            try
+            {
+                NetworkHandler.sendToAllTracking( message, chunk );
+            }
+            finally
+            {
+                contents.release();
+            }
         }
     }
 
@@ -119,13 +165,6 @@ public final class MonitorWatcher
         return !monitor.isRemoved() && monitor.getXIndex() == 0 && monitor.getYIndex() == 0 ? monitor.getCachedServerMonitor() : null;
     }
 
-    private static TerminalState getState( TileMonitor tile, ServerMonitor monitor )
-    {
-        TerminalState state = tile.cached;
-        if( state == null ) state = tile.cached = monitor.write();
-        return state;
-    }
-
     private static final class PlayerUpdate
     {
         final ServerPlayerEntity player;
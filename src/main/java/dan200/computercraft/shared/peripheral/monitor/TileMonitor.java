@@ -11,6 +11,7 @@ import dan200.computercraft.api.peripheral.IPeripheral;
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.shared.common.ServerTerminal;
 import dan200.computercraft.shared.common.TileGeneric;
+import dan200.computercraft.shared.network.client.TerminalDelta;
 import dan200.computercraft.shared.network.client.TerminalState;
 import dan200.computercraft.shared.util.CapabilityUtil;
 import dan200.computercraft.shared.util.TickScheduler;
@@ -61,7 +62,6 @@ public class TileMonitor extends TileGeneric
 
     // MonitorWatcher state.
     boolean enqueued;
-    TerminalState cached;
 
     private int width = 1;
     private int height = 1;
@@ -321,6 +321,25 @@ public class TileMonitor extends TileGeneric
         clientMonitor.read( state );
     }
 
+    /**
+     * Apply a delta to this monitor's terminal.
+     *
+     * @param delta The delta to apply.
+     * @return {@code false} if we are out of sync, and so should request the whole terminal from the server.
+     * @see ClientMonitor#read(TerminalDelta)
+     */
+    public final boolean read( TerminalDelta delta )
+    {
+        if( xIndex != 0 || yIndex != 0 )
+        {
+            ComputerCraft.log.warn( "Receiving monitor state for non-origin terminal at {}", getBlockPos() );
+            return true;
+        }
+
+        if( clientMonitor == null ) clientMonitor = new ClientMonitor( advanced, this );
+        return clientMonitor.read( delta );
+    }
+
     // Sizing and placement stuff
 
     private void updateBlockState()
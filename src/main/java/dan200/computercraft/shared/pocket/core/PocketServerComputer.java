@@ -13,7 +13,6 @@ import dan200.computercraft.core.computer.ComputerSide;
 import dan200.computercraft.shared.common.IColouredItem;
 import dan200.computercraft.shared.computer.core.ComputerFamily;
 import dan200.computercraft.shared.computer.core.ServerComputer;
-import dan200.computercraft.shared.network.NetworkHandler;
 import dan200.computercraft.shared.pocket.items.ItemPocketComputer;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.LivingEntity;
@@ -167,7 +166,7 @@ public class PocketServerComputer extends ServerComputer implements IPocketAcces
         }
 
         // If a new entity has picked it up then rebroadcast the terminal to them
-        if( entity != this.entity && entity instanceof ServerPlayerEntity ) markTerminalChanged();
+        if( entity != this.entity && entity instanceof ServerPlayerEntity ) requireFullUpdate();
 
         this.entity = entity;
         this.stack = stack;
@@ -180,18 +179,9 @@ public class PocketServerComputer extends ServerComputer implements IPocketAcces
     }
 
     @Override
-    public void broadcastState( boolean force )
+    public boolean isViewing( PlayerEntity player )
     {
-        super.broadcastState( force );
-
-        if( (hasTerminalChanged() || force) && entity instanceof ServerPlayerEntity )
-        {
-            // Broadcast the state to the current entity if they're not already interacting with it.
-            ServerPlayerEntity player = (ServerPlayerEntity) entity;
-            if( player.connection != null && !isInteracting( player ) )
-            {
-                NetworkHandler.sendToPlayer( player, createTerminalPacket() );
-            }
-        }
+        // The player holding the pocket computer can see its terminal, even when not interacting with it.
+        return super.isViewing( player ) || (player == entity && ((ServerPlayerEntity) player).connection != null);
     }
 }
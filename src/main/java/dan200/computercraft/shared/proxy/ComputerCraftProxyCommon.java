@@ -15,6 +15,7 @@ import dan200.computercraft.core.tracking.Tracking;
 import dan200.computercraft.shared.command.CommandComputerCraft;
 import dan200.computercraft.shared.command.arguments.ArgumentSerializers;
 import dan200.computercraft.shared.common.DefaultBundledRedstoneProvider;
+import dan200.computercraft.shared.common.ServerTerminal;
 import dan200.computercraft.shared.computer.core.IComputer;
 import dan200.computercraft.shared.computer.core.IContainerComputer;
 import dan200.computercraft.shared.computer.core.ServerComputer;
@@ -27,6 +28,7 @@ import dan200.computercraft.shared.peripheral.generic.methods.EnergyMethods;
 import dan200.computercraft.shared.peripheral.generic.methods.FluidMethods;
 import dan200.computercraft.shared.peripheral.generic.methods.InventoryMethods;
 import dan200.computercraft.shared.peripheral.modem.wireless.WirelessNetwork;
+import dan200.computercraft.shared.util.IDAssigner;
 import dan200.computercraft.shared.util.NullStorage;
 import net.minecraft.inventory.container.Container;
 import net.minecraft.item.Item;
@@ -40,6 +42,7 @@ import net.minecraftforge.event.LootTableLoadEvent;
 import net.minecraftforge.event.RegisterCommandsEvent;
 import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.player.PlayerContainerEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fluids.capability.CapabilityFluidHandler;
 import net.minecraftforge.fml.DeferredWorkQueue;
@@ -135,6 +138,8 @@ public final class ComputerCraftProxyCommon
         {
             if( event.phase == TickEvent.Phase.START )
             {
+                ServerTerminal.releaseCachedStates();
+                WirelessNetwork.updateNetworks();
                 MainThread.executePendingTasks();
                 ComputerCraft.serverComputerRegistry.update();
             }
@@ -150,6 +155,7 @@ public final class ComputerCraftProxyCommon
                 IComputer computer = ((IContainerComputer) container).getComputer();
                 if( computer instanceof ServerComputer )
                 {
+                    ((ServerComputer) computer).markInteracted();
                     ((ServerComputer) computer).sendTerminalState( event.getPlayer() );
                 }
             }
@@ -169,10 +175,18 @@ public final class ComputerCraftProxyCommon
             Tracking.reset();
         }
 
+        @SubscribeEvent
+        public static void onWorldSave( WorldEvent.Save event )
+        {
+            if( !event.getWorld().isClientSide() ) IDAssigner.flush();
+        }
+
         @SubscribeEvent
         public static void onServerStopped( FMLServerStoppedEvent event )
         {
+            IDAssigner.reset();
             ComputerCraft.serverComputerRegistry.reset();
+            ServerTerminal.releaseCachedStates();
             WirelessNetwork.resetNetworks();
             Tracking.reset();
         }
@@ -706,6 +706,32 @@ public class TurtleAPI implements ILuaAPI
         return trackCommand( new TurtleInspectCommand( InteractDirection.DOWN ) );
     }
 
+    /**
+     * Get information about every block around the turtle.
+     *
+     * This returns the same information as {@link #inspect}, but for all six neighbouring blocks at once. This is
+     * much faster than inspecting each block individually, as it only takes a single turtle command.
+     *
+     * @return The turtle command result.
+     * @cc.treturn boolean Whether the scan succeeded. This is always {@code true}.
+     * @cc.treturn table A table of blocks around the turtle, with the keys `forward`, `back`, `left`, `right`, `up` and
+     * `down`. Each entry contains the same information as {@link #inspect}, or is `nil` if there is no block in that
+     * direction.
+     * @cc.usage Dig any adjacent diamond ore.
+     * <pre>{@code
+     * local _, blocks = turtle.scan()
+     * if blocks.up and blocks.up.name == "minecraft:diamond_ore" then turtle.digUp() end
+     * if blocks.down and blocks.down.name == "minecraft:diamond_ore" then turtle.digDown() end
+     * if blocks.forward and blocks.forward.name == "minecraft:diamond_ore" then turtle.dig() end
+     * }</pre>
+     * @see #inspect
+     */
+    @LuaFunction
+    public final MethodResult scan()
+    {
+        return trackCommand( new TurtleScanCommand() );
+    }
+
     /**
      * Get detailed information about the items in the given slot.
      *
@@ -11,6 +11,7 @@ import dan200.computercraft.ComputerCraft;
 import dan200.computercraft.api.lua.ILuaCallback;
 import dan200.computercraft.api.lua.MethodResult;
 import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.api.peripheral.IWorkMonitor;
 import dan200.computercraft.api.turtle.*;
 import dan200.computercraft.core.computer.ComputerSide;
 import dan200.computercraft.shared.TurtleUpgrades;
@@ -759,16 +760,42 @@ public class TurtleBrain implements ITurtleAccess
 
     private void updateCommands()
     {
-        if( animation != TurtleAnimation.NONE || commandQueue.isEmpty() ) return;
+        if( isAnimating() || commandQueue.isEmpty() ) return;
 
         // If we've got a computer, ensure that we're allowed to perform work.
         ServerComputer computer = owner.getServerComputer();
-        if( computer != null && !computer.getComputer().getMainThreadMonitor().canWork() ) return;
+        IWorkMonitor monitor = computer == null ? null : computer.getComputer().getMainThreadMonitor();
+        if( monitor != null && !monitor.canWork() ) return;
 
-        // Pull a new command
-        TurtleCommandQueueEntry nextCommand = commandQueue.poll();
-        if( nextCommand == null ) return;
+        // Run as many commands as we can this tick. We only run additional commands if the previous one didn't start
+        // an animation, and we've still got time left.
+        int executed = 0;
+        do
+        {
+            // Pull a new command
+            TurtleCommandQueueEntry nextCommand = commandQueue.poll();
+            if( nextCommand == null ) return;
+
+            runCommand( computer, nextCommand );
+        } while( ++executed < ComputerCraft.turtleMaxCommandsPerTick && !isAnimating() && (monitor == null || monitor.shouldWork()) );
+    }
 
+    /**
+     * Whether we're waiting for an animation to finish before running the next command.
+     *
+     * @return If we cannot run any commands right now.
+     */
+    private boolean isAnimating()
+    {
+        if( animation == TurtleAnimation.NONE ) return false;
+
+        // If we can run multiple commands a tick, don't bother waiting for animations which have no visible effect.
+        return ComputerCraft.turtleMaxCommandsPerTick <= 1
+            || (animation != TurtleAnimation.WAIT && animation != TurtleAnimation.SHORT_WAIT);
+    }
+
+    private void runCommand( @Nullable ServerComputer computer, TurtleCommandQueueEntry nextCommand )
+    {
         // Execute the command
         long start = System.nanoTime();
         TurtleCommandResult result = nextCommand.command.execute( this );
@@ -34,8 +34,19 @@ public class TurtleInspectCommand implements ITurtleCommand
     public TurtleCommandResult execute( @Nonnull ITurtleAccess turtle )
     {
         // Get world direction from direction
-        Direction direction = this.direction.toWorldDir( turtle );
+        return inspect( turtle, direction.toWorldDir( turtle ) );
+    }
 
+    /**
+     * Inspect the block next to the turtle.
+     *
+     * @param turtle    The turtle inspecting the block.
+     * @param direction The direction of the block, relative to the turtle.
+     * @return The block's information, or a failure if there is no block or the inspection was cancelled.
+     */
+    @Nonnull
+    static TurtleCommandResult inspect( @Nonnull ITurtleAccess turtle, @Nonnull Direction direction )
+    {
         // Check if thing in front is air or not
         World world = turtle.getWorld();
         BlockPos oldPosition = turtle.getPosition();
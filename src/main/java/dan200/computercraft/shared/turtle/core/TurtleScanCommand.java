@@ -0,0 +1,43 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.turtle.core;
+
+import dan200.computercraft.api.turtle.ITurtleAccess;
+import dan200.computercraft.api.turtle.ITurtleCommand;
+import dan200.computercraft.api.turtle.TurtleCommandResult;
+import net.minecraft.util.Direction;
+
+import javax.annotation.Nonnull;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Inspects every block around the turtle at once, as if calling {@link TurtleInspectCommand} in each direction.
+ */
+public class TurtleScanCommand implements ITurtleCommand
+{
+    @Nonnull
+    @Override
+    public TurtleCommandResult execute( @Nonnull ITurtleAccess turtle )
+    {
+        Direction forward = turtle.getDirection();
+
+        Map<String, Object> blocks = new HashMap<>( 8 );
+        inspect( blocks, "forward", turtle, forward );
+        inspect( blocks, "back", turtle, forward.getOpposite() );
+        inspect( blocks, "left", turtle, forward.getCounterClockWise() );
+        inspect( blocks, "right", turtle, forward.getClockWise() );
+        inspect( blocks, "up", turtle, Direction.UP );
+        inspect( blocks, "down", turtle, Direction.DOWN );
+        return TurtleCommandResult.success( new Object[] { blocks } );
+    }
+
+    private static void inspect( Map<String, Object> blocks, String name, ITurtleAccess turtle, Direction direction )
+    {
+        TurtleCommandResult result = TurtleInspectCommand.inspect( turtle, direction );
+        if( result.isSuccess() ) blocks.put( name, result.getResults()[0] );
+    }
+}
@@ -14,16 +14,31 @@ import net.minecraft.world.storage.FolderName;
 import net.minecraftforge.fml.server.ServerLifecycleHooks;
 
 import java.io.File;
+import java.io.IOException;
 import java.io.Reader;
 import java.io.Writer;
 import java.lang.ref.WeakReference;
 import java.lang.reflect.Type;
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.*;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Assigns unique IDs to computers, disks and other objects.
+ *
+ * IDs are allocated in memory, and written back to {@code ids.json} on a background thread. Several allocations made
+ * in quick succession are coalesced into a single write, and the file is always replaced atomically. Any pending
+ * changes are also written when the world is saved (see {@link #flush()}).
+ *
+ * If the server crashes before the file is written, we may lose some allocations. To avoid reissuing IDs, we also
+ * check the {@code computer/}, {@code disk/}, etc... directories for the highest ID in use when first allocating an ID
+ * of that kind.
+ */
 public final class IDAssigner
 {
     private static final FolderName FOLDER = new FolderName( ComputerCraft.MOD_ID );
@@ -32,75 +47,209 @@ public final class IDAssigner
     {
     }.getType();
 
+    private static final ExecutorService saver = new ThreadPoolExecutor(
+        0, 1, 30L, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(),
+        ThreadUtils.factory( "ID Saver" )
+    );
+
     private IDAssigner()
     {
     }
 
-    private static Map<String, Integer> ids;
-    private static WeakReference<MinecraftServer> server;
-    private static Path idFile;
+    private static volatile Store store;
 
     public static File getDir()
     {
         return ServerLifecycleHooks.getCurrentServer().getWorldPath( FOLDER ).toFile();
     }
 
-    private static MinecraftServer getCachedServer()
+    public static int getNextId( String kind )
     {
-        if( server == null ) return null;
+        Store store = getStore();
+        int next = store.ids.computeIfAbsent( kind, store::load ).incrementAndGet();
+        store.markDirty();
+        return next;
+    }
 
-        MinecraftServer currentServer = server.get();
-        if( currentServer == null ) return null;
+    /**
+     * Write any pending changes to disk, waiting for them to be saved.
+     */
+    public static void flush()
+    {
+        Store store = IDAssigner.store;
+        if( store != null ) store.save();
+    }
 
-        if( currentServer != ServerLifecycleHooks.getCurrentServer() ) return null;
-        return currentServer;
+    /**
+     * Write any pending changes and discard the current ID map. This should be called when the server stops.
+     */
+    public static synchronized void reset()
+    {
+        flush();
+        store = null;
     }
 
-    public static synchronized int getNextId( String kind )
+    private static Store getStore()
     {
-        MinecraftServer currentServer = getCachedServer();
-        if( currentServer == null )
+        MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+        Store store = IDAssigner.store;
+        if( store != null && store.server.get() == server ) return store;
+
+        synchronized( IDAssigner.class )
         {
-            // The server has changed, refetch our ID map
-            server = new WeakReference<>( ServerLifecycleHooks.getCurrentServer() );
+            store = IDAssigner.store;
+            if( store != null && store.server.get() == server ) return store;
+
+            // The server has changed, save the old ID map and fetch the new one.
+            if( store != null ) store.save();
 
             File dir = getDir();
             dir.mkdirs();
+            return IDAssigner.store = new Store( server, dir.toPath() );
+        }
+    }
+
+    private static final class Store
+    {
+        final WeakReference<MinecraftServer> server;
+        private final Path root;
+        private final Path idFile;
+
+        /**
+         * The IDs stored in our ID file, when it was loaded. This is only used when an ID kind is first used.
+         */
+        private final Map<String, Integer> saved;
 
-            // Load our ID file from disk
-            idFile = new File( dir, "ids.json" ).toPath();
+        /**
+         * The last ID assigned for each kind.
+         */
+        final Map<String, AtomicInteger> ids = new ConcurrentHashMap<>();
+
+        /**
+         * Whether a save has been queued but not yet started.
+         */
+        private final AtomicBoolean saveQueued = new AtomicBoolean();
+
+        /**
+         * Whether any IDs have been assigned since the last save.
+         */
+        private final AtomicBoolean dirty = new AtomicBoolean();
+
+        Store( MinecraftServer server, Path root )
+        {
+            this.server = new WeakReference<>( server );
+            this.root = root;
+            idFile = root.resolve( "ids.json" );
+
+            Map<String, Integer> saved = null;
             if( Files.isRegularFile( idFile ) )
             {
                 try( Reader reader = Files.newBufferedReader( idFile, StandardCharsets.UTF_8 ) )
                 {
-                    ids = GSON.fromJson( reader, ID_TOKEN );
+                    saved = GSON.fromJson( reader, ID_TOKEN );
                 }
                 catch( Exception e )
                 {
                     ComputerCraft.log.error( "Cannot load id file '" + idFile + "'", e );
-                    ids = new HashMap<>();
                 }
             }
-            else
+            this.saved = saved == null ? new HashMap<>() : saved;
+        }
+
+        /**
+         * Find the last ID assigned for a given kind. This uses the larger of the value in the ID file and the
+         * highest numbered file or directory within that kind's folder.
+         *
+         * @param kind The kind of ID.
+         * @return The last ID assigned, or -1 if none have been.
+         */
+        AtomicInteger load( String kind )
+        {
+            Integer existing = saved.get( kind );
+            int last = existing == null ? -1 : existing;
+
+            Path dir;
+            try
             {
-                ids = new HashMap<>();
+                dir = root.resolve( kind );
+            }
+            catch( InvalidPathException e )
+            {
+                // Some kinds (such as peripheral names) are not valid paths, and so will not have a folder anyway.
+                return new AtomicInteger( last );
+            }
+
+            if( Files.isDirectory( dir ) )
+            {
+                try( DirectoryStream<Path> children = Files.newDirectoryStream( dir ) )
+                {
+                    int highest = -1;
+                    for( Path child : children ) highest = Math.max( highest, parseId( child.getFileName().toString() ) );
+
+                    if( highest > last )
+                    {
+                        ComputerCraft.log.warn( "ID file is out of date: last {} ID is {}, but {} is in use.", kind, last, highest );
+                        last = highest;
+                    }
+                }
+                catch( IOException e )
+                {
+                    ComputerCraft.log.error( "Cannot list directory '" + dir + "'", e );
+                }
             }
-        }
 
-        Integer existing = ids.get( kind );
-        int next = existing == null ? 0 : existing + 1;
-        ids.put( kind, next );
+            return new AtomicInteger( last );
+        }
 
-        // We've changed the ID file, so save it back again.
-        try( Writer writer = Files.newBufferedWriter( idFile, StandardCharsets.UTF_8 ) )
+        void markDirty()
         {
-            GSON.toJson( ids, writer );
+            dirty.set( true );
+            if( saveQueued.compareAndSet( false, true ) ) saver.execute( this::save );
         }
-        catch( Exception e )
+
+        synchronized void save()
         {
-            ComputerCraft.log.error( "Cannot update ID file '" + idFile + "'", e );
+            saveQueued.set( false );
+            if( !dirty.getAndSet( false ) ) return;
+
+            Map<String, Integer> ids = new TreeMap<>( saved );
+            for( Map.Entry<String, AtomicInteger> entry : this.ids.entrySet() ) ids.put( entry.getKey(), entry.getValue().get() );
+
+            Path tempFile = idFile.resolveSibling( "ids.json.tmp" );
+            try
+            {
+                try( Writer writer = Files.newBufferedWriter( tempFile, StandardCharsets.UTF_8 ) )
+                {
+                    GSON.toJson( ids, writer );
+                }
+
+                try
+                {
+                    Files.move( tempFile, idFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE );
+                }
+                catch( AtomicMoveNotSupportedException e )
+                {
+                    Files.move( tempFile, idFile, StandardCopyOption.REPLACE_EXISTING );
+                }
+            }
+            catch( Exception e )
+            {
+                // Try again next time an ID is assigned or the world is saved.
+                dirty.set( true );
+                ComputerCraft.log.error( "Cannot update ID file '" + idFile + "'", e );
+            }
         }
+    }
 
-        return next;
+    private static int parseId( String name )
+    {
+        if( name.isEmpty() || name.length() > 9 ) return -1;
+        for( int i = 0; i < name.length(); i++ )
+        {
+            char c = name.charAt( i );
+            if( c < '0' || c > '9' ) return -1;
+        }
+        return Integer.parseInt( name );
     }
 }
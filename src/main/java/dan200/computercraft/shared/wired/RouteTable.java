@@ -0,0 +1,213 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.wired;
+
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.World;
+
+import javax.annotation.Nonnull;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * The shortest paths between nodes in a {@link WiredNetwork}, used when transmitting packets.
+ *
+ * This is a snapshot of the network's topology: nodes are numbered, and their edges stored in flat arrays. The
+ * distances from each node are then computed the first time that node transmits, and reused until the network
+ * changes and this table is discarded. As a node only belongs to one network, and a table is only used while its network
+ * is unchanged, each node's index is stored on the node itself ({@link WiredNode#routeIndex}).
+ *
+ * @see WiredNetwork#transmitPacket
+ */
+final class RouteTable
+{
+    final WiredNode[] nodes;
+
+    /**
+     * The edges of each node: node {@code i}'s neighbours are {@code edges[edgeStart[i] .. edgeStart[i + 1]]}.
+     */
+    private final int[] edgeStart;
+    private final int[] edges;
+
+    /**
+     * The length of each edge, or {@link Double#POSITIVE_INFINITY} if the edge crosses worlds.
+     */
+    private final double[] lengths;
+
+    private final AtomicReferenceArray<Route> routes;
+
+    RouteTable( @Nonnull Collection<WiredNode> nodes )
+    {
+        int size = nodes.size();
+        this.nodes = nodes.toArray( new WiredNode[0] );
+        for( int i = 0; i < size; i++ ) this.nodes[i].routeIndex = i;
+
+        int edgeCount = 0;
+        for( WiredNode node : this.nodes ) edgeCount += node.neighbours.size();
+
+        edgeStart = new int[size + 1];
+        edges = new int[edgeCount];
+        lengths = new double[edgeCount];
+
+        int edge = 0;
+        for( int i = 0; i < size; i++ )
+        {
+            edgeStart[i] = edge;
+
+            WiredNode node = this.nodes[i];
+            World world = node.element.getWorld();
+            Vector3d position = node.element.getPosition();
+            for( WiredNode neighbour : node.neighbours )
+            {
+                edges[edge] = neighbour.routeIndex;
+                lengths[edge] = world == neighbour.element.getWorld()
+                    ? position.distanceTo( neighbour.element.getPosition() )
+                    : Double.POSITIVE_INFINITY;
+                edge++;
+            }
+        }
+        edgeStart[size] = edge;
+
+        routes = new AtomicReferenceArray<>( size );
+    }
+
+    /**
+     * Get the shortest paths from a node, computing them if needed.
+     *
+     * @param start The node to find paths from.
+     * @return The paths from this node.
+     */
+    @Nonnull
+    Route getRoute( @Nonnull WiredNode start )
+    {
+        int index = start.routeIndex;
+        Route route = routes.get( index );
+        if( route != null ) return route;
+
+        // Multiple threads may compute this at once, but that's fine - they'll come up with the same answer.
+        route = computeRoute( index );
+        return routes.compareAndSet( index, null, route ) ? route : routes.get( index );
+    }
+
+    /**
+     * Find the shortest path to every node, using Dijkstra's algorithm with an indexed binary heap.
+     *
+     * @param start The index of the starting node.
+     * @return The shortest distances from this node.
+     */
+    private Route computeRoute( int start )
+    {
+        int size = nodes.length;
+        double[] distance = new double[size];
+        boolean[] reached = new boolean[size];
+
+        // The heap of node indices, and each node's position in it (or -1 if not in the heap).
+        int[] heap = new int[size];
+        int[] heapIndex = new int[size];
+        int heapSize = 0;
+
+        reached[start] = true;
+        heap[heapSize] = start;
+        heapIndex[start] = heapSize++;
+
+        while( heapSize > 0 )
+        {
+            int node = heap[0];
+            heapIndex[node] = -1;
+            if( --heapSize > 0 )
+            {
+                int last = heap[heapSize];
+                heap[0] = last;
+                heapIndex[last] = 0;
+                siftDown( heap, heapIndex, heapSize, distance, 0 );
+            }
+
+            double nodeDistance = distance[node];
+            for( int edge = edgeStart[node], end = edgeStart[node + 1]; edge < end; edge++ )
+            {
+                int neighbour = edges[edge];
+                double length = lengths[edge];
+                double newDistance = nodeDistance + length;
+
+                if( !reached[neighbour] )
+                {
+                    reached[neighbour] = true;
+                    distance[neighbour] = newDistance;
+
+                    heap[heapSize] = neighbour;
+                    heapIndex[neighbour] = heapSize;
+                    siftUp( heap, heapIndex, distance, heapSize++ );
+                }
+                else if( newDistance < distance[neighbour] )
+                {
+                    distance[neighbour] = newDistance;
+                    siftUp( heap, heapIndex, distance, heapIndex[neighbour] );
+                }
+            }
+        }
+
+        return new Route( distance, reached );
+    }
+
+    private static void siftUp( int[] heap, int[] heapIndex, double[] distance, int index )
+    {
+        int node = heap[index];
+        double nodeDistance = distance[node];
+        while( index > 0 )
+        {
+            int parentIndex = (index - 1) >> 1;
+            int parent = heap[parentIndex];
+            if( distance[parent] <= nodeDistance ) break;
+
+            heap[index] = parent;
+            heapIndex[parent] = index;
+            index = parentIndex;
+        }
+
+        heap[index] = node;
+        heapIndex[node] = index;
+    }
+
+    private static void siftDown( int[] heap, int[] heapIndex, int heapSize, double[] distance, int index )
+    {
+        int node = heap[index];
+        double nodeDistance = distance[node];
+        while( true )
+        {
+            int childIndex = index * 2 + 1;
+            if( childIndex >= heapSize ) break;
+
+            if( childIndex + 1 < heapSize && distance[heap[childIndex + 1]] < distance[heap[childIndex]] ) childIndex++;
+
+            int child = heap[childIndex];
+            if( nodeDistance <= distance[child] ) break;
+
+            heap[index] = child;
+            heapIndex[child] = index;
+            index = childIndex;
+        }
+
+        heap[index] = node;
+        heapIndex[node] = index;
+    }
+
+    /**
+     * The shortest distance from one node to every other node in the network. Distances are relative to the starting
+     * node, and so do not include the distance from the sender to that node. Nodes which can only be reached by
+     * crossing worlds have an infinite distance.
+     */
+    static final class Route
+    {
+        final double[] distance;
+        final boolean[] reachable;
+
+        Route( double[] distance, boolean[] reachable )
+        {
+            this.distance = distance;
+            this.reachable = reachable;
+        }
+    }
+}
@@ -10,8 +10,6 @@ import dan200.computercraft.api.network.Packet;
 import dan200.computercraft.api.network.wired.IWiredNetwork;
 import dan200.computercraft.api.network.wired.IWiredNode;
 import dan200.computercraft.api.peripheral.IPeripheral;
-import net.minecraft.util.math.vector.Vector3d;
-import net.minecraft.world.World;
 
 import javax.annotation.Nonnull;
 import java.util.*;
@@ -24,6 +22,12 @@ public final class WiredNetwork implements IWiredNetwork
     HashSet<WiredNode> nodes;
     private HashMap<String, IPeripheral> peripherals = new HashMap<>();
 
+    /**
+     * The routes between nodes in this network, or {@code null} if they have not been computed since the network's
+     * topology last changed.
+     */
+    private volatile RouteTable routes;
+
     WiredNetwork( WiredNode node )
     {
         nodes = new HashSet<>( 1 );
@@ -92,6 +96,7 @@ public final class WiredNetwork implements IWiredNetwork
 
             boolean added = wiredU.neighbours.add( wiredV );
             if( added ) wiredV.neighbours.add( wiredU );
+            if( added || !hasU || !hasV ) routes = null;
 
             InvariantChecker.checkNetwork( this );
             InvariantChecker.checkNode( wiredU );
@@ -122,55 +127,38 @@ public final class WiredNetwork implements IWiredNetwork
             // If there was no connection to remove then split.
             if( !wiredU.neighbours.remove( wiredV ) ) return false;
             wiredV.neighbours.remove( wiredU );
+            routes = null;
 
-            // Determine if there is still some connection from u to v.
-            // Note this is an inlining of reachableNodes which short-circuits
-            // if all nodes are reachable.
-            Queue<WiredNode> enqueued = new ArrayDeque<>();
-            HashSet<WiredNode> reachableU = new HashSet<>();
-
-            reachableU.add( wiredU );
-            enqueued.add( wiredU );
-
-            while( !enqueued.isEmpty() )
-            {
-                WiredNode node = enqueued.remove();
-                for( WiredNode neighbour : node.neighbours )
-                {
-                    // If we can reach wiredV from wiredU then abort.
-                    if( neighbour == wiredV ) return true;
+            // Determine if there is still some connection from u to v. If not, the smaller half is split off into a
+            // new network.
+            List<HashSet<WiredNode>> split = findSplits( Arrays.asList( wiredU, wiredV ) );
+            if( split.isEmpty() ) return true;
 
-                    // Otherwise attempt to enqueue this neighbour as well.
-                    if( reachableU.add( neighbour ) ) enqueued.add( neighbour );
-                }
-            }
-
-            // Create a new network with all U-reachable nodes/edges and remove them
-            // from the existing graph.
-            WiredNetwork networkU = new WiredNetwork( reachableU );
-            networkU.lock.writeLock().lock();
+            HashSet<WiredNode> reachable = split.get( 0 );
+            WiredNetwork newNetwork = new WiredNetwork( reachable );
+            newNetwork.lock.writeLock().lock();
             try
             {
                 // Remove nodes from this network
-                nodes.removeAll( reachableU );
+                nodes.removeAll( reachable );
 
                 // Set network and transfer peripherals
-                for( WiredNode node : reachableU )
+                for( WiredNode node : reachable )
                 {
-                    node.network = networkU;
-                    networkU.peripherals.putAll( node.peripherals );
+                    node.network = newNetwork;
+                    newNetwork.peripherals.putAll( node.peripherals );
                     peripherals.keySet().removeAll( node.peripherals.keySet() );
                 }
 
                 // Broadcast changes
-                if( !peripherals.isEmpty() ) WiredNetworkChange.removed( peripherals ).broadcast( networkU.nodes );
-                if( !networkU.peripherals.isEmpty() )
+                if( !peripherals.isEmpty() ) WiredNetworkChange.removed( peripherals ).broadcast( newNetwork.nodes );
+                if( !newNetwork.peripherals.isEmpty() )
                 {
-                    WiredNetworkChange.removed( networkU.peripherals ).broadcast( nodes );
+                    WiredNetworkChange.removed( newNetwork.peripherals ).broadcast( nodes );
                 }
 
                 InvariantChecker.checkNetwork( this );
-                InvariantChecker.checkNetwork( networkU );
+                InvariantChecker.checkNetwork( newNetwork );
                 InvariantChecker.checkNode( wiredU );
                 InvariantChecker.checkNode( wiredV );
 
@@ -178,7 +166,7 @@ public final class WiredNetwork implements IWiredNetwork
             }
             finally
             {
-                networkU.lock.writeLock().unlock();
+                newNetwork.lock.writeLock().unlock();
             }
         }
         finally
@@ -205,24 +193,14 @@ public final class WiredNetwork implements IWiredNetwork
             // Remove this node and move into a separate network.
             nodes.remove( wired );
             for( WiredNode neighbour : neighbours ) neighbour.neighbours.remove( wired );
+            routes = null;
 
             WiredNetwork wiredNetwork = new WiredNetwork( wired );
 
-            // If we're a leaf node in the graph (only one neighbour) then we don't need to
-            // check for network splitting
-            if( neighbours.size() == 1 )
-            {
-                // Broadcast our simple peripheral changes
-                removeSingleNode( wired, wiredNetwork );
-                InvariantChecker.checkNode( wired );
-                InvariantChecker.checkNetwork( wiredNetwork );
-                return true;
-            }
-
-            HashSet<WiredNode> reachable = reachableNodes( neighbours.iterator().next() );
-
-            // If all nodes are reachable then exit.
-            if( reachable.size() == nodes.size() )
+            // Find any groups of neighbours which are no longer connected to the rest of the network. The largest
+            // group is never fully explored, and remains part of this network.
+            List<HashSet<WiredNode>> split = findSplits( neighbours );
+            if( split.isEmpty() )
             {
                 // Broadcast our simple peripheral changes
                 removeSingleNode( wired, wiredNetwork );
@@ -231,55 +209,53 @@ public final class WiredNetwork implements IWiredNetwork
                 return true;
             }
 
-            // A split may cause 2..neighbours.size() separate networks, so we
-            // iterate through our neighbour list, generating child networks.
-            neighbours.removeAll( reachable );
-            ArrayList<WiredNetwork> maximals = new ArrayList<>( neighbours.size() + 1 );
+            // A split may cause 2..neighbours.size() separate networks, so we generate a child network for each
+            // disconnected group.
+            ArrayList<WiredNetwork> maximals = new ArrayList<>( split.size() + 1 );
             maximals.add( wiredNetwork );
-            maximals.add( new WiredNetwork( reachable ) );
-
-            while( !neighbours.isEmpty() )
-            {
-                reachable = reachableNodes( neighbours.iterator().next() );
-                neighbours.removeAll( reachable );
-                maximals.add( new WiredNetwork( reachable ) );
-            }
+            for( HashSet<WiredNode> reachable : split ) maximals.add( new WiredNetwork( reachable ) );
 
             for( WiredNetwork network : maximals ) network.lock.writeLock().lock();
 
             try
             {
+                Map<String, IPeripheral> oldPeripherals = new HashMap<>( peripherals );
+
                 // We special case the original node: detaching all peripherals when needed.
                 wired.network = wiredNetwork;
+                wired.neighbours.clear();
+                peripherals.keySet().removeAll( wired.peripherals.keySet() );
                 wired.peripherals = Collections.emptyMap();
 
-                // Ensure every network is finalised
-                for( WiredNetwork network : maximals )
+                // Ensure every network is finalised, moving their nodes and peripherals out of this one.
+                for( int i = 1; i < maximals.size(); i++ )
                 {
+                    WiredNetwork network = maximals.get( i );
+                    nodes.removeAll( network.nodes );
                     for( WiredNode child : network.nodes )
                     {
                         child.network = network;
                         network.peripherals.putAll( child.peripherals );
+                        peripherals.keySet().removeAll( child.peripherals.keySet() );
                     }
                 }
 
+                InvariantChecker.checkNetwork( this );
                 for( WiredNetwork network : maximals ) InvariantChecker.checkNetwork( network );
                 InvariantChecker.checkNode( wired );
 
                 // Then broadcast network changes once all nodes are finalised
                 for( WiredNetwork network : maximals )
                 {
-                    WiredNetworkChange.changeOf( peripherals, network.peripherals ).broadcast( network.nodes );
+                    WiredNetworkChange.changeOf( oldPeripherals, network.peripherals ).broadcast( network.nodes );
                 }
+                WiredNetworkChange.changeOf( oldPeripherals, peripherals ).broadcast( nodes );
             }
             finally
             {
                 for( WiredNetwork network : maximals ) network.lock.writeLock().unlock();
             }
 
-            nodes.clear();
-            peripherals.clear();
-
             return true;
         }
         finally
@@ -321,60 +297,42 @@ public final class WiredNetwork implements IWiredNetwork
 
     static void transmitPacket( WiredNode start, Packet packet, double range, boolean interdimensional )
     {
-        Map<WiredNode, TransmitPoint> points = new HashMap<>();
-        TreeSet<TransmitPoint> transmitTo = new TreeSet<>();
+        RouteTable routes = start.network.getRoutes();
+        RouteTable.Route route = routes.getRoute( start );
 
-        {
-            TransmitPoint startEntry = start.element.getWorld() != packet.getSender().getWorld()
-                ? new TransmitPoint( start, Double.POSITIVE_INFINITY, true )
-                : new TransmitPoint( start, start.element.getPosition().distanceTo( packet.getSender().getPosition() ), false );
-            points.put( start, startEntry );
-            transmitTo.add( startEntry );
-        }
+        // Routes are relative to the start node, so offset them by the distance from the sender to that node. Any node
+        // which can only be reached by crossing worlds is treated as interdimensional.
+        double startDistance = start.element.getWorld() == packet.getSender().getWorld()
+            ? start.element.getPosition().distanceTo( packet.getSender().getPosition() )
+            : Double.POSITIVE_INFINITY;
 
+        WiredNode[] nodes = routes.nodes;
+        for( int i = 0; i < nodes.length; i++ )
         {
-            TransmitPoint point;
-            while( (point = transmitTo.pollFirst()) != null )
-            {
-                World world = point.node.element.getWorld();
-                Vector3d position = point.node.element.getPosition();
-                for( WiredNode neighbour : point.node.neighbours )
-                {
-                    TransmitPoint neighbourPoint = points.get( neighbour );
+            if( !route.reachable[i] ) continue;
 
-                    boolean newInterdimensional;
-                    double newDistance;
-                    if( world != neighbour.element.getWorld() )
-                    {
-                        newInterdimensional = true;
-                        newDistance = Double.POSITIVE_INFINITY;
-                    }
-                    else
-                    {
-                        newInterdimensional = false;
-                        newDistance = point.distance + position.distanceTo( neighbour.element.getPosition() );
-                    }
-
-                    if( neighbourPoint == null )
-                    {
-                        TransmitPoint nextPoint = new TransmitPoint( neighbour, newDistance, newInterdimensional );
-                        points.put( neighbour, nextPoint );
-                        transmitTo.add( nextPoint );
-                    }
-                    else if( newDistance < neighbourPoint.distance )
-                    {
-                        transmitTo.remove( neighbourPoint );
-                        neighbourPoint.distance = newDistance;
-                        neighbourPoint.interdimensional = newInterdimensional;
-                        transmitTo.add( neighbourPoint );
-                    }
-                }
-            }
+            double distance = startDistance + route.distance[i];
+            nodes[i].tryTransmit( packet, distance, distance == Double.POSITIVE_INFINITY, range, interdimensional );
         }
+    }
 
-        for( TransmitPoint point : points.values() )
+    /**
+     * Get the routes between this network's nodes, building them if the topology has changed.
+     *
+     * This should be called while holding the read lock, so the network cannot change underneath us.
+     *
+     * @return The routes for this network.
+     */
+    private RouteTable getRoutes()
+    {
+        RouteTable routes = this.routes;
+        if( routes != null ) return routes;
+
+        synchronized( this )
         {
-            point.node.tryTransmit( packet, point.distance, point.interdimensional, range, interdimensional );
+            routes = this.routes;
+            if( routes == null ) this.routes = routes = new RouteTable( nodes );
+            return routes;
         }
     }
 
@@ -406,29 +364,6 @@ public final class WiredNetwork implements IWiredNetwork
         }
     }
 
-    private static class TransmitPoint implements Comparable<TransmitPoint>
-    {
-        final WiredNode node;
-        double distance;
-        boolean interdimensional;
-
-        TransmitPoint( WiredNode node, double distance, boolean interdimensional )
-        {
-            this.node = node;
-            this.distance = distance;
-            this.interdimensional = interdimensional;
-        }
-
-        @Override
-        public int compareTo( @Nonnull TransmitPoint o )
-        {
-            // Objects with the same distance are not the same object, so we must add an additional layer of ordering.
-            return distance == o.distance
-                ? Integer.compare( node.hashCode(), o.node.hashCode() )
-                : Double.compare( distance, o.distance );
-        }
-    }
-
     private static WiredNode checkNode( IWiredNode node )
     {
         if( node instanceof WiredNode )
@@ -441,24 +376,102 @@ public final class WiredNetwork implements IWiredNetwork
         }
     }
 
-    private static HashSet<WiredNode> reachableNodes( WiredNode start )
+    /**
+     * Find which of the given nodes are no longer connected to each other.
+     *
+     * This runs a breadth-first search from every node at once, taking turns to visit one node from each. When two
+     * searches meet they are merged, and when a search runs out of nodes it has found an entire component. We stop as
+     * soon as only one search is left running: as every other component has been found, the remaining one must be
+     * everything else. This means the cost of a split is proportional to the smaller side, rather than the whole
+     * network.
+     *
+     * @param starts The nodes to search from.
+     * @return Every component which is no longer connected to the rest of the network. This does not include the
+     * component being searched when we stop, which should remain part of the original network.
+     */
+    private static List<HashSet<WiredNode>> findSplits( Collection<WiredNode> starts )
     {
-        Queue<WiredNode> enqueued = new ArrayDeque<>();
-        HashSet<WiredNode> reachable = new HashSet<>();
+        if( starts.size() <= 1 ) return Collections.emptyList();
 
-        reachable.add( start );
-        enqueued.add( start );
+        Map<WiredNode, Search> owners = new HashMap<>();
+        List<Search> running = new ArrayList<>( starts.size() );
+        for( WiredNode start : starts )
+        {
+            Search search = new Search( start );
+            owners.put( start, search );
+            running.add( search );
+        }
 
-        WiredNode node;
-        while( (node = enqueued.poll()) != null )
+        List<HashSet<WiredNode>> components = new ArrayList<>( 0 );
+        int index = 0;
+        while( running.size() > 1 )
         {
+            if( index >= running.size() ) index = 0;
+
+            Search search = running.get( index );
+            WiredNode node = search.queue.poll();
+            if( node == null )
+            {
+                // We've found every node connected to this one, so this is a separate component.
+                running.remove( index );
+                components.add( search.nodes );
+                continue;
+            }
+
             for( WiredNode neighbour : node.neighbours )
             {
-                // Otherwise attempt to enqueue this neighbour as well.
-                if( reachable.add( neighbour ) ) enqueued.add( neighbour );
+                Search other = owners.get( neighbour );
+                if( other == null )
+                {
+                    owners.put( neighbour, search );
+                    search.nodes.add( neighbour );
+                    search.queue.add( neighbour );
+                    continue;
+                }
+
+                other = other.find();
+                if( other == search ) continue;
+
+                // These two searches have met, so merge the smaller one into the larger one.
+                Search larger = search.nodes.size() >= other.nodes.size() ? search : other;
+                Search smaller = larger == search ? other : search;
+                larger.nodes.addAll( smaller.nodes );
+                larger.queue.addAll( smaller.queue );
+                smaller.parent = larger;
+                running.remove( smaller );
+                search = larger;
             }
+
+            index++;
         }
 
-        return reachable;
+        return components;
+    }
+
+    /**
+     * A single search started by {@link #findSplits(Collection)}.
+     */
+    private static final class Search
+    {
+        final HashSet<WiredNode> nodes = new HashSet<>();
+        final Queue<WiredNode> queue = new ArrayDeque<>();
+
+        /**
+         * The search this one has been merged into, if any.
+         */
+        Search parent;
+
+        Search( WiredNode start )
+        {
+            nodes.add( start );
+            queue.add( start );
+        }
+
+        Search find()
+        {
+            Search search = this;
+            while( search.parent != null ) search = search.parent;
+            return search;
+        }
     }
 }
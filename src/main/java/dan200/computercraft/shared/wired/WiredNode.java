@@ -27,6 +27,11 @@ public final class WiredNode implements IWiredNode
     final HashSet<WiredNode> neighbours = new HashSet<>();
     volatile WiredNetwork network;
 
+    /**
+     * This node's index in its network's current {@link RouteTable}.
+     */
+    int routeIndex;
+
     public WiredNode( IWiredElement element )
     {
         this.element = element;
@@ -10,6 +10,7 @@ import dan200.computercraft.api.peripheral.IComputerAccess;
 import dan200.computercraft.core.computer.ComputerSide;
 import org.hamcrest.Matcher;
 import org.junit.jupiter.api.Test;
+import org.squiddev.cobalt.Varargs;
 
 import java.io.IOException;
 import java.util.Collection;
@@ -119,6 +120,31 @@ public class GeneratorTest
             contramap( notNullValue(), "callback", MethodResult::getCallback ) );
     }
 
+    @Test
+    public void testDirect() throws LuaException
+    {
+        List<NamedMethod<LuaMethod>> methods = LuaMethod.GENERATOR.getMethods( Direct.class );
+        assertThat( methods, containsInAnyOrder(
+            named( "getInt" ), named( "getLong" ), named( "getBool" ), named( "getString" ), named( "getNull" ),
+            named( "doNothing" ), named( "getArray" ), named( "getMainThread" )
+        ) );
+
+        Direct instance = new Direct();
+        assertThat( applyDirect( methods, instance, "getInt", 2 ).first().toDouble(), is( 3.0 ) );
+        assertThat( applyDirect( methods, instance, "getLong" ).first().toDouble(), is( 1e12 ) );
+        assertThat( applyDirect( methods, instance, "getBool" ).first().toBoolean(), is( true ) );
+        assertThat( applyDirect( methods, instance, "getString", "x" ).first().toString(), is( "x!" ) );
+        assertThat( applyDirect( methods, instance, "getNull" ).first().isNil(), is( true ) );
+        assertThat( applyDirect( methods, instance, "doNothing" ).count(), is( 0 ) );
+        assertThrows( LuaException.class, () -> applyDirect( methods, instance, "getInt", "not a number" ) );
+
+        // The normal method is still available, and gives the same result.
+        assertThat( apply( methods, instance, "getInt", 2 ), one( is( 3 ) ) );
+
+        assertThat( find( methods, "getArray" ), not( instanceOf( DirectLuaMethod.class ) ) );
+        assertThat( find( methods, "getMainThread" ), not( instanceOf( DirectLuaMethod.class ) ) );
+    }
+
     public static class Basic
     {
         @LuaFunction
@@ -221,6 +247,55 @@ public class GeneratorTest
         { }
     }
 
+    public static class Direct
+    {
+        @LuaFunction
+        public final int getInt( int x )
+        {
+            return x + 1;
+        }
+
+        @LuaFunction
+        public final long getLong()
+        {
+            return 1_000_000_000_000L;
+        }
+
+        @LuaFunction
+        public final boolean getBool()
+        {
+            return true;
+        }
+
+        @LuaFunction
+        public final String getString( String x )
+        {
+            return x + "!";
+        }
+
+        @LuaFunction
+        public final String getNull()
+        {
+            return null;
+        }
+
+        @LuaFunction
+        public final void doNothing()
+        { }
+
+        @LuaFunction
+        public final Object[] getArray()
+        {
+            return new Object[] { 1, 2 };
+        }
+
+        @LuaFunction( mainThread = true )
+        public final int getMainThread()
+        {
+            return 1;
+        }
+    }
+
     private static <T> T find( Collection<NamedMethod<T>> methods, String name )
     {
         return methods.stream()
@@ -235,6 +310,13 @@ public class GeneratorTest
         return find( methods, name ).apply( instance, CONTEXT, new ObjectArguments( args ) );
     }
 
+    private static Varargs applyDirect( Collection<NamedMethod<LuaMethod>> methods, Object instance, String name, Object... args ) throws LuaException
+    {
+        LuaMethod method = find( methods, name );
+        assertThat( method, instanceOf( DirectLuaMethod.class ) );
+        return ((DirectLuaMethod) method).applyDirect( instance, CONTEXT, new ObjectArguments( args ) );
+    }
+
     public static Matcher<MethodResult> one( Matcher<Object> object )
     {
         return allOf(
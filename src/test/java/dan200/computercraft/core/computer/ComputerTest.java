@@ -6,13 +6,18 @@
 package dan200.computercraft.core.computer;
 
 import com.google.common.io.CharStreams;
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.ILuaAPI;
+import dan200.computercraft.api.lua.LuaFunction;
 import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
 import java.nio.charset.StandardCharsets;
-import java.util.Objects;
+import java.util.*;
 
 import static java.time.Duration.ofSeconds;
 import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
@@ -37,6 +42,152 @@ public class ComputerTest
         } );
     }
 
+    @Test
+    public void testMemoryLimit()
+    {
+        long limit = ComputerCraft.maxTaskAllocation;
+        ComputerCraft.maxTaskAllocation = 16 << 20;
+        try
+        {
+            assertTimeoutPreemptively( ofSeconds( 20 ), () -> {
+                try
+                {
+                    ComputerBootstrap.run( "local t = {} for i = 1, 1e8 do t[i] = { i } end", ComputerBootstrap.MAX_TIME );
+                }
+                catch( AssertionError e )
+                {
+                    if( e.getMessage().equals( "test.lua:1: Too much memory allocated without yielding" ) ) return;
+                    throw e;
+                }
+
+                Assertions.fail( "Expected computer to run out of memory" );
+            } );
+        }
+        finally
+        {
+            ComputerCraft.maxTaskAllocation = limit;
+        }
+    }
+
+    @Test
+    public void testTimers()
+    {
+        assertTimeoutPreemptively( ofSeconds( 20 ), () -> ComputerBootstrap.run(
+            "local a, b, c, far = os.startTimer(0), os.startTimer(0.1), os.startTimer(0.1), os.startTimer(4) " +
+                "os.cancelTimer(c) " +
+                "local order = {} " +
+                "while #order < 3 do local _, id = os.pullEvent('timer') order[#order + 1] = id end " +
+                "assertion.assert(order[1] == a and order[2] == b and order[3] == far, textutils.serialize(order))",
+            ComputerBootstrap.MAX_TIME
+        ) );
+    }
+
+    @Test
+    public void testConvertTables()
+    {
+        assertTimeoutPreemptively( ofSeconds( 20 ), () -> ComputerBootstrap.run(
+            "local cyclic = tables.cyclic() assertion.assert(cyclic.self == cyclic, 'cyclic') " +
+                "local child, parent = tables.shared() assertion.assert(parent.child == child, 'shared') " +
+                "local list = tables.list() assertion.assert(#list == 50000 and list[50000] == 50000, 'list') " +
+                "local map = tables.map() assertion.assert(map[1] == 'a' and map[2] == 'b' and map.x == 'c', 'map')",
+            x -> x.addApi( new TableApi() ), ComputerBootstrap.MAX_TIME
+        ) );
+    }
+
+    public static class TableApi implements ILuaAPI
+    {
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "tables" };
+        }
+
+        @LuaFunction
+        public final Map<String, Object> cyclic()
+        {
+            Map<String, Object> map = new HashMap<>();
+            map.put( "self", map );
+            return map;
+        }
+
+        @LuaFunction
+        public final Object[] shared()
+        {
+            List<Integer> child = Arrays.asList( 1, 2, 3 );
+            return new Object[] { child, Collections.singletonMap( "child", child ) };
+        }
+
+        @LuaFunction
+        public final List<Integer> list()
+        {
+            List<Integer> list = new ArrayList<>();
+            for( int i = 1; i <= 50000; i++ ) list.add( i );
+            return list;
+        }
+
+        @LuaFunction
+        public final Map<Object, Object> map()
+        {
+            Map<Object, Object> map = new HashMap<>();
+            map.put( 1, "a" );
+            map.put( 2.0, "b" );
+            map.put( "x", "c" );
+            return map;
+        }
+    }
+
+    /**
+     * Boots a computer several times, reporting how long each boot took. The first two boots compile the bios and ROM
+     * from scratch, while later ones should be able to use the shared chunk cache.
+     */
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testBootTime()
+    {
+        for( int i = 0; i < 10; i++ )
+        {
+            long start = System.nanoTime();
+            ComputerBootstrap.run( "assertion.assert(true)", ComputerBootstrap.MAX_TIME );
+            System.out.printf( "Boot %d took %.1fms\n", i + 1, (System.nanoTime() - start) * 1e-6 );
+        }
+    }
+
+    /**
+     * Opens and closes 100k file handles, reporting how much memory the computer thread allocated.
+     */
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testFileHandleAllocations()
+    {
+        ComputerBootstrap.run(
+            "fs.open('file.txt', 'w').close() " +
+                "for round = 1, 5 do " +
+                "  local start, clock = allocations.get(), os.clock() " +
+                "  for i = 1, 1e5 do fs.open('file.txt', 'r').close() end " +
+                "  assertion.log(('%.0f bytes/handle, %.2fus/handle'):format((allocations.get() - start) / 1e5, (os.clock() - clock) * 10)) " +
+                "end " +
+                "assertion.assert(true)",
+            x -> x.addApi( new AllocationApi() ), 1000
+        );
+    }
+
+    public static class AllocationApi implements ILuaAPI
+    {
+        private final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+        @Override
+        public String[] getNames()
+        {
+            return new String[] { "allocations" };
+        }
+
+        @LuaFunction
+        public final long get()
+        {
+            return threads.getThreadAllocatedBytes( Thread.currentThread().getId() );
+        }
+    }
+
     public static void main( String[] args ) throws Exception
     {
         InputStream stream = ComputerTest.class.getClassLoader().getResourceAsStream( "benchmark.lua" );
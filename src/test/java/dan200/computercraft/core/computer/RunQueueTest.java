@@ -0,0 +1,180 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.computer;
+
+import dan200.computercraft.core.terminal.Terminal;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RunQueueTest
+{
+    private static final long SLACK = TimeUnit.MILLISECONDS.toNanos( 5 );
+
+    @Test
+    public void testOrdered()
+    {
+        RunQueue queue = new RunQueue();
+        ComputerExecutor a = executor( 30 ), b = executor( 10 ), c = executor( 20 );
+        queue.offer( a );
+        queue.offer( b );
+        queue.offer( c );
+
+        assertEquals( 10, queue.headRuntime() );
+        assertSame( b, queue.poll() );
+        assertSame( c, queue.poll() );
+        assertSame( a, queue.poll() );
+        assertNull( queue.poll() );
+        assertEquals( Long.MAX_VALUE, queue.headRuntime() );
+    }
+
+    @Test
+    public void testPrefersOwnQueue()
+    {
+        RunQueue[] queues = new RunQueue[] { new RunQueue(), new RunQueue() };
+        ComputerExecutor own = executor( SLACK ), other = executor( 1 );
+        queues[0].offer( own );
+        queues[1].offer( other );
+
+        assertSame( own, RunQueue.next( queues, 0, SLACK ), "Should not steal work within the slack" );
+        assertSame( other, RunQueue.next( queues, 0, SLACK ), "Should steal once our queue is empty" );
+        assertNull( RunQueue.next( queues, 0, SLACK ) );
+    }
+
+    @Test
+    public void testStealsBehindQueue()
+    {
+        RunQueue[] queues = new RunQueue[] { new RunQueue(), new RunQueue(), new RunQueue() };
+        ComputerExecutor own = executor( SLACK * 4 ), behind = executor( SLACK ), further = executor( 0 );
+        queues[0].offer( own );
+        queues[1].offer( behind );
+        queues[2].offer( further );
+
+        assertSame( further, RunQueue.next( queues, 0, SLACK ) );
+        assertSame( behind, RunQueue.next( queues, 0, SLACK ) );
+        assertSame( own, RunQueue.next( queues, 0, SLACK ) );
+    }
+
+    /**
+     * Compares the throughput of the shared queue against {@link RunQueue}s, with each runner repeatedly taking an
+     * executor off the queue and pushing it back again.
+     */
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testThroughput() throws InterruptedException
+    {
+        List<ComputerExecutor> executors = new ArrayList<>();
+        Random random = new Random( 0 );
+        for( int i = 0; i < 1500; i++ ) executors.add( executor( random.nextInt( 1_000_000 ) ) );
+
+        for( int runners : new int[] { 1, 4, 16, 64 } )
+        {
+            long shared = benchmarkShared( executors, runners );
+            long stealing = benchmarkStealing( executors, runners );
+            System.out.printf( "%2d runners: shared %,12d ops/s, work stealing %,12d ops/s%n", runners, shared, stealing );
+        }
+    }
+
+    private static long benchmarkShared( List<ComputerExecutor> executors, int runners ) throws InterruptedException
+    {
+        ReentrantLock lock = new ReentrantLock();
+        TreeSet<ComputerExecutor> queue = new TreeSet<>( RunQueue.ORDER );
+        queue.addAll( executors );
+
+        return benchmark( runners, index -> {
+            ComputerExecutor executor;
+            lock.lock();
+            try
+            {
+                executor = queue.pollFirst();
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            if( executor == null ) return false;
+
+            executor.virtualRuntime += SLACK;
+
+            lock.lock();
+            try
+            {
+                queue.add( executor );
+            }
+            finally
+            {
+                lock.unlock();
+            }
+            return true;
+        } );
+    }
+
+    private static long benchmarkStealing( List<ComputerExecutor> executors, int runners ) throws InterruptedException
+    {
+        RunQueue[] queues = new RunQueue[runners];
+        for( int i = 0; i < runners; i++ ) queues[i] = new RunQueue();
+        for( int i = 0; i < executors.size(); i++ ) queues[i % runners].offer( executors.get( i ) );
+
+        return benchmark( runners, index -> {
+            ComputerExecutor executor = RunQueue.next( queues, index, SLACK );
+            if( executor == null ) return false;
+
+            executor.virtualRuntime += SLACK;
+            queues[index].offer( executor );
+            return true;
+        } );
+    }
+
+    private static long benchmark( int runners, Step step ) throws InterruptedException
+    {
+        AtomicBoolean running = new AtomicBoolean( true );
+        LongAdder operations = new LongAdder();
+        CountDownLatch done = new CountDownLatch( runners );
+
+        for( int i = 0; i < runners; i++ )
+        {
+            int index = i;
+            Thread thread = new Thread( () -> {
+                while( running.get() )
+                {
+                    if( step.run( index ) ) operations.increment();
+                }
+                done.countDown();
+            } );
+            thread.setDaemon( true );
+            thread.start();
+        }
+
+        Thread.sleep( TimeUnit.SECONDS.toMillis( 5 ) );
+        running.set( false );
+        done.await();
+
+        return operations.sum() / 5;
+    }
+
+    private static ComputerExecutor executor( long runtime )
+    {
+        ComputerExecutor executor = new ComputerExecutor( new Computer( new BasicEnvironment(), new Terminal( 1, 1 ), 0 ) );
+        executor.virtualRuntime = runtime;
+        return executor;
+    }
+
+    private interface Step
+    {
+        boolean run( int index );
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.filesystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FileMountTest
+{
+    private static final File ROOT = new File( "test-files/file-mount/mount" );
+    private static final File INDEX = new File( "test-files/file-mount/mount.size" );
+    private static final long CAPACITY = 1000000;
+
+    @BeforeEach
+    public void setup() throws IOException
+    {
+        File parent = ROOT.getParentFile();
+        if( parent.exists() )
+        {
+            Files.walk( parent.toPath() ).map( Path::toFile ).sorted( ( a, b ) -> b.compareTo( a ) ).forEach( File::delete );
+        }
+        parent.mkdirs();
+    }
+
+    /**
+     * Populate the mount with some files, returning the remaining space.
+     *
+     * @return The remaining space.
+     * @throws IOException If the files could not be written.
+     */
+    private static long populate() throws IOException
+    {
+        FileMount mount = new FileMount( ROOT, CAPACITY );
+        mount.makeDirectory( "a/b" );
+        write( mount, "a/b/small.txt", 10 );
+        write( mount, "large.txt", 2000 );
+        write( mount, "deleted.txt", 1000 );
+        mount.delete( "deleted.txt" );
+        return mount.getRemainingSpace();
+    }
+
+    private static void write( FileMount mount, String path, int length ) throws IOException
+    {
+        try( WritableByteChannel channel = mount.openForWrite( path ) )
+        {
+            channel.write( ByteBuffer.allocate( length ) );
+        }
+    }
+
+    @Test
+    public void testIndexMatchesWalk() throws IOException
+    {
+        long remaining = populate();
+        assertTrue( INDEX.isFile(), "Index should exist" );
+
+        assertEquals( remaining, new FileMount( ROOT, CAPACITY ).getRemainingSpace(), "From index" );
+
+        assertTrue( INDEX.delete() );
+        assertEquals( remaining, new FileMount( ROOT, CAPACITY ).getRemainingSpace(), "From walking the directory" );
+    }
+
+    @Test
+    public void testIgnoresDirtyIndex() throws IOException
+    {
+        long remaining = populate();
+
+        // Leave a channel open, as if the server had stopped while writing.
+        FileMount mount = new FileMount( ROOT, CAPACITY );
+        WritableByteChannel channel = mount.openForWrite( "open.txt" );
+        channel.write( ByteBuffer.allocate( 1000 ) );
+
+        assertEquals( remaining - 1000, new FileMount( ROOT, CAPACITY ).getRemainingSpace() );
+        channel.close();
+    }
+
+    @Test
+    public void testIgnoresModifiedDirectory() throws IOException
+    {
+        long remaining = populate();
+
+        Files.write( new File( ROOT, "external.txt" ).toPath(), new byte[1000] );
+        assertTrue( ROOT.setLastModified( ROOT.lastModified() + 2000 ) );
+
+        assertEquals( remaining - 1000, new FileMount( ROOT, CAPACITY ).getRemainingSpace() );
+    }
+
+    @Test
+    public void testIgnoresCorruptIndex() throws IOException
+    {
+        long remaining = populate();
+
+        Files.write( INDEX.toPath(), new byte[] { 1, 2, 3 } );
+        assertEquals( remaining, new FileMount( ROOT, CAPACITY ).getRemainingSpace() );
+    }
+}
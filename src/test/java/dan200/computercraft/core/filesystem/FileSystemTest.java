@@ -17,6 +17,7 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
@@ -78,4 +79,30 @@ public class FileSystemTest
         LuaException err = assertThrows( LuaException.class, () -> wrapper.call( "write", "Tiny line" ) );
         assertEquals( "attempt to use a closed file", err.getMessage() );
     }
+
+    @Test
+    public void testMountResolution() throws FileSystemException
+    {
+        FileSystem fs = new FileSystem( "hdd", new MemoryMount() );
+        fs.mount( "disk", "disk", new MemoryMount() );
+        fs.mount( "inner", "disk/inner", new MemoryMount() );
+        fs.mount( "nested", "a/b/c", new MemoryMount() );
+
+        assertEquals( "hdd", fs.getMountLabel( "" ) );
+        assertEquals( "hdd", fs.getMountLabel( "diskette" ) );
+        assertEquals( "disk", fs.getMountLabel( "disk/file.txt" ) );
+        assertEquals( "disk", fs.getMountLabel( "DISK/innerFile" ) );
+        assertEquals( "inner", fs.getMountLabel( "Disk/Inner/file.txt" ) );
+        assertEquals( "nested", fs.getMountLabel( "a/./b/c/d" ) );
+        assertEquals( "hdd", fs.getMountLabel( "a/b" ) );
+        assertThrows( FileSystemException.class, () -> fs.getMountLabel( "../disk" ) );
+
+        assertArrayEquals( new String[] { "disk" }, fs.list( "" ) );
+        assertArrayEquals( new String[] { "inner" }, fs.list( "disk" ) );
+
+        fs.unmount( "disk" );
+        assertEquals( "hdd", fs.getMountLabel( "disk/file.txt" ) );
+        assertEquals( "inner", fs.getMountLabel( "disk/inner/file.txt" ) );
+        assertArrayEquals( new String[0], fs.list( "" ) );
+    }
 }
@@ -0,0 +1,200 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import dan200.computercraft.ComputerCraft;
+import dan200.computercraft.api.lua.ILuaContext;
+import dan200.computercraft.api.lua.MethodResult;
+import dan200.computercraft.core.apis.FSAPI;
+import dan200.computercraft.core.apis.IAPIEnvironment;
+import dan200.computercraft.core.apis.TermAPI;
+import dan200.computercraft.core.asm.DirectLuaMethod;
+import dan200.computercraft.core.asm.LuaMethod;
+import dan200.computercraft.core.asm.NamedMethod;
+import dan200.computercraft.core.computer.BasicEnvironment;
+import dan200.computercraft.core.computer.Computer;
+import dan200.computercraft.core.computer.TimeoutState;
+import dan200.computercraft.core.filesystem.FileSystem;
+import dan200.computercraft.core.filesystem.FileSystemException;
+import dan200.computercraft.core.filesystem.MemoryMount;
+import dan200.computercraft.core.terminal.Terminal;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.squiddev.cobalt.Constants;
+import org.squiddev.cobalt.LuaError;
+import org.squiddev.cobalt.LuaState;
+import org.squiddev.cobalt.LuaValue;
+import org.squiddev.cobalt.Varargs;
+
+import java.lang.reflect.Proxy;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.squiddev.cobalt.ValueFactory.valueOf;
+import static org.squiddev.cobalt.ValueFactory.varargsOf;
+
+public class BasicFunctionTest
+{
+    private static final ILuaContext CONTEXT = task -> {
+        throw new IllegalStateException( "Cannot issue main thread tasks" );
+    };
+
+    private final LuaState state = LuaState.builder().build();
+    private final Terminal terminal = new Terminal( ComputerCraft.computerTermWidth, ComputerCraft.computerTermHeight );
+
+    private CobaltLuaMachine machine;
+    private TermAPI term;
+    private FSAPI fs;
+
+    @BeforeEach
+    public void setup() throws FileSystemException
+    {
+        FileSystem fileSystem = new FileSystem( "hdd", new MemoryMount().addFile( "startup.lua", "" ) );
+        IAPIEnvironment environment = (IAPIEnvironment) Proxy.newProxyInstance(
+            getClass().getClassLoader(), new Class<?>[] { IAPIEnvironment.class },
+            ( proxy, method, args ) -> {
+                switch( method.getName() )
+                {
+                    case "getTerminal":
+                        return terminal;
+                    case "getFileSystem":
+                        return fileSystem;
+                    case "getComputerEnvironment":
+                        return null;
+                    default:
+                        throw new UnsupportedOperationException( method.getName() );
+                }
+            }
+        );
+
+        machine = new CobaltLuaMachine( new Computer( new BasicEnvironment(), terminal, 0 ), new TimeoutState() );
+        term = new TermAPI( environment );
+        fs = new FSAPI( environment );
+        fs.startup();
+    }
+
+    @Test
+    public void testDirectMatchesBoxed() throws LuaError
+    {
+        assertTrue( find( TermAPI.class, "write" ) instanceof DirectLuaMethod, "term.write should be direct" );
+        assertTrue( find( FSAPI.class, "exists" ) instanceof DirectLuaMethod, "fs.exists should be direct" );
+        assertFalse( find( TermAPI.class, "getCursorPos" ) instanceof DirectLuaMethod, "Multiple values are not direct" );
+
+        BasicFunction write = direct( term, "write" ), boxedWrite = boxed( term, "write" );
+        assertEquals( 0, write.invoke( state, valueOf( "abc" ) ).count() );
+        assertEquals( 0, boxedWrite.invoke( state, valueOf( "def" ) ).count() );
+        assertEquals( "abcdef", terminal.getLine( 0 ).toString().trim() );
+
+        assertVarargsEquals( varargsOf( valueOf( 7 ), valueOf( 1 ) ), direct( term, "getCursorPos" ).invoke( state, Constants.NONE ) );
+
+        for( String path : new String[] { "startup.lua", "missing.lua", "rom" } )
+        {
+            assertVarargsEquals(
+                boxed( fs, "exists" ).invoke( state, valueOf( path ) ),
+                direct( fs, "exists" ).invoke( state, valueOf( path ) )
+            );
+        }
+    }
+
+    /**
+     * Compares calling {@code term.write}, {@code term.getCursorPos} and {@code fs.exists} through a
+     * {@link BasicFunction} with and without the {@link DirectLuaMethod} path. The boxed functions go through
+     * {@link MethodResult} and {@link CobaltLuaMachine#toValues(Object[])}, as they would for any other method.
+     *
+     * {@code getCursorPos} returns multiple values, and so is never direct. It is included as a baseline.
+     */
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testDirectPerformance() throws LuaError
+    {
+        Varargs text = valueOf( "Hello" ), path = valueOf( "startup.lua" );
+        BasicFunction write = direct( term, "write" ), boxedWrite = boxed( term, "write" );
+        BasicFunction getCursorPos = direct( term, "getCursorPos" ), boxedGetCursorPos = boxed( term, "getCursorPos" );
+        BasicFunction exists = direct( fs, "exists" ), boxedExists = boxed( fs, "exists" );
+
+        int calls = 5_000_000;
+        for( int round = 0; round < 5; round++ )
+        {
+            long start = System.nanoTime();
+            for( int i = 0; i < calls; i++ )
+            {
+                terminal.setCursorPos( 0, 0 );
+                boxedWrite.invoke( state, text );
+            }
+            long boxedWriteTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for( int i = 0; i < calls; i++ )
+            {
+                terminal.setCursorPos( 0, 0 );
+                write.invoke( state, text );
+            }
+            long writeTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for( int i = 0; i < calls; i++ ) boxedGetCursorPos.invoke( state, Constants.NONE );
+            long boxedGetCursorPosTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for( int i = 0; i < calls; i++ ) getCursorPos.invoke( state, Constants.NONE );
+            long getCursorPosTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for( int i = 0; i < calls; i++ ) boxedExists.invoke( state, path );
+            long boxedExistsTime = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for( int i = 0; i < calls; i++ ) exists.invoke( state, path );
+            long existsTime = System.nanoTime() - start;
+
+            System.out.printf(
+                "%d calls: term.write %.1f/%.1fns, term.getCursorPos %.1f/%.1fns, fs.exists %.1f/%.1fns (boxed/direct)\n", calls,
+                (double) boxedWriteTime / calls, (double) writeTime / calls,
+                (double) boxedGetCursorPosTime / calls, (double) getCursorPosTime / calls,
+                (double) boxedExistsTime / calls, (double) existsTime / calls
+            );
+        }
+    }
+
+    private static LuaMethod find( Class<?> klass, String name )
+    {
+        return LuaMethod.GENERATOR.getMethods( klass ).stream()
+            .filter( x -> x.getName().equals( name ) )
+            .map( NamedMethod::getMethod )
+            .findAny()
+            .orElseThrow( NullPointerException::new );
+    }
+
+    private BasicFunction direct( Object instance, String name )
+    {
+        return new BasicFunction( machine, find( instance.getClass(), name ), instance, CONTEXT, name );
+    }
+
+    /**
+     * Create a function which always converts the result via a {@link MethodResult}, even if the method supports
+     * {@link DirectLuaMethod}.
+     *
+     * @param instance The object to call the method on.
+     * @param name     The method's name.
+     * @return The wrapped function.
+     */
+    private BasicFunction boxed( Object instance, String name )
+    {
+        LuaMethod method = find( instance.getClass(), name );
+        return new BasicFunction( machine, method::apply, instance, CONTEXT, name );
+    }
+
+    private static void assertVarargsEquals( Varargs expected, Varargs actual )
+    {
+        assertEquals( expected.count(), actual.count(), "Number of values" );
+        for( int i = 1; i <= expected.count(); i++ )
+        {
+            LuaValue expectedValue = expected.arg( i ), actualValue = actual.arg( i );
+            assertEquals( expectedValue.typeName(), actualValue.typeName(), "Type of value #" + i );
+            assertEquals( expectedValue.toString(), actualValue.toString(), "Value #" + i );
+        }
+    }
+}
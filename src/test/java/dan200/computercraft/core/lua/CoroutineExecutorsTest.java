@@ -0,0 +1,144 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.lua;
+
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+import org.squiddev.cobalt.*;
+import org.squiddev.cobalt.compiler.LoadState;
+import org.squiddev.cobalt.function.LuaFunction;
+import org.squiddev.cobalt.lib.BaseLib;
+import org.squiddev.cobalt.lib.CoroutineLib;
+import org.squiddev.cobalt.lib.TableLib;
+
+import java.io.ByteArrayInputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.squiddev.cobalt.ValueFactory.valueOf;
+
+public class CoroutineExecutorsTest
+{
+    private static final int MACHINES = 1000;
+    private static final int COROUTINES = 100;
+
+    /**
+     * Starts {@link #COROUTINES} coroutines on each machine, all of which are suspended within {@code table.sort}, and
+     * so must each hold onto a thread.
+     */
+    private static final String PROGRAM = "local n = ...\n" +
+        "local function body()\n" +
+        "  while true do table.sort({ 1, 2 }, function(a, b) coroutine.yield() return a < b end) end\n" +
+        "end\n" +
+        "local coroutines = {}\n" +
+        "for i = 1, n do coroutines[i] = coroutine.create(body) assert(coroutine.resume(coroutines[i])) end\n" +
+        "while true do\n" +
+        "  coroutine.yield(#coroutines)\n" +
+        "  for i = 1, n do assert(coroutine.resume(coroutines[i])) end\n" +
+        "end\n";
+
+    @Test
+    public void testPool() throws Exception
+    {
+        Machine machine = new Machine( CoroutineExecutors.createPool() );
+        assertEquals( 10, machine.start( 10 ) );
+        machine.resume();
+        machine.state.abandon();
+    }
+
+    /**
+     * Compares running {@link #MACHINES} * {@link #COROUTINES} suspended coroutines on the thread pool against virtual
+     * threads (if available).
+     */
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testStress() throws Exception
+    {
+        run( "Thread pool", CoroutineExecutors.createPool() );
+
+        Executor virtual = CoroutineExecutors.createVirtual();
+        if( virtual == null )
+        {
+            System.out.println( "Virtual threads are not supported on this JVM" );
+        }
+        else
+        {
+            run( "Virtual threads", virtual );
+        }
+    }
+
+    private static void run( String name, Executor executor ) throws Exception
+    {
+        long threadsBefore = ManagementFactory.getThreadMXBean().getThreadCount();
+        long memoryBefore = usedMemory();
+
+        long start = System.nanoTime();
+        List<Machine> machines = new ArrayList<>( MACHINES );
+        for( int i = 0; i < MACHINES; i++ )
+        {
+            Machine machine = new Machine( executor );
+            assertEquals( COROUTINES, machine.start( COROUTINES ) );
+            machines.add( machine );
+        }
+        long spawnTime = System.nanoTime() - start;
+
+        long threads = ManagementFactory.getThreadMXBean().getThreadCount() - threadsBefore;
+        long memory = usedMemory() - memoryBefore;
+
+        start = System.nanoTime();
+        for( Machine machine : machines ) machine.resume();
+        long resumeTime = System.nanoTime() - start;
+
+        for( Machine machine : machines ) machine.state.abandon();
+
+        System.out.printf(
+            "%s: %d coroutines took %.1fms to start, using %d platform threads and %.1fMiB. Resuming took %.2fus per coroutine.\n",
+            name, MACHINES * COROUTINES, spawnTime * 1e-6, threads, memory / (1024.0 * 1024.0),
+            resumeTime * 1e-3 / (MACHINES * COROUTINES)
+        );
+    }
+
+    private static long usedMemory()
+    {
+        System.gc();
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static final class Machine
+    {
+        final LuaState state;
+        final LuaTable globals = new LuaTable();
+        LuaThread thread;
+
+        Machine( Executor executor )
+        {
+            state = LuaState.builder().coroutineExecutor( executor ).build();
+            state.setupThread( globals );
+            globals.load( state, new BaseLib() );
+            globals.load( state, new TableLib() );
+            globals.load( state, new CoroutineLib() );
+        }
+
+        int start( int coroutines ) throws Exception
+        {
+            LuaFunction function = LoadState.load(
+                state, new ByteArrayInputStream( PROGRAM.getBytes( StandardCharsets.UTF_8 ) ), "@stress.lua", globals
+            );
+            thread = new LuaThread( state, function, globals );
+            return LuaThread.run( thread, valueOf( coroutines ) ).first().toInteger();
+        }
+
+        void resume() throws Exception
+        {
+            LuaThread.run( thread, Constants.NONE );
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.core.terminal;
+
+import dan200.computercraft.api.lua.LuaValues;
+import io.netty.buffer.Unpooled;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.network.PacketBuffer;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TerminalTest
+{
+    private static final int MAX_WIDTH = 164;
+    private static final int MAX_HEIGHT = 81;
+
+    @Test
+    void testBlit()
+    {
+        Terminal terminal = new Terminal( 5, 2 );
+        terminal.setCursorPos( 1, 1 );
+        terminal.blit( "abcdef", "01234z", "fedcba" );
+
+        assertEquals( "     ", terminal.getLine( 0 ).toString() );
+        assertEquals( " abcd", terminal.getLine( 1 ).toString() );
+        assertEquals( "00123", terminal.getTextColourLine( 1 ).toString() );
+        assertEquals( "ffedc", terminal.getBackgroundColourLine( 1 ).toString() );
+        assertEquals( 'b', terminal.getCellChar( 2, 1 ) );
+        assertEquals( 1, terminal.getCellTextColour( 2, 1 ) );
+        assertEquals( 0xe, terminal.getCellBackgroundColour( 2, 1 ) );
+    }
+
+    @Test
+    void testBlitBytes()
+    {
+        Terminal terminal = new Terminal( 5, 2 );
+        terminal.setCursorPos( 1, 1 );
+        terminal.blit( LuaValues.encode( "abcdef" ), LuaValues.encode( "01234z" ), LuaValues.encode( "fedcba" ) );
+
+        assertEquals( "     ", terminal.getLine( 0 ).toString() );
+        assertEquals( " abcd", terminal.getLine( 1 ).toString() );
+        assertEquals( "00123", terminal.getTextColourLine( 1 ).toString() );
+        assertEquals( "ffedc", terminal.getBackgroundColourLine( 1 ).toString() );
+    }
+
+    @Test
+    void testWrite()
+    {
+        Terminal terminal = new Terminal( 5, 1 );
+        terminal.setTextColour( 3 );
+        terminal.setBackgroundColour( 4 );
+        terminal.setCursorPos( -1, 0 );
+        terminal.write( "abc" );
+
+        assertEquals( "bc   ", terminal.getLine( 0 ).toString() );
+        assertEquals( "33000", terminal.getTextColourLine( 0 ).toString() );
+        assertEquals( "44fff", terminal.getBackgroundColourLine( 0 ).toString() );
+    }
+
+    @Test
+    void testScroll()
+    {
+        Terminal terminal = new Terminal( 3, 3 );
+        for( int y = 0; y < 3; y++ ) terminal.setLine( y, "" + y + y + y, "000", "fff" );
+
+        terminal.setBackgroundColour( 2 );
+        terminal.scroll( 1 );
+        assertEquals( "111", terminal.getLine( 0 ).toString() );
+        assertEquals( "222", terminal.getLine( 1 ).toString() );
+        assertEquals( "   ", terminal.getLine( 2 ).toString() );
+        assertEquals( "222", terminal.getBackgroundColourLine( 2 ).toString() );
+
+        terminal.scroll( -2 );
+        assertEquals( "   ", terminal.getLine( 0 ).toString() );
+        assertEquals( "   ", terminal.getLine( 1 ).toString() );
+        assertEquals( "111", terminal.getLine( 2 ).toString() );
+    }
+
+    @Test
+    void testResize()
+    {
+        Terminal terminal = new Terminal( 3, 2 );
+        terminal.setLine( 0, "abc", "123", "456" );
+        terminal.setLine( 1, "def", "123", "456" );
+
+        terminal.resize( 2, 3 );
+        assertEquals( "ab", terminal.getLine( 0 ).toString() );
+        assertEquals( "de", terminal.getLine( 1 ).toString() );
+        assertEquals( "  ", terminal.getLine( 2 ).toString() );
+        assertEquals( "12", terminal.getTextColourLine( 1 ).toString() );
+
+        terminal.resize( 4, 1 );
+        assertEquals( "ab  ", terminal.getLine( 0 ).toString() );
+        assertEquals( "45ff", terminal.getBackgroundColourLine( 0 ).toString() );
+    }
+
+    @Test
+    void testLineViews()
+    {
+        Terminal terminal = new Terminal( 4, 1 );
+        TextBuffer text = terminal.getLine( 0 );
+        text.write( "ab", 1 );
+        text.setChar( 3, 'c' );
+        terminal.getTextColourLine( 0 ).fill( 'e', 0, 2 );
+
+        assertEquals( 4, text.length() );
+        assertEquals( " abc", text.toString() );
+        assertEquals( 'a', terminal.getCellChar( 1, 0 ) );
+        assertEquals( "ee00", terminal.getTextColourLine( 0 ).toString() );
+        assertNull( terminal.getLine( 1 ) );
+    }
+
+    @Test
+    void testNBT()
+    {
+        Terminal terminal = new Terminal( 4, 2 );
+        terminal.setLine( 0, "abcd", "0123", "4567" );
+        terminal.setLine( 1, "efgh", "89ab", "cdef" );
+
+        Terminal other = new Terminal( 4, 2 );
+        other.readFromNBT( terminal.writeToNBT( new CompoundNBT() ) );
+        for( int y = 0; y < 2; y++ )
+        {
+            assertEquals( terminal.getLine( y ).toString(), other.getLine( y ).toString() );
+            assertEquals( terminal.getTextColourLine( y ).toString(), other.getTextColourLine( y ).toString() );
+            assertEquals( terminal.getBackgroundColourLine( y ).toString(), other.getBackgroundColourLine( y ).toString() );
+        }
+    }
+
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    void testPerformance()
+    {
+        Terminal terminal = new Terminal( MAX_WIDTH, MAX_HEIGHT );
+        String text = repeat( 'a', MAX_WIDTH ), colour = repeat( '0', MAX_WIDTH ), background = repeat( 'f', MAX_WIDTH );
+
+        for( int round = 0; round < 5; round++ )
+        {
+            int iterations = 100_000;
+
+            long start = System.nanoTime();
+            for( int i = 0; i < iterations; i++ )
+            {
+                terminal.setCursorPos( 0, i % MAX_HEIGHT );
+                terminal.blit( text, colour, background );
+            }
+            long blit = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for( int i = 0; i < iterations; i++ ) terminal.scroll( 1 );
+            long scroll = System.nanoTime() - start;
+
+            PacketBuffer buffer = new PacketBuffer( Unpooled.buffer() );
+            start = System.nanoTime();
+            for( int i = 0; i < iterations / 10; i++ )
+            {
+                buffer.clear();
+                terminal.write( buffer );
+            }
+            long write = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for( int i = 0; i < iterations / 10; i++ )
+            {
+                buffer.readerIndex( 0 );
+                terminal.read( buffer );
+            }
+            long read = System.nanoTime() - start;
+
+            System.out.printf(
+                "%dx%d: blit %.1fns/line, scroll %.1fns, write %.1fus, read %.1fus\n", MAX_WIDTH, MAX_HEIGHT,
+                (double) blit / iterations, (double) scroll / iterations,
+                write * 1e-3 / (iterations / 10), read * 1e-3 / (iterations / 10)
+            );
+        }
+    }
+
+    private static String repeat( char c, int length )
+    {
+        StringBuilder builder = new StringBuilder( length );
+        for( int i = 0; i < length; i++ ) builder.append( c );
+        return builder.toString();
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.computer.core;
+
+import dan200.computercraft.ComputerCraft;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BootSchedulerTest
+{
+    private int maxBootsPerTick;
+    private int nextId;
+
+    @BeforeEach
+    public void setup()
+    {
+        maxBootsPerTick = ComputerCraft.maxBootsPerTick;
+        BootScheduler.reset();
+    }
+
+    @AfterEach
+    public void teardown()
+    {
+        ComputerCraft.maxBootsPerTick = maxBootsPerTick;
+        BootScheduler.reset();
+    }
+
+    private ServerComputer create()
+    {
+        int id = nextId++;
+        return new ServerComputer( null, id, null, id, ComputerFamily.NORMAL, 51, 19 );
+    }
+
+    @Test
+    public void testAdmitsPerTick()
+    {
+        ComputerCraft.maxBootsPerTick = 2;
+        ServerComputer[] computers = new ServerComputer[5];
+        for( int i = 0; i < computers.length; i++ )
+        {
+            computers[i] = create();
+            computers[i].turnOn();
+        }
+
+        assertEquals( 5, BootScheduler.size() );
+
+        BootScheduler.update();
+        assertEquals( 3, BootScheduler.size() );
+        assertFalse( computers[0].isQueued() );
+        assertFalse( computers[1].isQueued() );
+        assertTrue( computers[2].isQueued() );
+
+        BootScheduler.update();
+        BootScheduler.update();
+        assertEquals( 0, BootScheduler.size() );
+    }
+
+    /**
+     * Computers unloaded while queued should be skipped without using up the budget, but should report being queued
+     * until then (so their tile is saved as being on).
+     */
+    @Test
+    public void testUnloadWhileQueued()
+    {
+        ComputerCraft.maxBootsPerTick = 1;
+        ServerComputer first = create(), unloaded = create(), last = create();
+        first.turnOn();
+        unloaded.turnOn();
+        last.turnOn();
+
+        BootScheduler.update();
+        assertFalse( first.isQueued(), "First computer should have been started" );
+        assertTrue( unloaded.isQueued(), "Second computer should still be waiting" );
+
+        // The chunk is unloaded. The computer has not yet started, but must still be saved as being on.
+        unloaded.unload();
+        assertFalse( unloaded.isOn() );
+        assertTrue( unloaded.isOn() || unloaded.isQueued(), "Computer should be persisted as on" );
+
+        BootScheduler.update();
+        assertFalse( unloaded.isQueued() );
+        assertFalse( last.isQueued(), "Unloaded computer should not use up the budget" );
+        assertEquals( 0, BootScheduler.size() );
+    }
+
+    @Test
+    public void testQueuedOnce()
+    {
+        ServerComputer computer = create();
+        computer.turnOn();
+        computer.turnOn();
+        assertEquals( 1, BootScheduler.size() );
+    }
+}
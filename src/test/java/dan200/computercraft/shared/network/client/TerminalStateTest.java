@@ -7,9 +7,12 @@ package dan200.computercraft.shared.network.client;
 
 import dan200.computercraft.core.terminal.Terminal;
 import dan200.computercraft.core.terminal.TextBuffer;
+import dan200.computercraft.shared.common.ServerTerminal;
+import dan200.computercraft.shared.util.Palette;
 import io.netty.buffer.Unpooled;
 import net.minecraft.network.PacketBuffer;
 import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.Test;
 
 import java.util.Random;
 
@@ -44,6 +47,176 @@ public class TerminalStateTest
         assertEquals( 0, buffer.readableBytes() );
     }
 
+    @Test
+    public void testShared()
+    {
+        Terminal terminal = new Terminal( 51, 19 );
+        randomEdits( new Random(), terminal, 200 );
+
+        TerminalState state = new TerminalState( true, terminal, true );
+        for( int i = 0; i < 3; i++ ) checkEqual( terminal, read( write( state ) ) );
+
+        assertTrue( state.release(), "Should be deallocated after the last release" );
+        assertEquals( 0, state.refCnt() );
+    }
+
+    @RepeatedTest( 5 )
+    public void testDeltas()
+    {
+        Random random = new Random();
+        Terminal server = new Terminal( 20, 8 );
+        randomEdits( random, server, 50 );
+
+        // Snapshot the terminal the same way ServerTerminal does, leaving any other changes pending.
+        server.flattenScroll();
+        Terminal client = read( write( new TerminalState( true, server, true, 0 ) ) );
+        assertNotNull( client );
+
+        for( int sequence = 0; sequence < 50; sequence++ )
+        {
+            randomEdits( random, server, random.nextInt( 10 ) );
+
+            TerminalDelta delta = new TerminalDelta( write( new TerminalDelta( server, sequence ) ) );
+            assertTrue( delta.canApply( client, sequence ), "Should be able to apply delta" );
+            delta.apply( client );
+
+            checkEqual( server, client );
+        }
+    }
+
+    /**
+     * Take a snapshot while a scroll is pending, and then apply the next delta to it and to a client which has seen
+     * every previous delta.
+     */
+    @RepeatedTest( 5 )
+    public void testSnapshotWithPendingScroll()
+    {
+        Random random = new Random();
+        ServerTerminal server = new ServerTerminal( true, 20, 8 );
+        Terminal terminal = server.getTerminal();
+        randomEdits( random, terminal, 50 );
+
+        assertNull( server.writeDelta( false ), "First update should be a full snapshot" );
+        Terminal existing = readState( server.write() );
+
+        for( int sequence = 1; sequence < 20; sequence++ )
+        {
+            randomEdits( random, terminal, random.nextInt( 10 ) );
+            terminal.scroll( random.nextInt( 5 ) - 2 );
+
+            // A player starts viewing the terminal, with changes (including the scroll) still pending.
+            Terminal snapshot = readState( server.write() );
+            randomEdits( random, terminal, random.nextInt( 3 ) );
+
+            TerminalDelta delta = server.writeDelta( false );
+            assertNotNull( delta );
+            TerminalDelta received = new TerminalDelta( write( delta ) );
+            delta.release();
+
+            assertTrue( received.canApply( snapshot, sequence ), "Should be able to apply delta to snapshot" );
+            received.apply( snapshot );
+            checkEqual( terminal, snapshot );
+
+            assertTrue( received.canApply( existing, sequence ), "Should be able to apply delta to existing viewer" );
+            received.apply( existing );
+            checkEqual( terminal, existing );
+
+            ServerTerminal.releaseCachedStates();
+        }
+    }
+
+    @Test
+    public void testDeltaOutOfSync()
+    {
+        Terminal server = new Terminal( 10, 5 );
+        Terminal client = new Terminal( 10, 5 );
+
+        TerminalDelta delta = new TerminalDelta( server, 3 );
+        assertTrue( delta.canApply( client, 3 ) );
+        assertFalse( delta.canApply( client, 2 ), "Should not apply a delta after a missing one" );
+        assertFalse( delta.canApply( new Terminal( 10, 6 ), 3 ), "Should not apply a delta to a different size" );
+    }
+
+    @Test
+    public void testDeltaSmall()
+    {
+        Terminal terminal = new Terminal( 51, 19 );
+        randomEdits( new Random(), terminal, 20 );
+        terminal.clearDirty();
+
+        terminal.setCursorPos( 3, 4 );
+        terminal.write( "x" );
+
+        int full = new TerminalState( true, terminal, false ).size();
+        int delta = new TerminalDelta( terminal, 0 ).size();
+        assertTrue( delta * 10 < full, "Delta (" + delta + " bytes) should be much smaller than snapshot (" + full + " bytes)" );
+    }
+
+    private static void randomEdits( Random random, Terminal terminal, int count )
+    {
+        int width = terminal.getWidth(), height = terminal.getHeight();
+        for( int i = 0; i < count; i++ )
+        {
+            switch( random.nextInt( 8 ) )
+            {
+                case 0:
+                    terminal.setCursorPos( random.nextInt( width + 4 ) - 2, random.nextInt( height + 2 ) - 1 );
+                    break;
+                case 1:
+                    terminal.write( randomString( random, random.nextInt( width ), "abcdefghijklmnopqrstuvwxyz " ) );
+                    break;
+                case 2:
+                {
+                    int length = random.nextInt( width );
+                    terminal.blit(
+                        randomString( random, length, "ABCDEFGHIJKLMNOPQRSTUVWXYZ" ),
+                        randomString( random, length, "0123456789abcdef" ),
+                        randomString( random, length, "0123456789abcdef" )
+                    );
+                    break;
+                }
+                case 3:
+                    terminal.scroll( random.nextInt( height * 2 + 1 ) - height );
+                    break;
+                case 4:
+                    terminal.clearLine();
+                    break;
+                case 5:
+                    if( random.nextInt( 4 ) == 0 ) terminal.clear();
+                    break;
+                case 6:
+                    terminal.setTextColour( random.nextInt( 16 ) );
+                    terminal.setBackgroundColour( random.nextInt( 16 ) );
+                    terminal.setCursorBlink( random.nextBoolean() );
+                    break;
+                case 7:
+                    terminal.getPalette().setColour( random.nextInt( 16 ), random.nextInt( 256 ) / 255.0, random.nextInt( 256 ) / 255.0, random.nextInt( 256 ) / 255.0 );
+                    break;
+            }
+        }
+    }
+
+    private static String randomString( Random random, int length, String chars )
+    {
+        StringBuilder builder = new StringBuilder( length );
+        for( int i = 0; i < length; i++ ) builder.append( chars.charAt( random.nextInt( chars.length() ) ) );
+        return builder.toString();
+    }
+
+    private static PacketBuffer write( TerminalState state )
+    {
+        PacketBuffer buffer = new PacketBuffer( Unpooled.directBuffer() );
+        state.write( buffer );
+        return buffer;
+    }
+
+    private static PacketBuffer write( TerminalDelta delta )
+    {
+        PacketBuffer buffer = new PacketBuffer( Unpooled.directBuffer() );
+        delta.write( buffer );
+        return buffer;
+    }
+
     private static Terminal randomTerminal()
     {
         Random random = new Random();
@@ -67,6 +240,33 @@ public class TerminalStateTest
         for( int y = 0; y < expected.getHeight(); y++ )
         {
             assertEquals( expected.getLine( y ).toString(), actual.getLine( y ).toString() );
+            assertEquals( expected.getTextColourLine( y ).toString(), actual.getTextColourLine( y ).toString() );
+            assertEquals( expected.getBackgroundColourLine( y ).toString(), actual.getBackgroundColourLine( y ).toString() );
+        }
+
+        assertEquals( expected.getCursorX(), actual.getCursorX(), "Cursor X must match" );
+        assertEquals( expected.getCursorY(), actual.getCursorY(), "Cursor Y must match" );
+        assertEquals( expected.getCursorBlink(), actual.getCursorBlink(), "Cursor blink must match" );
+        assertEquals( expected.getTextColour(), actual.getTextColour(), "Text colour must match" );
+        assertEquals( expected.getBackgroundColour(), actual.getBackgroundColour(), "Background colour must match" );
+        for( int i = 0; i < 16; i++ )
+        {
+            assertEquals(
+                Palette.encodeRGB8( expected.getPalette().getColour( i ) ), Palette.encodeRGB8( actual.getPalette().getColour( i ) ),
+                "Palette must match"
+            );
+        }
+    }
+
+    private static Terminal readState( TerminalState state )
+    {
+        try
+        {
+            return read( write( state ) );
+        }
+        finally
+        {
+            state.release();
         }
     }
 
@@ -79,6 +279,7 @@ public class TerminalStateTest
 
         Terminal other = new Terminal( state.width, state.height );
         state.apply( other );
+        state.release();
         return other;
     }
 }
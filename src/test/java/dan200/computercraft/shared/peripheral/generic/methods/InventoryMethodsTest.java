@@ -0,0 +1,238 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.generic.methods;
+
+import dan200.computercraft.api.filesystem.IMount;
+import dan200.computercraft.api.filesystem.IWritableMount;
+import dan200.computercraft.api.lua.LuaException;
+import dan200.computercraft.api.peripheral.IComputerAccess;
+import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.api.peripheral.IWorkMonitor;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.util.registry.Bootstrap;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventoryMethodsTest
+{
+    private final Computer computer = new Computer();
+    private ItemStackHandler chestA;
+    private ItemStackHandler chestB;
+
+    @BeforeAll
+    public static void bootstrap()
+    {
+        Bootstrap.bootStrap();
+    }
+
+    @BeforeEach
+    public void setup()
+    {
+        chestA = new ItemStackHandler( 3 );
+        chestA.setStackInSlot( 0, new ItemStack( Items.DIRT, 32 ) );
+        chestA.setStackInSlot( 1, new ItemStack( Items.STONE, 16 ) );
+
+        chestB = new ItemStackHandler( 3 );
+        chestB.setStackInSlot( 0, new ItemStack( Items.STONE, 8 ) );
+
+        computer.peripherals.put( "chest_a", new Inventory( chestA ) );
+        computer.peripherals.put( "chest_b", new Inventory( chestB ) );
+        computer.peripherals.put( "not_chest", new Inventory( null ) );
+    }
+
+    @Test
+    public void testPushBatch() throws LuaException
+    {
+        List<Integer> moved = InventoryMethods.pushItemsBatch( chestA, computer, table(
+            table( "chest_b", 1, 10 ),
+            table( "chest_b", 2, 64, 1 ),
+            table( "chest_b", 3 )
+        ) );
+
+        assertEquals( Arrays.asList( 10, 16, 0 ), moved );
+        assertEquals( 22, chestA.getStackInSlot( 0 ).getCount() );
+        assertTrue( chestA.getStackInSlot( 1 ).isEmpty() );
+        assertEquals( 24, chestB.getStackInSlot( 0 ).getCount() );
+        assertEquals( 10, chestB.getStackInSlot( 1 ).getCount() );
+    }
+
+    @Test
+    public void testPullBatch() throws LuaException
+    {
+        List<Integer> moved = InventoryMethods.pullItemsBatch( chestB, computer, table(
+            table( "chest_a", 1, 10, 3 ),
+            table( "chest_a", 2 )
+        ) );
+
+        assertEquals( Arrays.asList( 10, 16 ), moved );
+        assertEquals( 10, chestB.getStackInSlot( 2 ).getCount() );
+        assertEquals( 24, chestB.getStackInSlot( 0 ).getCount() );
+        assertTrue( chestA.getStackInSlot( 1 ).isEmpty() );
+    }
+
+    /**
+     * If a later move is invalid, an error should be thrown before any items are moved.
+     */
+    @Test
+    public void testInvalidLaterMove()
+    {
+        assertPushFails( "Move #2: Target 'missing' does not exist", table( "chest_b", 1 ), table( "missing", 1 ) );
+        assertPushFails( "Move #2: Target 'not_chest' is not an inventory", table( "chest_b", 1 ), table( "not_chest", 1 ) );
+        assertPushFails( "Move #2: From slot out of range (between 1 and 3)", table( "chest_b", 1 ), table( "chest_b", 4 ) );
+        assertPushFails( "Move #3: To slot out of range (between 1 and 3)", table( "chest_b", 1 ), table( "chest_b", 2 ), table( "chest_b", 1, 1, 0 ) );
+        assertPushFails( "Move #2: table expected, got number", table( "chest_b", 1 ), 1 );
+
+        LuaException e = assertThrows( LuaException.class, () -> InventoryMethods.pullItemsBatch( chestB, computer, table(
+            table( "chest_a", 1 ), table( "chest_a", 2 ), table( "missing", 1 )
+        ) ) );
+        assertEquals( "Move #3: Source 'missing' does not exist", e.getMessage() );
+        assertUnchanged();
+    }
+
+    @Test
+    public void testLimit() throws LuaException
+    {
+        Object[] moves = new Object[1024];
+        for( int i = 0; i < moves.length; i++ ) moves[i] = table( "chest_b", 1, 0 );
+
+        List<Integer> moved = InventoryMethods.pushItemsBatch( chestA, computer, table( moves ) );
+        assertEquals( 1024, moved.size() );
+        assertUnchanged();
+
+        Map<Double, Object> tooMany = table( moves );
+        tooMany.put( 1025.0, table( "chest_b", 1 ) );
+        LuaException e = assertThrows( LuaException.class, () -> InventoryMethods.pushItemsBatch( chestA, computer, tooMany ) );
+        assertEquals( "Too many moves (max 1024)", e.getMessage() );
+
+        e = assertThrows( LuaException.class, () -> InventoryMethods.pullItemsBatch( chestB, computer, tooMany ) );
+        assertEquals( "Too many moves (max 1024)", e.getMessage() );
+        assertUnchanged();
+    }
+
+    private void assertPushFails( String message, Object... moves )
+    {
+        LuaException e = assertThrows( LuaException.class, () -> InventoryMethods.pushItemsBatch( chestA, computer, table( moves ) ) );
+        assertEquals( message, e.getMessage() );
+        assertUnchanged();
+    }
+
+    private void assertUnchanged()
+    {
+        assertEquals( 32, chestA.getStackInSlot( 0 ).getCount(), "Items should not be moved" );
+        assertEquals( 16, chestA.getStackInSlot( 1 ).getCount(), "Items should not be moved" );
+        assertEquals( 8, chestB.getStackInSlot( 0 ).getCount(), "Items should not be moved" );
+        assertTrue( chestB.getStackInSlot( 1 ).isEmpty(), "Items should not be moved" );
+    }
+
+    private static Map<Double, Object> table( Object... values )
+    {
+        Map<Double, Object> table = new HashMap<>();
+        for( int i = 0; i < values.length; i++ ) table.put( (double) (i + 1), values[i] );
+        return table;
+    }
+
+    private static final class Inventory implements IPeripheral
+    {
+        private final ItemStackHandler inventory;
+
+        private Inventory( @Nullable ItemStackHandler inventory )
+        {
+            this.inventory = inventory;
+        }
+
+        @Nonnull
+        @Override
+        public String getType()
+        {
+            return "inventory";
+        }
+
+        @Nullable
+        @Override
+        public Object getTarget()
+        {
+            return inventory;
+        }
+
+        @Override
+        public boolean equals( @Nullable IPeripheral other )
+        {
+            return this == other;
+        }
+    }
+
+    private static final class Computer implements IComputerAccess
+    {
+        final Map<String, IPeripheral> peripherals = new HashMap<>();
+
+        @Nullable
+        @Override
+        public String mount( @Nonnull String desiredLocation, @Nonnull IMount mount, @Nonnull String driveName )
+        {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public String mountWritable( @Nonnull String desiredLocation, @Nonnull IWritableMount mount, @Nonnull String driveName )
+        {
+            return null;
+        }
+
+        @Override
+        public void unmount( @Nullable String location )
+        {
+        }
+
+        @Override
+        public int getID()
+        {
+            return 0;
+        }
+
+        @Override
+        public void queueEvent( @Nonnull String event, @Nullable Object... arguments )
+        {
+        }
+
+        @Nonnull
+        @Override
+        public String getAttachmentName()
+        {
+            return "computer";
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, IPeripheral> getAvailablePeripherals()
+        {
+            return Collections.unmodifiableMap( peripherals );
+        }
+
+        @Nullable
+        @Override
+        public IPeripheral getAvailablePeripheral( @Nonnull String name )
+        {
+            return peripherals.get( name );
+        }
+
+        @Nonnull
+        @Override
+        public IWorkMonitor getMainThreadMonitor()
+        {
+            throw new UnsupportedOperationException( "Cannot get the main thread monitor" );
+        }
+    }
+}
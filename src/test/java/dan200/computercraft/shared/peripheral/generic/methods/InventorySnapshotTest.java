@@ -0,0 +1,197 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.generic.methods;
+
+import dan200.computercraft.api.lua.MethodResult;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.util.registry.Bootstrap;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InventorySnapshotTest
+{
+    private ItemStackHandler inventory;
+
+    @BeforeAll
+    public static void bootstrap()
+    {
+        Bootstrap.bootStrap();
+    }
+
+    @BeforeEach
+    public void setup()
+    {
+        inventory = new ItemStackHandler( 3 );
+        inventory.setStackInSlot( 0, new ItemStack( Items.DIRT, 32 ) );
+        inventory.setStackInSlot( 2, new ItemStack( Items.STONE, 1 ) );
+    }
+
+    @Test
+    public void testList()
+    {
+        Map<Integer, Map<String, ?>> list = InventorySnapshot.get( inventory ).getList();
+        assertEquals( 2, list.size() );
+        assertEquals( "minecraft:dirt", list.get( 1 ).get( "name" ) );
+        assertEquals( 32, list.get( 1 ).get( "count" ) );
+        assertEquals( "minecraft:stone", list.get( 3 ).get( "name" ) );
+
+        // The list is reused until the inventory changes.
+        assertSame( list, InventorySnapshot.get( inventory ).getList() );
+
+        inventory.getStackInSlot( 0 ).grow( 1 );
+        Map<Integer, Map<String, ?>> changed = InventorySnapshot.get( inventory ).getList();
+        assertNotSame( list, changed );
+        assertEquals( 33, changed.get( 1 ).get( "count" ) );
+        assertEquals( 32, list.get( 1 ).get( "count" ), "Old list should not be modified" );
+    }
+
+    @Test
+    public void testTokens()
+    {
+        InventorySnapshot snapshot = InventorySnapshot.get( inventory );
+        long token = snapshot.getToken();
+        assertTrue( snapshot.isValid( token ) );
+
+        // Nothing has changed, so the token stays the same.
+        assertEquals( token, InventorySnapshot.get( inventory ).getToken() );
+        assertTrue( snapshot.getChanges( token ).isEmpty() );
+
+        // Modifying a stack in place is still detected.
+        inventory.getStackInSlot( 2 ).grow( 1 );
+        inventory.setStackInSlot( 0, ItemStack.EMPTY );
+        inventory.setStackInSlot( 1, new ItemStack( Items.DIRT, 1 ) );
+
+        snapshot = InventorySnapshot.get( inventory );
+        long next = snapshot.getToken();
+        assertTrue( next > token, "Token should increase" );
+        assertTrue( snapshot.isValid( token ), "Old token should still be valid" );
+
+        Map<Integer, Object> changes = snapshot.getChanges( token );
+        assertEquals( 3, changes.size() );
+        assertEquals( false, changes.get( 1 ) );
+        assertEquals( "minecraft:dirt", ((Map<?, ?>) changes.get( 2 )).get( "name" ) );
+        assertEquals( 2, ((Map<?, ?>) changes.get( 3 )).get( "count" ) );
+
+        assertTrue( snapshot.getChanges( next ).isEmpty() );
+
+        // Only slots changed after a token are included.
+        inventory.setStackInSlot( 0, new ItemStack( Items.STONE, 1 ) );
+        snapshot = InventorySnapshot.get( inventory );
+        assertEquals( 1, snapshot.getChanges( next ).size() );
+        assertEquals( 3, snapshot.getChanges( token ).size() );
+    }
+
+    @Test
+    public void testPerInventory()
+    {
+        ItemStackHandler other = new ItemStackHandler( 3 );
+        InventorySnapshot snapshot = InventorySnapshot.get( inventory );
+
+        assertSame( snapshot, InventorySnapshot.get( inventory ) );
+        assertNotSame( snapshot, InventorySnapshot.get( other ) );
+
+        // Tokens are never shared between inventories.
+        other.setStackInSlot( 0, new ItemStack( Items.DIRT, 1 ) );
+        long otherToken = InventorySnapshot.get( other ).getToken();
+        assertFalse( InventorySnapshot.get( inventory ).isValid( otherToken ) );
+
+        // Resizing an inventory creates a new snapshot, and so invalidates old tokens.
+        long token = snapshot.getToken();
+        inventory.setSize( 5 );
+        InventorySnapshot resized = InventorySnapshot.get( inventory );
+        assertNotSame( snapshot, resized );
+        assertFalse( resized.isValid( token ) );
+        assertTrue( resized.getList().isEmpty() );
+    }
+
+    /**
+     * Tokens for an empty inventory should not be valid for a later snapshot.
+     */
+    @Test
+    public void testEmptyResized()
+    {
+        ItemStackHandler empty = new ItemStackHandler( 1 );
+        long token = InventorySnapshot.get( empty ).getToken();
+
+        empty.setSize( 2 );
+        empty.setStackInSlot( 0, new ItemStack( Items.DIRT, 1 ) );
+        assertFalse( InventorySnapshot.get( empty ).isValid( token ) );
+
+        // Though changes to the original inventory are found as normal.
+        ItemStackHandler other = new ItemStackHandler( 1 );
+        token = InventorySnapshot.get( other ).getToken();
+        other.setStackInSlot( 0, new ItemStack( Items.DIRT, 1 ) );
+        InventorySnapshot snapshot = InventorySnapshot.get( other );
+        assertTrue( snapshot.isValid( token ) );
+        assertEquals( 1, snapshot.getChanges( token ).size() );
+    }
+
+    @Test
+    public void testWeakCache()
+    {
+        ItemStackHandler other = new ItemStackHandler( 3 );
+        other.setStackInSlot( 0, new ItemStack( Items.DIRT, 1 ) );
+        InventorySnapshot.get( other );
+
+        WeakReference<IItemHandler> reference = new WeakReference<>( other );
+        other = null;
+
+        for( int i = 0; i < 10 && reference.get() != null; i++ ) System.gc();
+        assertNull( reference.get(), "Snapshot should not keep the inventory alive" );
+    }
+
+    @Test
+    public void testListChanged()
+    {
+        Object[] result = listChanged( Optional.empty() );
+        assertEquals( 2, ((Map<?, ?>) result[0]).size() );
+        assertEquals( true, result[2], "No token should return every item" );
+        long token = (Long) result[1];
+
+        result = listChanged( Optional.of( token ) );
+        assertEquals( 0, ((Map<?, ?>) result[0]).size() );
+        assertEquals( token, result[1] );
+        assertEquals( false, result[2] );
+
+        inventory.setStackInSlot( 1, new ItemStack( Items.DIRT, 1 ) );
+        result = listChanged( Optional.of( token ) );
+        assertEquals( 1, ((Map<?, ?>) result[0]).size() );
+        assertEquals( false, result[2] );
+
+        // Unknown tokens return every item.
+        for( long unknown : new long[] { -1, 0, Long.MAX_VALUE } )
+        {
+            result = listChanged( Optional.of( unknown ) );
+            assertEquals( 3, ((Map<?, ?>) result[0]).size() );
+            assertEquals( true, result[2], "Token " + unknown + " should return every item" );
+        }
+
+        // As do stale ones, from before the inventory was resized.
+        long stale = (Long) listChanged( Optional.empty() )[1];
+        inventory.setSize( 2 );
+        inventory.setStackInSlot( 0, new ItemStack( Items.STONE, 1 ) );
+        result = listChanged( Optional.of( stale ) );
+        assertEquals( 1, ((Map<?, ?>) result[0]).size() );
+        assertEquals( true, result[2] );
+    }
+
+    private Object[] listChanged( Optional<Long> token )
+    {
+        MethodResult result = InventoryMethods.listChanged( inventory, token );
+        assertNull( result.getCallback() );
+        return result.getResult();
+    }
+}
@@ -0,0 +1,285 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.modem.wired;
+
+import dan200.computercraft.api.filesystem.IMount;
+import dan200.computercraft.api.filesystem.IWritableMount;
+import dan200.computercraft.api.lua.*;
+import dan200.computercraft.api.peripheral.IComputerAccess;
+import dan200.computercraft.api.peripheral.IPeripheral;
+import dan200.computercraft.api.peripheral.IWorkMonitor;
+import dan200.computercraft.shared.peripheral.modem.ModemState;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.World;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WiredModemPeripheralTest
+{
+    private final List<ILuaTask> tasks = new ArrayList<>();
+    private final ILuaContext context = task -> {
+        tasks.add( task );
+        return tasks.size();
+    };
+    private final IComputerAccess computer = new Computer();
+
+    private WiredModemPeripheral modem;
+
+    @BeforeEach
+    public void setup()
+    {
+        Element element = new Element();
+        element.getRemotePeripherals().put( "remote_0", new Remote() );
+
+        WiredModemLocalPeripheral local = new WiredModemLocalPeripheral( () -> {
+        } );
+        modem = new WiredModemPeripheral( new ModemState(), element )
+        {
+            @Nonnull
+            @Override
+            protected WiredModemLocalPeripheral getLocalPeripheral()
+            {
+                return local;
+            }
+
+            @Nonnull
+            @Override
+            public Vector3d getPosition()
+            {
+                return Vector3d.ZERO;
+            }
+        };
+        modem.attach( computer );
+    }
+
+    @Test
+    public void testDirectCalls() throws LuaException
+    {
+        Object[] results = callBatch(
+            call( "remote_0", "add", 1, 2 ),
+            call( "remote_0", "directThrow" ),
+            call( "missing", "add", 1, 2 ),
+            call( "remote_0", "missing" )
+        );
+
+        assertTrue( tasks.isEmpty(), "Should not issue a main thread task" );
+        assertArrayEquals( new Object[] { true, 3 }, (Object[]) results[0] );
+        assertArrayEquals( new Object[] { false, "Java Exception Thrown: java.lang.IllegalStateException: direct" }, (Object[]) results[1] );
+        assertArrayEquals( new Object[] { false, "No peripheral: missing" }, (Object[]) results[2] );
+        assertArrayEquals( new Object[] { false, "No such method missing" }, (Object[]) results[3] );
+    }
+
+    @Test
+    public void testMixedCalls() throws LuaException
+    {
+        Object[] results = callBatch(
+            call( "remote_0", "mainThread" ),
+            call( "remote_0", "add", 1, 2 ),
+            call( "remote_0", "mainThreadThrow" ),
+            call( "remote_0", "directThrow" ),
+            call( "missing", "mainThread" ),
+            call( "remote_0", "mainThread" )
+        );
+
+        assertArrayEquals( new Object[] { true, 123 }, (Object[]) results[0] );
+        assertArrayEquals( new Object[] { true, 3 }, (Object[]) results[1] );
+        assertArrayEquals( new Object[] { false, "Java Exception Thrown: java.lang.IllegalStateException: main" }, (Object[]) results[2] );
+        assertArrayEquals( new Object[] { false, "Java Exception Thrown: java.lang.IllegalStateException: direct" }, (Object[]) results[3] );
+        assertArrayEquals( new Object[] { false, "No peripheral: missing" }, (Object[]) results[4] );
+        assertArrayEquals( new Object[] { true, 123 }, (Object[]) results[5] );
+    }
+
+    @Test
+    public void testSizeLimit() throws LuaException
+    {
+        Map<?, ?>[] calls = new Map<?, ?>[1024];
+        for( int i = 0; i < calls.length; i++ ) calls[i] = call( "remote_0", "add", i, 1 );
+
+        Object[] results = callBatch( calls );
+        assertEquals( 1024, results.length );
+        assertArrayEquals( new Object[] { true, 1024 }, (Object[]) results[1023] );
+
+        Map<Double, Object> tooMany = table( (Object[]) calls );
+        tooMany.put( 1025.0, call( "remote_0", "add", 1, 2 ) );
+        LuaException e = assertThrows( LuaException.class, () -> modem.callBatch( computer, context, tooMany ) );
+        assertEquals( "Too many calls (max 1024)", e.getMessage() );
+    }
+
+    @Test
+    public void testMalformedCall()
+    {
+        LuaException e = assertThrows( LuaException.class, () -> callBatch( call( "remote_0", "add", 1, 2 ), call( "remote_0" ) ) );
+        assertEquals( "bad call #2 (expected peripheral and method name)", e.getMessage() );
+    }
+
+    /**
+     * Run a batch of calls, executing the main thread task if one was issued.
+     *
+     * @param calls The calls to make.
+     * @return The result of each call.
+     * @throws LuaException If the batch could not be run.
+     */
+    private Object[] callBatch( Map<?, ?>... calls ) throws LuaException
+    {
+        MethodResult result = modem.callBatch( computer, context, table( (Object[]) calls ) );
+        if( result.getCallback() == null ) return (Object[]) result.getResult()[0];
+
+        assertEquals( 1, tasks.size(), "Should issue a single main thread task" );
+        Object[] values = tasks.get( 0 ).execute();
+        assertNotNull( values );
+        return (Object[]) values[0];
+    }
+
+    private static Map<Double, Object> call( Object... args )
+    {
+        return table( args );
+    }
+
+    private static Map<Double, Object> table( Object... values )
+    {
+        Map<Double, Object> table = new HashMap<>();
+        for( int i = 0; i < values.length; i++ ) table.put( (double) (i + 1), values[i] );
+        return table;
+    }
+
+    public static class Remote implements IPeripheral
+    {
+        @LuaFunction
+        public final int add( int x, int y )
+        {
+            return x + y;
+        }
+
+        @LuaFunction
+        public final void directThrow()
+        {
+            throw new IllegalStateException( "direct" );
+        }
+
+        @LuaFunction( mainThread = true )
+        public final int mainThread()
+        {
+            return 123;
+        }
+
+        @LuaFunction( mainThread = true )
+        public final void mainThreadThrow()
+        {
+            throw new IllegalStateException( "main" );
+        }
+
+        @Nonnull
+        @Override
+        public String getType()
+        {
+            return "remote";
+        }
+
+        @Override
+        public boolean equals( @Nullable IPeripheral other )
+        {
+            return this == other;
+        }
+    }
+
+    private static final class Element extends WiredModemElement
+    {
+        @Nonnull
+        @Override
+        public World getWorld()
+        {
+            throw new UnsupportedOperationException( "Cannot get the world" );
+        }
+
+        @Nonnull
+        @Override
+        public Vector3d getPosition()
+        {
+            return Vector3d.ZERO;
+        }
+
+        @Override
+        protected void attachPeripheral( String name, IPeripheral peripheral )
+        {
+        }
+
+        @Override
+        protected void detachPeripheral( String name )
+        {
+        }
+    }
+
+    private static final class Computer implements IComputerAccess
+    {
+        @Nullable
+        @Override
+        public String mount( @Nonnull String desiredLocation, @Nonnull IMount mount, @Nonnull String driveName )
+        {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public String mountWritable( @Nonnull String desiredLocation, @Nonnull IWritableMount mount, @Nonnull String driveName )
+        {
+            return null;
+        }
+
+        @Override
+        public void unmount( @Nullable String location )
+        {
+        }
+
+        @Override
+        public int getID()
+        {
+            return 0;
+        }
+
+        @Override
+        public void queueEvent( @Nonnull String event, @Nullable Object... arguments )
+        {
+        }
+
+        @Nonnull
+        @Override
+        public String getAttachmentName()
+        {
+            return "computer";
+        }
+
+        @Nonnull
+        @Override
+        public Map<String, IPeripheral> getAvailablePeripherals()
+        {
+            return Collections.emptyMap();
+        }
+
+        @Nullable
+        @Override
+        public IPeripheral getAvailablePeripheral( @Nonnull String name )
+        {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public IWorkMonitor getMainThreadMonitor()
+        {
+            throw new UnsupportedOperationException( "Cannot get the main thread monitor" );
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of ComputerCraft - http://www.computercraft.info
+ * Copyright Daniel Ratcliffe, 2011-2021. Do not distribute without permission.
+ * Send enquiries to dratcliffe@gmail.com
+ */
+package dan200.computercraft.shared.peripheral.modem.wireless;
+
+import dan200.computercraft.api.network.IPacketReceiver;
+import dan200.computercraft.api.network.Packet;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.World;
+import org.junit.jupiter.api.Disabled;
+import org.junit.jupiter.api.Test;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ReceiverGridTest
+{
+    @Test
+    public void testFindsReceiversInRange()
+    {
+        Random random = new Random( 0 );
+        ReceiverGrid grid = new ReceiverGrid();
+        List<Receiver> receivers = new ArrayList<>();
+        for( int i = 0; i < 2000; i++ )
+        {
+            Receiver receiver = new Receiver( randomPosition( random, 2000 ), random.nextInt( 4 ) == 0 ? 384 : 64 );
+            receivers.add( receiver );
+            grid.maxRange = Math.max( grid.maxRange, receiver.range );
+            grid.add( receiver.entry, receiver.position );
+        }
+
+        for( int i = 0; i < 200; i++ )
+        {
+            Vector3d position = randomPosition( random, 2200 );
+            double range = random.nextInt( 4 ) == 0 ? 384 : 64;
+
+            Map<IPacketReceiver, Integer> visited = new HashMap<>();
+            grid.forEachNear( position, range, x -> visited.merge( x, 1, Integer::sum ) );
+
+            for( Receiver receiver : receivers )
+            {
+                double receiveRange = Math.max( range, receiver.range );
+                if( receiver.position.distanceToSqr( position ) <= receiveRange * receiveRange )
+                {
+                    assertEquals( 1, (int) visited.getOrDefault( receiver, 0 ), "Receiver in range should be visited once" );
+                }
+            }
+
+            for( int count : visited.values() ) assertEquals( 1, count, "Receivers should only be visited once" );
+        }
+    }
+
+    @Test
+    public void testMove()
+    {
+        ReceiverGrid grid = new ReceiverGrid();
+        Receiver receiver = new Receiver( new Vector3d( 0, 64, 0 ), 64 );
+        grid.maxRange = 64;
+        grid.add( receiver.entry, receiver.position );
+
+        Vector3d moved = new Vector3d( 1000, 64, -1000 );
+        grid.move( receiver.entry, moved );
+
+        List<IPacketReceiver> near = new ArrayList<>();
+        grid.forEachNear( Vector3d.ZERO, 64, near::add );
+        assertEquals( Collections.emptyList(), near );
+
+        grid.forEachNear( moved, 64, near::add );
+        assertEquals( Collections.singletonList( receiver ), near );
+
+        grid.remove( receiver.entry );
+        assertTrue( grid.isEmpty() );
+    }
+
+    /**
+     * Compares scanning every receiver (as {@link WirelessNetwork} used to) against the grid, with 10k receivers spread
+     * over three worlds.
+     */
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testPerformance()
+    {
+        Random random = new Random( 0 );
+        List<Receiver> all = new ArrayList<>();
+        ReceiverGrid[] grids = new ReceiverGrid[3];
+        List<List<Receiver>> worlds = new ArrayList<>();
+        for( int world = 0; world < grids.length; world++ )
+        {
+            grids[world] = new ReceiverGrid();
+            grids[world].maxRange = 384;
+            worlds.add( new ArrayList<>() );
+        }
+
+        for( int i = 0; i < 10_000; i++ )
+        {
+            int world = i % grids.length;
+            Receiver receiver = new Receiver( randomPosition( random, 5000 ), random.nextInt( 10 ) == 0 ? 384 : 64 );
+            receiver.world = world;
+            grids[world].add( receiver.entry, receiver.position );
+            worlds.get( world ).add( receiver );
+            all.add( receiver );
+        }
+
+        int packets = 100_000;
+        for( int round = 0; round < 5; round++ )
+        {
+            long scanned = 0, scanTime, gridTime;
+            {
+                Random senders = new Random( round );
+                long start = System.nanoTime();
+                for( int i = 0; i < packets; i++ )
+                {
+                    Receiver sender = all.get( senders.nextInt( all.size() ) );
+                    for( Receiver receiver : all )
+                    {
+                        if( receiver.world == sender.world && receiver.inRange( sender ) ) scanned++;
+                    }
+                }
+                scanTime = System.nanoTime() - start;
+            }
+
+            long[] found = new long[1];
+            {
+                Random senders = new Random( round );
+                long start = System.nanoTime();
+                for( int i = 0; i < packets; i++ )
+                {
+                    Receiver sender = all.get( senders.nextInt( all.size() ) );
+                    grids[sender.world].forEachNear( sender.position, sender.range, x -> {
+                        if( ((Receiver) x).inRange( sender ) ) found[0]++;
+                    } );
+                }
+                gridTime = System.nanoTime() - start;
+            }
+
+            assertEquals( scanned, found[0] );
+            System.out.printf(
+                "%d packets: scanning took %.1fus/packet, grid took %.1fus/packet\n",
+                packets, scanTime * 1e-3 / packets, gridTime * 1e-3 / packets
+            );
+        }
+    }
+
+    private static Vector3d randomPosition( Random random, int size )
+    {
+        return new Vector3d( random.nextDouble() * size * 2 - size, random.nextInt( 256 ), random.nextDouble() * size * 2 - size );
+    }
+
+    private static final class Receiver implements IPacketReceiver
+    {
+        final ReceiverGrid.Entry entry = new ReceiverGrid.Entry( this );
+        final Vector3d position;
+        final double range;
+        int world;
+
+        Receiver( Vector3d position, double range )
+        {
+            this.position = position;
+            this.range = range;
+        }
+
+        boolean inRange( Receiver sender )
+        {
+            double receiveRange = Math.max( sender.range, range );
+            return position.distanceToSqr( sender.position ) <= receiveRange * receiveRange;
+        }
+
+        @Nonnull
+        @Override
+        public World getWorld()
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Nonnull
+        @Override
+        public Vector3d getPosition()
+        {
+            return position;
+        }
+
+        @Override
+        public double getRange()
+        {
+            return range;
+        }
+
+        @Override
+        public boolean isInterdimensional()
+        {
+            return false;
+        }
+
+        @Override
+        public void receiveSameDimension( @Nonnull Packet packet, double distance )
+        {
+        }
+
+        @Override
+        public void receiveDifferentDimension( @Nonnull Packet packet )
+        {
+        }
+    }
+}
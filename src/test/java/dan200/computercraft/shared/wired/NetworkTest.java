@@ -8,6 +8,8 @@ package dan200.computercraft.shared.wired;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
 import dan200.computercraft.api.ComputerCraftAPI;
+import dan200.computercraft.api.network.IPacketReceiver;
+import dan200.computercraft.api.network.Packet;
 import dan200.computercraft.api.network.wired.IWiredElement;
 import dan200.computercraft.api.network.wired.IWiredNetwork;
 import dan200.computercraft.api.network.wired.IWiredNetworkChange;
@@ -241,6 +243,45 @@ public class NetworkTest
         assertEquals( Sets.newHashSet(), cE.allPeripherals().keySet(), "C's peripheral set should be empty" );
     }
 
+    @Test
+    public void testRemoveSplitPartial()
+    {
+        NetworkElement
+            aE = new NetworkElement( null, null, "a" ),
+            bE = new NetworkElement( null, null, "b" ),
+            cE = new NetworkElement( null, null, "c" ),
+            dE = new NetworkElement( null, null, "d" ),
+            ddE = new NetworkElement( null, null, "d_" );
+
+        IWiredNode
+            aN = aE.getNode(),
+            bN = bE.getNode(),
+            cN = cE.getNode(),
+            dN = dE.getNode(),
+            ddN = ddE.getNode();
+
+        // A and B are connected both directly and via C, while D is only connected via C.
+        aN.getNetwork().connect( aN, bN );
+        cN.getNetwork().connect( aN, cN );
+        cN.getNetwork().connect( bN, cN );
+        cN.getNetwork().connect( cN, dN );
+        dN.getNetwork().connect( dN, ddN );
+
+        cN.getNetwork().remove( cN );
+
+        assertEquals( aN.getNetwork(), bN.getNetwork(), "A's and B's network must be equal" );
+        assertNotEquals( aN.getNetwork(), dN.getNetwork(), "A's and D's network must not be equal" );
+        assertEquals( dN.getNetwork(), ddN.getNetwork(), "D's and D_'s network must be equal" );
+
+        assertEquals( Sets.newHashSet( aN, bN ), nodes( aN.getNetwork() ), "A's network should be A and B" );
+        assertEquals( Sets.newHashSet( dN, ddN ), nodes( dN.getNetwork() ), "D's network should be D and D_" );
+        assertEquals( Sets.newHashSet( cN ), nodes( cN.getNetwork() ), "C's network should be C" );
+
+        assertEquals( Sets.newHashSet( "a", "b" ), aE.allPeripherals().keySet(), "A's peripheral set should be A and B" );
+        assertEquals( Sets.newHashSet( "d", "d_" ), ddE.allPeripherals().keySet(), "D_'s peripheral set should be D and D_" );
+        assertEquals( Sets.newHashSet(), cE.allPeripherals().keySet(), "C's peripheral set should be empty" );
+    }
+
     private static final int BRUTE_SIZE = 16;
     private static final int TOGGLE_CONNECTION_TIMES = 5;
     private static final int TOGGLE_NODE_TIMES = 5;
@@ -312,6 +353,92 @@ public class NetworkTest
         }
     }
 
+    @Test
+    public void testTransmit()
+    {
+        NetworkElement
+            aE = new NetworkElement( null, new Vector3d( 0, 0, 0 ), "a" ),
+            bE = new NetworkElement( null, new Vector3d( 3, 0, 0 ), "b" ),
+            cE = new NetworkElement( null, new Vector3d( 3, 4, 0 ), "c" );
+
+        IWiredNode
+            aN = aE.getNode(),
+            bN = bE.getNode(),
+            cN = cE.getNode();
+
+        NetworkReceiver receiver = new NetworkReceiver( cE.getPosition() );
+        cN.addReceiver( receiver );
+
+        aN.getNetwork().connect( aN, bN );
+        aN.getNetwork().connect( bN, cN );
+        aN.transmitSameDimension( new Packet( 1, 1, null, aE ), 64 );
+        assertEquals( 7, receiver.distance, 1e-9, "Packet should travel along the wire" );
+
+        // Adding a shorter path should invalidate any cached routes.
+        aN.getNetwork().connect( aN, cN );
+        aN.transmitSameDimension( new Packet( 1, 1, null, aE ), 64 );
+        assertEquals( 5, receiver.distance, 1e-9, "Packet should take the shorter path" );
+
+        aN.getNetwork().disconnect( aN, cN );
+        aN.transmitSameDimension( new Packet( 1, 1, null, aE ), 64 );
+        assertEquals( 7, receiver.distance, 1e-9, "Packet should take the longer path once disconnected" );
+        assertEquals( 3, receiver.received );
+    }
+
+    /**
+     * Compares transmitting from a node after the network has changed (and so routes must be recomputed) against
+     * transmitting with the routes already cached.
+     */
+    @Test
+    @Disabled( "Takes a long time to run, mostly for benchmarking" )
+    public void testTransmitPerformance()
+    {
+        int size = BRUTE_SIZE * 2;
+        Grid<NetworkElement> grid = new Grid<>( size );
+        grid.map( ( existing, pos ) -> new NetworkElement( null, Vector3d.atCenterOf( pos ), "n_" + pos ) );
+        grid.forEach( ( existing, pos ) -> {
+            for( Direction facing : DirectionUtil.FACINGS )
+            {
+                NetworkElement other = grid.get( pos.relative( facing ) );
+                if( other != null ) existing.getNode().getNetwork().connect( existing.getNode(), other.getNode() );
+            }
+        } );
+
+        NetworkElement sender = grid.get( new BlockPos( 0, 0, 0 ) );
+        NetworkElement receiverElement = grid.get( new BlockPos( size - 1, size - 1, size - 1 ) );
+        NetworkReceiver receiver = new NetworkReceiver( receiverElement.getPosition() );
+        receiverElement.getNode().addReceiver( receiver );
+
+        IWiredNode left = grid.get( new BlockPos( 0, 1, 0 ) ).getNode();
+        IWiredNode right = grid.get( new BlockPos( 1, 1, 0 ) ).getNode();
+        Packet packet = new Packet( 1, 1, null, sender );
+
+        int iterations = 100;
+        for( int round = 0; round < 5; round++ )
+        {
+            long cold = 0;
+            for( int i = 0; i < iterations; i++ )
+            {
+                left.getNetwork().disconnect( left, right );
+                left.getNetwork().connect( left, right );
+
+                long start = System.nanoTime();
+                sender.getNode().transmitSameDimension( packet, size * 4 );
+                cold += System.nanoTime() - start;
+            }
+
+            long start = System.nanoTime();
+            for( int i = 0; i < iterations; i++ ) sender.getNode().transmitSameDimension( packet, size * 4 );
+            long warm = System.nanoTime() - start;
+
+            assertEquals( (round + 1) * iterations * 2, receiver.received );
+            System.out.printf(
+                "%s³ nodes: cold transmit took %.1fus, warm transmit took %.1fus\n",
+                size, cold * 1e-3 / iterations, warm * 1e-3 / iterations
+            );
+        }
+    }
+
     private static final class NetworkElement implements IWiredElement
     {
         private final World world;
@@ -401,6 +528,56 @@ public class NetworkTest
         }
     }
 
+    private static final class NetworkReceiver implements IPacketReceiver
+    {
+        private final Vector3d position;
+        int received;
+        double distance;
+
+        private NetworkReceiver( Vector3d position )
+        {
+            this.position = position;
+        }
+
+        @Nonnull
+        @Override
+        public World getWorld()
+        {
+            return null;
+        }
+
+        @Nonnull
+        @Override
+        public Vector3d getPosition()
+        {
+            return position;
+        }
+
+        @Override
+        public double getRange()
+        {
+            return 0;
+        }
+
+        @Override
+        public boolean isInterdimensional()
+        {
+            return false;
+        }
+
+        @Override
+        public void receiveSameDimension( @Nonnull Packet packet, double distance )
+        {
+            received++;
+            this.distance = distance;
+        }
+
+        @Override
+        public void receiveDifferentDimension( @Nonnull Packet packet )
+        {
+        }
+    }
+
     private static class Grid<T>
     {
         private final int size;